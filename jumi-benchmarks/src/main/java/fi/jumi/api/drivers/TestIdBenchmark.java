@@ -0,0 +1,57 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.api.drivers;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+@NotThreadSafe
+public class TestIdBenchmark {
+
+    @Param({"1", "3", "8"})
+    public int depth;
+
+    private int[] path;
+    private TestId testId;
+    private TestId sibling;
+
+    @Setup
+    public void setup() {
+        path = new int[depth];
+        for (int i = 0; i < path.length; i++) {
+            path[i] = i % 4;
+        }
+        testId = TestId.of(path);
+        sibling = testId.getNextSibling();
+    }
+
+    @Benchmark
+    public TestId ofPath() {
+        return TestId.of(path);
+    }
+
+    @Benchmark
+    public int hash() {
+        return testId.hashCode();
+    }
+
+    @Benchmark
+    public boolean equalTo() {
+        return testId.equals(TestId.of(path));
+    }
+
+    @Benchmark
+    public int compareTo() {
+        return testId.compareTo(sibling);
+    }
+}
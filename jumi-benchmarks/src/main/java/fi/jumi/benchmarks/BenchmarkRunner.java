@@ -0,0 +1,24 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+@NotThreadSafe
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        // Same command line options as JMH's own main class, but we always want to see the allocation rate
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
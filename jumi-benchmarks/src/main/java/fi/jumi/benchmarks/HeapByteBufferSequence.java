@@ -0,0 +1,40 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.benchmarks;
+
+import fi.jumi.core.ipc.buffer.ByteBufferSequence;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed number of segments which are allocated up front, to keep the file system out of the measurements.
+ */
+@NotThreadSafe
+public class HeapByteBufferSequence implements ByteBufferSequence {
+
+    private final ByteBuffer[] segments;
+
+    public HeapByteBufferSequence(int segmentCapacity, int segmentCount) {
+        segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = ByteBuffer.allocate(segmentCapacity);
+        }
+    }
+
+    public int totalCapacity() {
+        return segments.length * segments[0].capacity();
+    }
+
+    @Override
+    public ByteBuffer get(int index) {
+        return segments[index].duplicate();
+    }
+
+    @Override
+    public void release(int index, ByteBuffer buffer) {
+        // the segments are reused between benchmark iterations
+    }
+}
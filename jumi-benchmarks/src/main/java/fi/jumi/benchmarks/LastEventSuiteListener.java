@@ -0,0 +1,97 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.benchmarks;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Keeps hold of the decoded parameters, so that the JIT cannot optimize away creating them.
+ */
+@NotThreadSafe
+public class LastEventSuiteListener implements SuiteListener {
+
+    public Object arg1;
+    public Object arg2;
+    public Object arg3;
+
+    private void event(Object arg1, Object arg2, Object arg3) {
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.arg3 = arg3;
+    }
+
+    @Override
+    public void onSuiteStarted() {
+        event(null, null, null);
+    }
+
+    @Override
+    public void onInternalError(String message, StackTrace cause) {
+        event(message, cause, null);
+    }
+
+    @Override
+    public void onTestFileFound(TestFile testFile) {
+        event(testFile, null, null);
+    }
+
+    @Override
+    public void onAllTestFilesFound() {
+        event(null, null, null);
+    }
+
+    @Override
+    public void onTestFound(TestFile testFile, TestId testId, String name) {
+        event(testFile, testId, name);
+    }
+
+    @Override
+    public void onRunStarted(RunId runId, TestFile testFile) {
+        event(runId, testFile, null);
+    }
+
+    @Override
+    public void onTestStarted(RunId runId, TestId testId) {
+        event(runId, testId, null);
+    }
+
+    @Override
+    public void onPrintedOut(RunId runId, String text) {
+        event(runId, text, null);
+    }
+
+    @Override
+    public void onPrintedErr(RunId runId, String text) {
+        event(runId, text, null);
+    }
+
+    @Override
+    public void onFailure(RunId runId, StackTrace cause) {
+        event(runId, cause, null);
+    }
+
+    @Override
+    public void onTestFinished(RunId runId) {
+        event(runId, null, null);
+    }
+
+    @Override
+    public void onRunFinished(RunId runId) {
+        event(runId, null, null);
+    }
+
+    @Override
+    public void onTestFileFinished(TestFile testFile) {
+        event(testFile, null, null);
+    }
+
+    @Override
+    public void onSuiteFinished() {
+        event(null, null, null);
+    }
+}
@@ -0,0 +1,32 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.benchmarks;
+
+import fi.jumi.actors.eventizers.Event;
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+import fi.jumi.core.events.suiteListener.*;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Typical events of a test run, from the cheapest to the most expensive to encode.
+ */
+@Immutable
+public enum SampleEvents {
+
+    onTestFinished(new OnTestFinishedEvent(new RunId(42))),
+    onTestStarted(new OnTestStartedEvent(new RunId(42), TestId.of(0, 3, 1))),
+    onRunStarted(new OnRunStartedEvent(new RunId(42), TestFile.fromClassName("com.example.SomethingTest"))),
+    onTestFound(new OnTestFoundEvent(TestFile.fromClassName("com.example.SomethingTest"), TestId.of(0, 3, 1), "does something when something else")),
+    onPrintedOut(new OnPrintedOutEvent(new RunId(42), "printed by a test, 40 characters long\r\n")),
+    onFailure(new OnFailureEvent(new RunId(42), StackTrace.from(new AssertionError("expected:<1> but was:<2>"))));
+
+    public final Event<SuiteListener> event;
+
+    SampleEvents(Event<SuiteListener> event) {
+        this.event = event;
+    }
+}
@@ -0,0 +1,76 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc;
+
+import fi.jumi.actors.*;
+import fi.jumi.actors.eventizers.dynamic.DynamicEventizerProvider;
+import fi.jumi.actors.listeners.*;
+import fi.jumi.core.api.SuiteListener;
+import fi.jumi.core.config.*;
+import fi.jumi.core.ipc.api.CommandListener;
+import fi.jumi.core.ipc.dirs.*;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+/**
+ * Round trip of a {@code runTests} command from the launcher to the daemon and back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+@NotThreadSafe
+public class IpcCommandBenchmark {
+
+    private final SuiteConfiguration suiteConfiguration = new SuiteConfiguration();
+    private ExecutorService executor;
+    private DaemonDir daemonDir;
+    private IpcCommandSender persistentSender;
+
+    @Setup
+    public void setup() throws IOException {
+        executor = Executors.newCachedThreadPool();
+        daemonDir = new DaemonDir(Files.createTempDirectory("jumi-benchmark"));
+        Actors actors = new MultiThreadedActors(executor, new DynamicEventizerProvider(), new CrashEarlyFailureHandler(), new NullMessageListener());
+        executor.execute(new CommandsDirectoryObserver(daemonDir, executor, actors.startActorThread(), new CommandListener() {
+            @Override
+            public void runTests(SuiteConfiguration suiteConfiguration, ActorRef<SuiteListener> suiteListener) {
+                suiteListener.tell().onSuiteFinished();
+            }
+
+            @Override
+            public void shutdown() {
+            }
+        }, new DaemonConfiguration(), System.out));
+        persistentSender = new IpcCommandSender(daemonDir.createCommandDir(), executor);
+    }
+
+    @TearDown
+    public void tearDown() {
+        persistentSender.close();
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public Path persistentCommandDir() throws Exception {
+        return persistentSender.runTests(suiteConfiguration).get();
+    }
+
+    @Benchmark
+    public Path newCommandDirPerCommand() throws Exception {
+        IpcCommandSender sender = new IpcCommandSender(daemonDir.createCommandDir(), executor);
+        try {
+            return sender.runTests(suiteConfiguration).get();
+        } finally {
+            sender.close();
+        }
+    }
+}
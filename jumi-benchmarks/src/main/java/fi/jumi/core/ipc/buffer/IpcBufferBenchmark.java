@@ -0,0 +1,96 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import fi.jumi.benchmarks.HeapByteBufferSequence;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+@NotThreadSafe
+public class IpcBufferBenchmark {
+
+    private static final int SEGMENT_CAPACITY = 4096;
+    private static final int SEGMENT_COUNT = 16;
+
+    /**
+     * Whether the values lie inside one segment, or whether every one of them straddles a segment boundary.
+     */
+    @Param({"false", "true"})
+    public boolean acrossSegments;
+
+    private IpcBuffer buffer;
+    private int[] indexes;
+    private int next = 0;
+
+    @Setup
+    public void setup() {
+        buffer = new IpcBuffer(new HeapByteBufferSequence(SEGMENT_CAPACITY, SEGMENT_COUNT));
+
+        // visit the segments back and forth, so that also finding the right segment is measured
+        int visited = SEGMENT_COUNT - 1; // leave room for straddling into the next segment
+        indexes = new int[visited * 2];
+        for (int i = 0; i < visited; i++) {
+            int offset = acrossSegments ? SEGMENT_CAPACITY - 3 : SEGMENT_CAPACITY / 2;
+            int index = i * SEGMENT_CAPACITY + offset;
+            indexes[i] = index;
+            indexes[indexes.length - 1 - i] = index;
+        }
+        for (int index : indexes) {
+            buffer.setLong(index, index);
+        }
+    }
+
+    private int nextIndex() {
+        int index = indexes[next];
+        next = (next + 1) % indexes.length;
+        return index;
+    }
+
+    @Benchmark
+    public byte getByte() {
+        return buffer.getByte(nextIndex());
+    }
+
+    @Benchmark
+    public int getInt() {
+        return buffer.getInt(nextIndex());
+    }
+
+    @Benchmark
+    public long getLong() {
+        return buffer.getLong(nextIndex());
+    }
+
+    @Benchmark
+    public IpcBuffer setByte() {
+        return buffer.setByte(nextIndex(), (byte) 1);
+    }
+
+    @Benchmark
+    public IpcBuffer setInt() {
+        return buffer.setInt(nextIndex(), 1);
+    }
+
+    @Benchmark
+    public IpcBuffer setLong() {
+        return buffer.setLong(nextIndex(), 1L);
+    }
+
+    @Benchmark
+    public IpcBuffer sequentialWrites() {
+        if (buffer.position() + 8 > SEGMENT_CAPACITY * SEGMENT_COUNT) {
+            buffer.position(0);
+        }
+        return buffer.writeLong(1L);
+    }
+}
@@ -0,0 +1,97 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import fi.jumi.actors.eventizers.Event;
+import fi.jumi.benchmarks.*;
+import fi.jumi.core.api.SuiteListener;
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+@NotThreadSafe
+public class IpcProtocolBenchmark {
+
+    private static final int SEGMENT_CAPACITY = 4096;
+    private static final int SEGMENT_COUNT = 16;
+    private static final int BATCH_SIZE = 16;
+
+    @Param
+    public SampleEvents event;
+
+    private IpcBuffer writerBuffer;
+    private IpcBuffer readerBuffer;
+    private IpcProtocol<SuiteListener> writer;
+    private IpcProtocol<SuiteListener> reader;
+    private final LastEventSuiteListener target = new LastEventSuiteListener();
+    private List<Event<SuiteListener>> batch;
+    private long firstMessage;
+    private long rewindLimit;
+
+    @Setup
+    public void setup() {
+        HeapByteBufferSequence segments = new HeapByteBufferSequence(SEGMENT_CAPACITY, SEGMENT_COUNT);
+        writerBuffer = new IpcBuffer(segments);
+        readerBuffer = new IpcBuffer(segments);
+        writer = new IpcProtocol<>(writerBuffer, SuiteListenerEncoding::new);
+        reader = new IpcProtocol<>(readerBuffer, SuiteListenerEncoding::new);
+
+        writer.start();
+        if (reader.poll(target) != PollResult.HAD_SOME_MESSAGES) {
+            throw new IllegalStateException("failed to read the header");
+        }
+        firstMessage = readerBuffer.position();
+        rewindLimit = segments.totalCapacity() - SEGMENT_CAPACITY;
+        batch = Collections.nCopies(BATCH_SIZE, event.event);
+    }
+
+    private void rewindIfFull() {
+        // Keep reusing the same segments; the messages will span segment boundaries
+        // at varying offsets and there is no file system activity in the measurements.
+        if (writerBuffer.position() > rewindLimit) {
+            writerBuffer.position(firstMessage);
+            readerBuffer.position(firstMessage);
+        }
+    }
+
+    @Benchmark
+    public IpcBuffer send() {
+        rewindIfFull();
+        writer.send(event.event);
+        readerBuffer.position(writerBuffer.position());
+        return writerBuffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public LastEventSuiteListener sendAllAndPoll() {
+        rewindIfFull();
+        writer.sendAll(batch);
+        if (reader.poll(target) != PollResult.HAD_SOME_MESSAGES) {
+            throw new AssertionError("messages were not received");
+        }
+        return target;
+    }
+
+    @Benchmark
+    public LastEventSuiteListener sendAndPoll() {
+        rewindIfFull();
+        writer.send(event.event);
+        if (reader.poll(target) != PollResult.HAD_SOME_MESSAGES) {
+            throw new AssertionError("message was not received");
+        }
+        return target;
+    }
+}
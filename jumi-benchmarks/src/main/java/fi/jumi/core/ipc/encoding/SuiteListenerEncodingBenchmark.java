@@ -0,0 +1,61 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.benchmarks.*;
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+@NotThreadSafe
+public class SuiteListenerEncodingBenchmark {
+
+    @Param
+    public SampleEvents event;
+
+    private IpcBuffer buffer;
+    private SuiteListenerEncoding encoding;
+    private final LastEventSuiteListener target = new LastEventSuiteListener();
+    private final FlyweightSuiteListener flyweightTarget = event -> lastEventType = event.getType();
+    private SuiteEventView.Type lastEventType;
+
+    @Setup
+    public void setup() {
+        buffer = new IpcBuffer(new HeapByteBufferSequence(4096, 4));
+        encoding = new SuiteListenerEncoding(buffer);
+
+        // for decode()
+        encoding.encode(event.event);
+    }
+
+    @Benchmark
+    public IpcBuffer encode() {
+        buffer.position(0);
+        encoding.encode(event.event);
+        return buffer;
+    }
+
+    @Benchmark
+    public LastEventSuiteListener decode() {
+        buffer.position(0);
+        encoding.decode(target);
+        return target;
+    }
+
+    @Benchmark
+    public SuiteEventView.Type decodeFlyweight() {
+        buffer.position(0);
+        encoding.decode(flyweightTarget);
+        return lastEventType;
+    }
+}
@@ -0,0 +1,57 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.runs;
+
+import fi.jumi.actors.ActorRef;
+import fi.jumi.api.drivers.*;
+import fi.jumi.benchmarks.LastEventSuiteListener;
+import fi.jumi.core.api.TestFile;
+import fi.jumi.core.stdout.OutputCapturer;
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The path of a test's events from the {@link SuiteNotifier} to the {@link fi.jumi.core.api.SuiteListener}, without
+ * the actor threads in between. Look at the "gc.alloc.rate.norm" result to see how much garbage a test produces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+@NotThreadSafe
+public class RunEventBenchmark {
+
+    private final LastEventSuiteListener suiteListener = new LastEventSuiteListener();
+    private final OutputCapturer outputCapturer = new OutputCapturer();
+    private final PrintStream stdout = outputCapturer.out();
+    private SuiteNotifier notifier;
+
+    @Setup
+    public void setup() {
+        RunEventNormalizer normalizer = new RunEventNormalizer(suiteListener, TestFile.fromClassName("com.example.DummyTest"));
+        notifier = new ThreadBoundSuiteNotifier(ActorRef.<RunListener>wrap(normalizer), new RunIdSequence(), outputCapturer,
+                new RunEventBatching(64, TimeUnit.HOURS.toMillis(1), 1));
+        notifier.fireTestFound(TestId.ROOT, "DummyTest");
+    }
+
+    @Benchmark
+    public LastEventSuiteListener passingTest() {
+        notifier.fireTestStarted(TestId.ROOT).fireTestFinished();
+        return suiteListener;
+    }
+
+    @Benchmark
+    public LastEventSuiteListener printingTest() {
+        TestNotifier test = notifier.fireTestStarted(TestId.ROOT);
+        stdout.print("x");
+        test.fireTestFinished();
+        return suiteListener;
+    }
+}
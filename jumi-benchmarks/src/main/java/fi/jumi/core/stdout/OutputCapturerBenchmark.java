@@ -0,0 +1,79 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.stdout;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.annotation.concurrent.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Use the "-t" command line option to measure contention between the test threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+@ThreadSafe
+public class OutputCapturerBenchmark {
+
+    private final OutputCapturer capturer = new OutputCapturer();
+
+    @Param({"1", "100"})
+    public int textLength;
+
+    private String text;
+
+    @Setup
+    public void setup() {
+        StringBuilder sb = new StringBuilder();
+        while (sb.length() < textLength) {
+            sb.append((char) ('a' + sb.length() % 26));
+        }
+        text = sb.toString();
+    }
+
+    @State(Scope.Thread)
+    @NotThreadSafe
+    public static class TestThread implements OutputListener {
+        public long outChars;
+        public long errChars;
+
+        @Setup
+        public void setup(OutputCapturerBenchmark benchmark) {
+            benchmark.capturer.captureTo(this);
+        }
+
+        @Override
+        public void out(String text) {
+            outChars += text.length();
+        }
+
+        @Override
+        public void err(String text) {
+            errChars += text.length();
+        }
+    }
+
+    @Benchmark
+    public TestThread printOut(TestThread thread) {
+        capturer.out().print(text);
+        return thread;
+    }
+
+    @Benchmark
+    public TestThread printErr(TestThread thread) {
+        capturer.err().print(text);
+        return thread;
+    }
+
+    @Benchmark
+    public TestThread printlnOut(TestThread thread) {
+        capturer.out().println(text);
+        return thread;
+    }
+}
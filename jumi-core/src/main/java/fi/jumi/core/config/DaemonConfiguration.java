@@ -4,6 +4,11 @@
 
 package fi.jumi.core.config;
 
+import fi.jumi.core.ipc.channel.WaitStrategies;
+import fi.jumi.core.ipc.dirs.IpcDirLocation;
+import fi.jumi.core.ipc.encoding.TextCompression;
+
+import javax.annotation.*;
 import javax.annotation.concurrent.Immutable;
 import java.nio.file.*;
 import java.util.*;
@@ -24,7 +29,18 @@ public class DaemonConfiguration {
     public static final SystemProperty IDLE_TIMEOUT = new SystemProperty("idleTimeout", "jumi.daemon.idleTimeout", DEFAULTS);
     public static final SystemProperty STARTUP_TIMEOUT = new SystemProperty("startupTimeout", "jumi.daemon.startupTimeout", DEFAULTS);
     public static final SystemProperty LOG_ACTOR_MESSAGES = new SystemProperty("logActorMessages", "jumi.daemon.logActorMessages", DEFAULTS);
-    public static final List<SystemProperty> PROPERTIES = Arrays.asList(TEST_THREADS_COUNT, LOG_ACTOR_MESSAGES, STARTUP_TIMEOUT, IDLE_TIMEOUT);
+    public static final SystemProperty COLLAPSE_FRAMEWORK_FRAMES = new SystemProperty("collapseFrameworkFrames", "jumi.daemon.collapseFrameworkFrames", DEFAULTS);
+    public static final SystemProperty IPC_SEGMENT_MIN_SIZE = new SystemProperty("ipcSegmentMinSize", "jumi.daemon.ipcSegmentMinSize", DEFAULTS);
+    public static final SystemProperty IPC_SEGMENT_MAX_SIZE = new SystemProperty("ipcSegmentMaxSize", "jumi.daemon.ipcSegmentMaxSize", DEFAULTS);
+    public static final SystemProperty IPC_WAIT_STRATEGY = new SystemProperty("ipcWaitStrategy", "jumi.daemon.ipcWaitStrategy", DEFAULTS);
+    public static final SystemProperty IPC_COMPRESSION_THRESHOLD = new SystemProperty("ipcCompressionThreshold", "jumi.daemon.ipcCompressionThreshold", DEFAULTS);
+    public static final SystemProperty IPC_DIR_LOCATION = new SystemProperty("ipcDirLocation", "jumi.daemon.ipcDirLocation", DEFAULTS);
+    public static final SystemProperty RESULTS_ARCHIVE_DIR = new SystemProperty("resultsArchiveDir", "jumi.daemon.resultsArchiveDir", DEFAULTS);
+    public static final SystemProperty ACTOR_THREADS_COUNT = new SystemProperty("actorThreadsCount", "jumi.daemon.actorThreadsCount", DEFAULTS);
+    public static final SystemProperty RUN_EVENT_BATCH_SIZE = new SystemProperty("runEventBatchSize", "jumi.daemon.runEventBatchSize", DEFAULTS);
+    public static final SystemProperty RUN_EVENT_BATCH_LATENCY = new SystemProperty("runEventBatchLatency", "jumi.daemon.runEventBatchLatency", DEFAULTS);
+    public static final SystemProperty LOG_ACTOR_STATISTICS = new SystemProperty("logActorStatistics", "jumi.daemon.logActorStatistics", DEFAULTS);
+    public static final List<SystemProperty> PROPERTIES = Arrays.asList(TEST_THREADS_COUNT, LOG_ACTOR_MESSAGES, STARTUP_TIMEOUT, IDLE_TIMEOUT, COLLAPSE_FRAMEWORK_FRAMES, IPC_SEGMENT_MIN_SIZE, IPC_SEGMENT_MAX_SIZE, IPC_WAIT_STRATEGY, IPC_COMPRESSION_THRESHOLD, IPC_DIR_LOCATION, RESULTS_ARCHIVE_DIR, ACTOR_THREADS_COUNT, RUN_EVENT_BATCH_SIZE, RUN_EVENT_BATCH_LATENCY, LOG_ACTOR_STATISTICS);
 
     // command line arguments
     private final Path jumiHome;
@@ -36,6 +52,18 @@ public class DaemonConfiguration {
     private final boolean logActorMessages;
     private final long startupTimeout;
     private final long idleTimeout;
+    private final boolean collapseFrameworkFrames;
+    private final int ipcSegmentMinSize;
+    private final int ipcSegmentMaxSize;
+    private final WaitStrategies ipcWaitStrategy;
+    private final int ipcCompressionThreshold;
+    private final IpcDirLocation ipcDirLocation;
+    @Nullable
+    private final Path resultsArchiveDir;
+    private final int actorThreadsCount;
+    private final int runEventBatchSize;
+    private final long runEventBatchLatency;
+    private final boolean logActorStatistics;
 
     public DaemonConfiguration() {
         jumiHome = Paths.get(System.getProperty("user.home"), ".jumi");
@@ -45,6 +73,17 @@ public class DaemonConfiguration {
         logActorMessages = false;
         startupTimeout = TimeUnit.SECONDS.toMillis(30);
         idleTimeout = TimeUnit.SECONDS.toMillis(1);  // TODO: increase to 15 min, after implementing persistent daemons
+        collapseFrameworkFrames = false;
+        ipcSegmentMinSize = 4 * 1024;
+        ipcSegmentMaxSize = 512 * 1024;
+        ipcWaitStrategy = WaitStrategies.PROGRESSIVE_SLEEP;
+        ipcCompressionThreshold = TextCompression.DISABLED;
+        ipcDirLocation = IpcDirLocation.AUTO;
+        resultsArchiveDir = null;
+        actorThreadsCount = 1;
+        runEventBatchSize = 64;
+        runEventBatchLatency = 50;
+        logActorStatistics = false;
     }
 
     DaemonConfiguration(DaemonConfigurationBuilder src) {
@@ -55,6 +94,17 @@ public class DaemonConfiguration {
         logActorMessages = src.getLogActorMessages();
         startupTimeout = src.getStartupTimeout();
         idleTimeout = src.getIdleTimeout();
+        collapseFrameworkFrames = src.getCollapseFrameworkFrames();
+        ipcSegmentMinSize = src.getIpcSegmentMinSize();
+        ipcSegmentMaxSize = src.getIpcSegmentMaxSize();
+        ipcWaitStrategy = src.getIpcWaitStrategy();
+        ipcCompressionThreshold = src.getIpcCompressionThreshold();
+        ipcDirLocation = src.getIpcDirLocation();
+        resultsArchiveDir = src.getResultsArchiveDir();
+        actorThreadsCount = src.getActorThreadsCount();
+        runEventBatchSize = src.getRunEventBatchSize();
+        runEventBatchLatency = src.getRunEventBatchLatency();
+        logActorStatistics = src.getLogActorStatistics();
     }
 
     public DaemonConfigurationBuilder melt() {
@@ -119,4 +169,49 @@ public class DaemonConfiguration {
     public long getIdleTimeout() {
         return idleTimeout;
     }
+
+    public boolean getCollapseFrameworkFrames() {
+        return collapseFrameworkFrames;
+    }
+
+    public int getIpcSegmentMinSize() {
+        return ipcSegmentMinSize;
+    }
+
+    public int getIpcSegmentMaxSize() {
+        return ipcSegmentMaxSize;
+    }
+
+    public WaitStrategies getIpcWaitStrategy() {
+        return ipcWaitStrategy;
+    }
+
+    public int getIpcCompressionThreshold() {
+        return ipcCompressionThreshold;
+    }
+
+    public IpcDirLocation getIpcDirLocation() {
+        return ipcDirLocation;
+    }
+
+    @CheckForNull
+    public Path getResultsArchiveDir() {
+        return resultsArchiveDir;
+    }
+
+    public int getActorThreadsCount() {
+        return actorThreadsCount;
+    }
+
+    public int getRunEventBatchSize() {
+        return runEventBatchSize;
+    }
+
+    public long getRunEventBatchLatency() {
+        return runEventBatchLatency;
+    }
+
+    public boolean getLogActorStatistics() {
+        return logActorStatistics;
+    }
 }
@@ -4,6 +4,10 @@
 
 package fi.jumi.core.config;
 
+import fi.jumi.core.ipc.channel.WaitStrategies;
+import fi.jumi.core.ipc.dirs.IpcDirLocation;
+
+import javax.annotation.*;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.nio.file.*;
 import java.util.*;
@@ -21,6 +25,18 @@ public class DaemonConfigurationBuilder {
     private boolean logActorMessages;
     private long startupTimeout;
     private long idleTimeout;
+    private boolean collapseFrameworkFrames;
+    private int ipcSegmentMinSize;
+    private int ipcSegmentMaxSize;
+    private WaitStrategies ipcWaitStrategy;
+    private int ipcCompressionThreshold;
+    private IpcDirLocation ipcDirLocation;
+    @Nullable
+    private Path resultsArchiveDir;
+    private int actorThreadsCount;
+    private int runEventBatchSize;
+    private long runEventBatchLatency;
+    private boolean logActorStatistics;
 
     public DaemonConfigurationBuilder() {
         this(DaemonConfiguration.DEFAULTS);
@@ -34,6 +50,17 @@ public class DaemonConfigurationBuilder {
         logActorMessages = src.getLogActorMessages();
         startupTimeout = src.getStartupTimeout();
         idleTimeout = src.getIdleTimeout();
+        collapseFrameworkFrames = src.getCollapseFrameworkFrames();
+        ipcSegmentMinSize = src.getIpcSegmentMinSize();
+        ipcSegmentMaxSize = src.getIpcSegmentMaxSize();
+        ipcWaitStrategy = src.getIpcWaitStrategy();
+        ipcCompressionThreshold = src.getIpcCompressionThreshold();
+        ipcDirLocation = src.getIpcDirLocation();
+        resultsArchiveDir = src.getResultsArchiveDir();
+        actorThreadsCount = src.getActorThreadsCount();
+        runEventBatchSize = src.getRunEventBatchSize();
+        runEventBatchLatency = src.getRunEventBatchLatency();
+        logActorStatistics = src.getLogActorStatistics();
     }
 
     public DaemonConfiguration freeze() {
@@ -146,4 +173,104 @@ public class DaemonConfigurationBuilder {
         this.idleTimeout = idleTimeout;
         return this;
     }
+
+    public boolean getCollapseFrameworkFrames() {
+        return collapseFrameworkFrames;
+    }
+
+    public DaemonConfigurationBuilder setCollapseFrameworkFrames(boolean collapseFrameworkFrames) {
+        this.collapseFrameworkFrames = collapseFrameworkFrames;
+        return this;
+    }
+
+    public int getIpcSegmentMinSize() {
+        return ipcSegmentMinSize;
+    }
+
+    public DaemonConfigurationBuilder setIpcSegmentMinSize(int ipcSegmentMinSize) {
+        this.ipcSegmentMinSize = ipcSegmentMinSize;
+        return this;
+    }
+
+    public int getIpcSegmentMaxSize() {
+        return ipcSegmentMaxSize;
+    }
+
+    public DaemonConfigurationBuilder setIpcSegmentMaxSize(int ipcSegmentMaxSize) {
+        this.ipcSegmentMaxSize = ipcSegmentMaxSize;
+        return this;
+    }
+
+    public WaitStrategies getIpcWaitStrategy() {
+        return ipcWaitStrategy;
+    }
+
+    public DaemonConfigurationBuilder setIpcWaitStrategy(WaitStrategies ipcWaitStrategy) {
+        this.ipcWaitStrategy = ipcWaitStrategy;
+        return this;
+    }
+
+    public int getIpcCompressionThreshold() {
+        return ipcCompressionThreshold;
+    }
+
+    public DaemonConfigurationBuilder setIpcCompressionThreshold(int ipcCompressionThreshold) {
+        this.ipcCompressionThreshold = ipcCompressionThreshold;
+        return this;
+    }
+
+    public IpcDirLocation getIpcDirLocation() {
+        return ipcDirLocation;
+    }
+
+    public DaemonConfigurationBuilder setIpcDirLocation(IpcDirLocation ipcDirLocation) {
+        this.ipcDirLocation = ipcDirLocation;
+        return this;
+    }
+
+    @CheckForNull
+    public Path getResultsArchiveDir() {
+        return resultsArchiveDir;
+    }
+
+    public DaemonConfigurationBuilder setResultsArchiveDir(@Nullable Path resultsArchiveDir) {
+        this.resultsArchiveDir = resultsArchiveDir;
+        return this;
+    }
+
+    public int getActorThreadsCount() {
+        return actorThreadsCount;
+    }
+
+    public DaemonConfigurationBuilder setActorThreadsCount(int actorThreadsCount) {
+        this.actorThreadsCount = actorThreadsCount;
+        return this;
+    }
+
+    public int getRunEventBatchSize() {
+        return runEventBatchSize;
+    }
+
+    public DaemonConfigurationBuilder setRunEventBatchSize(int runEventBatchSize) {
+        this.runEventBatchSize = runEventBatchSize;
+        return this;
+    }
+
+    public long getRunEventBatchLatency() {
+        return runEventBatchLatency;
+    }
+
+    public DaemonConfigurationBuilder setRunEventBatchLatency(long runEventBatchLatency) {
+        this.runEventBatchLatency = runEventBatchLatency;
+        return this;
+    }
+
+    public boolean getLogActorStatistics() {
+        return logActorStatistics;
+    }
+
+    public DaemonConfigurationBuilder setLogActorStatistics(boolean logActorStatistics) {
+        this.logActorStatistics = logActorStatistics;
+        return this;
+    }
 }
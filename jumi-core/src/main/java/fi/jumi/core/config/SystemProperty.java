@@ -8,6 +8,7 @@ import fi.jumi.core.util.Boilerplate;
 
 import javax.annotation.concurrent.Immutable;
 import java.lang.reflect.Method;
+import java.nio.file.*;
 import java.util.Properties;
 
 @Immutable
@@ -37,7 +38,7 @@ class SystemProperty {
         Object value = get(source);
         Object defaultValue = get(defaults);
 
-        if (!value.equals(defaultValue)) {
+        if (value != null && !value.equals(defaultValue)) {
             target.setProperty(systemProperty, String.valueOf(value));
         }
     }
@@ -75,9 +76,20 @@ class SystemProperty {
         if (type == boolean.class) {
             return Boolean.parseBoolean(value);
         }
+        if (type == Path.class) {
+            return Paths.get(value);
+        }
+        if (type.isEnum()) {
+            return parseEnum(type, value);
+        }
         throw new IllegalArgumentException("unsupported type: " + type);
     }
 
+    @SuppressWarnings("unchecked")
+    private static Object parseEnum(Class<?> type, String value) {
+        return Enum.valueOf(type.asSubclass(Enum.class), value);
+    }
+
     private static String getterName(String beanProperty) {
         return "get" + capitalize(beanProperty);
     }
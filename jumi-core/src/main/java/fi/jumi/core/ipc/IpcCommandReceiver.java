@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -6,18 +6,20 @@ package fi.jumi.core.ipc;
 
 import fi.jumi.actors.*;
 import fi.jumi.core.api.SuiteListener;
-import fi.jumi.core.config.SuiteConfiguration;
+import fi.jumi.core.config.*;
 import fi.jumi.core.events.*;
 import fi.jumi.core.events.suiteListener.OnSuiteFinishedEvent;
 import fi.jumi.core.ipc.api.*;
+import fi.jumi.core.ipc.buffer.*;
 import fi.jumi.core.ipc.channel.*;
 import fi.jumi.core.ipc.dirs.*;
 import fi.jumi.core.ipc.encoding.*;
 import fi.jumi.core.util.Boilerplate;
 
 import javax.annotation.concurrent.NotThreadSafe;
-import java.io.IOException;
+import java.io.*;
 import java.nio.file.Path;
+import java.util.concurrent.Executor;
 
 @NotThreadSafe
 public class IpcCommandReceiver implements Runnable {
@@ -26,22 +28,30 @@ public class IpcCommandReceiver implements Runnable {
     private final CommandDir commandDir;
     private final CommandListener commandListener;
     private final ActorThread actorThread;
+    private final Executor backgroundExecutor;
+    private final DaemonConfiguration config;
+    private final PrintStream logOutput;
 
-    public IpcCommandReceiver(DaemonDir daemonDir, CommandDir commandDir, CommandListener commandListener, ActorThread actorThread) {
+    public IpcCommandReceiver(DaemonDir daemonDir, CommandDir commandDir, CommandListener commandListener, ActorThread actorThread,
+                              Executor backgroundExecutor, DaemonConfiguration config, PrintStream logOutput) {
         this.daemonDir = daemonDir;
         this.commandDir = commandDir;
         this.commandListener = commandListener;
         this.actorThread = actorThread;
+        this.backgroundExecutor = backgroundExecutor;
+        this.config = config;
+        this.logOutput = logOutput;
     }
 
     @Override
     public void run() {
-        IpcReader<RequestListener> requestReader = IpcChannel.reader(commandDir.getRequestPath(), RequestListenerEncoding::new);
+        Path requestPath = commandDir.getRequestPath();
         ActorRef<RequestHandler> requestHandler = actorThread.bindActor(RequestHandler.class,
-                new RequestHandlerImpl(daemonDir, commandDir, commandListener, actorThread));
+                new RequestHandlerImpl(daemonDir, commandDir, commandListener, actorThread, backgroundExecutor, config, logOutput));
         requestHandler.tell().start();
-        try {
-            IpcReaders.decodeAll(requestReader, requestHandler.tell());
+        // a long-lived channel would otherwise keep accumulating files
+        try (ConsumingIpcReader<RequestListener> requestReader = IpcChannel.consumingReader(requestPath, RequestListenerEncoding::new)) {
+            IpcReaders.decodeAll(requestReader, requestHandler.tell(), config.getIpcWaitStrategy().create(requestPath));
         } catch (InterruptedException e) {
             System.err.println(this + " interrupted");
             Thread.currentThread().interrupt();
@@ -57,15 +67,22 @@ public class IpcCommandReceiver implements Runnable {
         private final CommandDir commandDir;
         private final CommandListener commandListener;
         private final ActorThread actorThread;
+        private final Executor backgroundExecutor;
+        private final DaemonConfiguration config;
+        private final PrintStream logOutput;
 
         private IpcWriter<ResponseListener> responseWriter;
         private ResponseListener response;
 
-        public RequestHandlerImpl(DaemonDir daemonDir, CommandDir commandDir, CommandListener commandListener, ActorThread actorThread) {
+        public RequestHandlerImpl(DaemonDir daemonDir, CommandDir commandDir, CommandListener commandListener, ActorThread actorThread,
+                                  Executor backgroundExecutor, DaemonConfiguration config, PrintStream logOutput) {
             this.daemonDir = daemonDir;
             this.commandDir = commandDir;
             this.commandListener = commandListener;
             this.actorThread = actorThread;
+            this.backgroundExecutor = backgroundExecutor;
+            this.config = config;
+            this.logOutput = logOutput;
         }
 
         @Override
@@ -81,32 +98,53 @@ public class IpcCommandReceiver implements Runnable {
 
         @Override
         public void runTests(SuiteConfiguration suiteConfiguration) {
-            Path suiteResults = newSuiteResultsFile();
-            ActorRef<SuiteListener> suiteWriter = startSuiteWriter(suiteResults);
-            response.onSuiteStarted(suiteResults);
+            SuiteDir suiteDir = newSuiteDir();
+            ActorRef<SuiteListener> suiteWriter = startSuiteWriter(suiteDir);
+            response.onSuiteStarted(suiteDir.getSuiteResultsPath().toUri());
             commandListener.runTests(suiteConfiguration, suiteWriter);
         }
 
-        private Path newSuiteResultsFile() {
+        private SuiteDir newSuiteDir() {
             try {
-                return daemonDir.createSuiteDir().getSuiteResultsPath();
+                return daemonDir.createSuiteDir();
             } catch (IOException e) {
                 // TODO: write a failure to results file?
                 throw Boilerplate.rethrow(e);
             }
         }
 
-        private ActorRef<SuiteListener> startSuiteWriter(Path suiteResults) {
-            IpcWriter<SuiteListener> suiteWriter = IpcChannel.writer(suiteResults, SuiteListenerEncoding::new);
+        private ActorRef<SuiteListener> startSuiteWriter(SuiteDir suiteDir) {
+            FileSegmenter segmenter = new AdaptiveFileSegmenter(suiteDir.getSuiteResultsPath(), config.getIpcSegmentMinSize(), config.getIpcSegmentMaxSize());
+            FrameworkFrames frameworkFrames = config.getCollapseFrameworkFrames() ? FrameworkFrames.COMMON : FrameworkFrames.NONE;
+            IpcWriter<SuiteListener> suiteWriter = IpcChannel.writer(segmenter, backgroundExecutor,
+                    buffer -> new SuiteListenerEncoding(buffer, frameworkFrames, config.getIpcCompressionThreshold()));
             SuiteListener frontend = new SuiteListenerEventizer().newFrontend(message -> {
                 suiteWriter.send(message);
                 if (message instanceof OnSuiteFinishedEvent) { // XXX
                     suiteWriter.close();
+                    archiveResults(suiteDir);
                 }
             });
             return actorThread.bindActor(SuiteListener.class, frontend);
         }
 
+        private void archiveResults(SuiteDir suiteDir) {
+            Path archiveDir = config.getResultsArchiveDir();
+            if (archiveDir == null) {
+                return;
+            }
+            // copying may take long, and meanwhile this actor thread would not be able to serve the next suite
+            backgroundExecutor.execute(() -> {
+                try {
+                    suiteDir.copyTo(archiveDir);
+                } catch (IOException e) {
+                    // the results were already delivered, so not worth crashing the daemon
+                    logOutput.println("Failed to archive the suite results to " + archiveDir);
+                    e.printStackTrace(logOutput);
+                }
+            });
+        }
+
         @Override
         public void shutdown() {
             commandListener.shutdown();
@@ -5,7 +5,7 @@
 package fi.jumi.core.ipc;
 
 import com.google.common.util.concurrent.SettableFuture;
-import fi.jumi.core.config.SuiteConfiguration;
+import fi.jumi.core.config.*;
 import fi.jumi.core.events.RequestListenerEventizer;
 import fi.jumi.core.ipc.api.*;
 import fi.jumi.core.ipc.channel.*;
@@ -14,7 +14,8 @@ import fi.jumi.core.ipc.encoding.*;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.Closeable;
-import java.nio.file.Path;
+import java.net.URI;
+import java.nio.file.*;
 import java.util.concurrent.*;
 
 @NotThreadSafe
@@ -25,9 +26,13 @@ public class IpcCommandSender implements Closeable {
     private final BlockingQueue<ResponseListener> handlersForExpectedResponses = new LinkedBlockingQueue<>();
 
     public IpcCommandSender(CommandDir commandDir, Executor workerThreads) {
+        this(commandDir, workerThreads, DaemonConfiguration.DEFAULTS.getIpcWaitStrategy());
+    }
+
+    public IpcCommandSender(CommandDir commandDir, Executor workerThreads, WaitStrategies waitStrategy) {
         this.requestWriter = IpcChannel.writer(commandDir.getRequestPath(), RequestListenerEncoding::new);
         this.requestSender = new RequestListenerEventizer().newFrontend(requestWriter);
-        workerThreads.execute(new ResponseReader(commandDir, handlersForExpectedResponses));
+        workerThreads.execute(new ResponseReader(commandDir, waitStrategy, handlersForExpectedResponses));
     }
 
     @Override
@@ -39,8 +44,8 @@ public class IpcCommandSender implements Closeable {
         SettableFuture<Path> future = SettableFuture.create();
         handlersForExpectedResponses.add(new ResponseListener() {
             @Override
-            public void onSuiteStarted(Path suiteResults) {
-                future.set(suiteResults);
+            public void onSuiteStarted(URI suiteResults) {
+                future.set(Paths.get(suiteResults));
             }
         });
         requestSender.runTests(suiteConfiguration);
@@ -55,19 +60,20 @@ public class IpcCommandSender implements Closeable {
     @NotThreadSafe
     private static class ResponseReader implements Runnable {
         private final CommandDir commandDir;
+        private final WaitStrategies waitStrategy;
         private final BlockingQueue<ResponseListener> handlersForExpectedResponses;
 
-        public ResponseReader(CommandDir commandDir, BlockingQueue<ResponseListener> handlersForExpectedResponses) {
+        public ResponseReader(CommandDir commandDir, WaitStrategies waitStrategy, BlockingQueue<ResponseListener> handlersForExpectedResponses) {
             this.commandDir = commandDir;
+            this.waitStrategy = waitStrategy;
             this.handlersForExpectedResponses = handlersForExpectedResponses;
         }
 
         @Override
         public void run() {
-            IpcReader<ResponseListener> responseReader = IpcChannel.reader(commandDir.getResponsePath(), ResponseListenerEncoding::new);
             ResponseListener responseHandler = new ResponseListener() {
                 @Override
-                public void onSuiteStarted(Path suiteResults) {
+                public void onSuiteStarted(URI suiteResults) {
                     ResponseListener handler = handlersForExpectedResponses.poll();
                     if (handler == null) {
                         throw new IllegalStateException("Nobody was expecting this event");
@@ -75,8 +81,10 @@ public class IpcCommandSender implements Closeable {
                     handler.onSuiteStarted(suiteResults);
                 }
             };
-            try {
-                IpcReaders.decodeAll(responseReader, responseHandler);
+            // a long-lived channel would otherwise keep accumulating files
+            Path responsePath = commandDir.getResponsePath();
+            try (ConsumingIpcReader<ResponseListener> responseReader = IpcChannel.consumingReader(responsePath, ResponseListenerEncoding::new)) {
+                IpcReaders.decodeAll(responseReader, responseHandler, waitStrategy.create(responsePath));
             } catch (InterruptedException e) {
                 System.err.println(this + " interrupted");
                 Thread.currentThread().interrupt();
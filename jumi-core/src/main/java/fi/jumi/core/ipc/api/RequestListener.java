@@ -6,8 +6,11 @@ package fi.jumi.core.ipc.api;
 
 import fi.jumi.actors.generator.GenerateEventizer;
 import fi.jumi.core.config.SuiteConfiguration;
+import fi.jumi.core.ipc.encoding.FieldEncoding;
+import fi.jumi.ipc.generator.GenerateMessageEncoding;
 
 @GenerateEventizer(targetPackage = "fi.jumi.core.events")
+@GenerateMessageEncoding(targetPackage = "fi.jumi.core.ipc.encoding", fieldEncoding = FieldEncoding.class)
 public interface RequestListener {
 
     void runTests(SuiteConfiguration suiteConfiguration);
@@ -5,11 +5,17 @@
 package fi.jumi.core.ipc.api;
 
 import fi.jumi.actors.generator.GenerateEventizer;
+import fi.jumi.core.ipc.encoding.FieldEncoding;
+import fi.jumi.ipc.generator.GenerateMessageEncoding;
 
-import java.nio.file.Path;
+import java.net.URI;
 
 @GenerateEventizer(targetPackage = "fi.jumi.core.events")
+@GenerateMessageEncoding(targetPackage = "fi.jumi.core.ipc.encoding", fieldEncoding = FieldEncoding.class)
 public interface ResponseListener {
 
-    void onSuiteStarted(Path suiteResults);
+    /**
+     * @param suiteResults a URI instead of a Path, because these events are also sent over the network
+     */
+    void onSuiteStarted(URI suiteResults);
 }
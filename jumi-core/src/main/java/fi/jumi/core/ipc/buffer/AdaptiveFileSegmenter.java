@@ -0,0 +1,105 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the segments based on how fast they are written. If the previous segment was filled up faster than
+ * the target fill time, the next segment will be twice as big. If it took much longer, the next segment will be
+ * half as big. The sizes stay between the min and max size.
+ * <p>
+ * The fill time of a segment is measured from when the writer starts writing to it until it starts writing to the
+ * next segment, as reported to {@link #segmentStarted(int)}, so the sizes do not depend on when the segments are
+ * created or preallocated.
+ */
+@ThreadSafe
+public class AdaptiveFileSegmenter extends FileSegmenter {
+
+    public static final long DEFAULT_TARGET_FILL_TIME = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final int minSize;
+    private final int maxSize;
+    private final long targetFillTimeNanos;
+    private final Clock clock;
+
+    private final List<Integer> sizes = new ArrayList<>();
+    private final List<Long> startTimes = new ArrayList<>(); // by segment; null if not yet started
+    private int measuredSegments = 0;
+
+    public AdaptiveFileSegmenter(Path base, int minSize, int maxSize) {
+        this(base, minSize, maxSize, DEFAULT_TARGET_FILL_TIME, System::nanoTime);
+    }
+
+    public AdaptiveFileSegmenter(Path base, int minSize, int maxSize, long targetFillTimeNanos, Clock clock) {
+        super(base, minSize, maxSize);
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.targetFillTimeNanos = targetFillTimeNanos;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized int sizeOf(int segment) {
+        while (sizes.size() <= segment) {
+            sizes.add(nextSize());
+        }
+        return sizes.get(segment);
+    }
+
+    @Override
+    public synchronized void segmentStarted(int segment) {
+        while (startTimes.size() <= segment) {
+            startTimes.add(null);
+        }
+        if (startTimes.get(segment) == null) {
+            startTimes.set(segment, clock.nanoTime());
+        }
+    }
+
+    private int nextSize() {
+        if (sizes.isEmpty()) {
+            return minSize;
+        }
+        int previousSize = sizes.get(sizes.size() - 1);
+        Long fillTime = takeLatestFillTime();
+        if (fillTime == null) {
+            return previousSize;
+        }
+        if (fillTime < targetFillTimeNanos) {
+            return previousSize > maxSize / 2 ? maxSize : previousSize * 2;
+        }
+        if (fillTime > targetFillTimeNanos * 4) {
+            return Math.max(minSize, previousSize / 2);
+        }
+        return previousSize;
+    }
+
+    /**
+     * Returns the fill time of the latest filled segment, unless it was already used for sizing an earlier segment.
+     */
+    @CheckForNull
+    private Long takeLatestFillTime() {
+        // a segment has been filled when the writer starts writing to the next segment
+        for (int segment = startTimes.size() - 2; segment >= measuredSegments; segment--) {
+            Long started = startTimes.get(segment);
+            Long filled = startTimes.get(segment + 1);
+            if (started != null && filled != null) {
+                measuredSegments = segment + 1;
+                return filled - started;
+            }
+        }
+        return null;
+    }
+
+
+    public interface Clock {
+        long nanoTime();
+    }
+}
@@ -0,0 +1,68 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.reflect.*;
+import java.nio.ByteBuffer;
+
+/**
+ * Frees the memory of direct buffers without waiting for the garbage collector. There is no public API for this,
+ * so we use the internal APIs of Java 7-8 ({@code DirectBuffer.cleaner()}) and Java 9+ ({@code Unsafe.invokeCleaner()}).
+ * If neither is available, the memory is freed when the buffer is garbage collected.
+ * <p>
+ * The buffer, and all its slices and duplicates, must not be accessed after unmapping it, or the JVM will crash.
+ */
+@ThreadSafe
+class BufferUnmapper {
+
+    private static final Unmapper UNMAPPER = findUnmapper();
+
+    public static boolean unmap(ByteBuffer buffer) {
+        if (UNMAPPER == null || !buffer.isDirect()) {
+            return false;
+        }
+        try {
+            UNMAPPER.unmap(buffer);
+            return true;
+        } catch (Exception e) {
+            // the buffer stays mapped until it is garbage collected, which is safe
+            return false;
+        }
+    }
+
+    @CheckForNull
+    private static Unmapper findUnmapper() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            Object unsafe = theUnsafe.get(null);
+            return buffer -> invokeCleaner.invoke(unsafe, buffer);
+        } catch (Exception e) {
+            // not Java 9+
+        }
+        try {
+            Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return buffer -> {
+                Object c = cleaner.invoke(buffer);
+                if (c != null) {
+                    clean.invoke(c);
+                }
+            };
+        } catch (Exception e) {
+            // not Java 7-8
+        }
+        // the buffers will be unmapped when garbage collected
+        return null;
+    }
+
+    private interface Unmapper {
+        void unmap(ByteBuffer buffer) throws Exception;
+    }
+}
@@ -9,4 +9,9 @@ import java.nio.ByteBuffer;
 public interface ByteBufferSequence {
 
     ByteBuffer get(int index);
+
+    /**
+     * Called when the segment returned by {@link #get(int)} will not anymore be accessed.
+     */
+    void release(int index, ByteBuffer buffer);
 }
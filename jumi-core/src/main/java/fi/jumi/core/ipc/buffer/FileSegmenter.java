@@ -41,4 +41,10 @@ public class FileSegmenter {
         }
         return size;
     }
+
+    /**
+     * Called when the writer starts writing to the segment. Does nothing by default.
+     */
+    public void segmentStarted(int segment) {
+    }
 }
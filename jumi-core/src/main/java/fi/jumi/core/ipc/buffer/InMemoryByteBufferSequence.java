@@ -0,0 +1,112 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import javax.annotation.concurrent.*;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * Heap memory segments for when the writer and reader of a channel are in the same JVM.
+ * The segments are sized the same way as files, but only {@link FileSegmenter#sizeOf} is used.
+ */
+@ThreadSafe
+public class InMemoryByteBufferSequence implements ByteBufferSequence {
+
+    private static final int MAX_POOLED_PER_SIZE = 4;
+
+    private final Segments segments;
+    private final boolean recycleReleased;
+
+    public InMemoryByteBufferSequence(FileSegmenter segmenter) {
+        this(new Segments(segmenter), false);
+    }
+
+    private InMemoryByteBufferSequence(Segments segments, boolean recycleReleased) {
+        this.segments = segments;
+        this.recycleReleased = recycleReleased;
+    }
+
+    /**
+     * Returns a sequence over the same segments, which reuses the segments for new data after they have been
+     * released, for readers who are the last ones to need the data. There must be only one such reader.
+     */
+    public InMemoryByteBufferSequence recyclingReleasedSegments() {
+        return new InMemoryByteBufferSequence(segments, true);
+    }
+
+    @Override
+    public ByteBuffer get(int index) {
+        return segments.get(index).duplicate();
+    }
+
+    @Override
+    public void release(int index, ByteBuffer buffer) {
+        if (recycleReleased) {
+            segments.recycle(index);
+        }
+    }
+
+
+    @ThreadSafe
+    private static class Segments {
+
+        private final FileSegmenter segmenter;
+
+        @GuardedBy("this")
+        private final Map<Integer, ByteBuffer> segments = new HashMap<>();
+        @GuardedBy("this")
+        private final Map<Integer, Deque<ByteBuffer>> pool = new HashMap<>(); // by capacity
+        @GuardedBy("this")
+        private int recycledCount = 0;
+
+        public Segments(FileSegmenter segmenter) {
+            this.segmenter = segmenter;
+        }
+
+        public synchronized ByteBuffer get(int index) {
+            if (index < recycledCount) {
+                throw new IllegalArgumentException("segment " + index + " has already been recycled");
+            }
+            ByteBuffer segment = segments.get(index);
+            if (segment == null) {
+                segment = allocate(segmenter.sizeOf(index));
+                segments.put(index, segment);
+            }
+            return segment;
+        }
+
+        private ByteBuffer allocate(int capacity) {
+            Deque<ByteBuffer> pooled = pool.get(capacity);
+            if (pooled != null && !pooled.isEmpty()) {
+                return pooled.pop();
+            }
+            return ByteBuffer.allocate(capacity);
+        }
+
+        public void recycle(int index) {
+            ByteBuffer segment;
+            synchronized (this) {
+                segment = segments.remove(index);
+                recycledCount = Math.max(recycledCount, index + 1);
+            }
+            if (segment == null) {
+                return;
+            }
+            // The protocol expects unwritten bytes to be zero, like in a new file
+            Arrays.fill(segment.array(), (byte) 0);
+            synchronized (this) {
+                Deque<ByteBuffer> pooled = pool.get(segment.capacity());
+                if (pooled == null) {
+                    pooled = new ArrayDeque<>();
+                    pool.put(segment.capacity(), pooled);
+                }
+                if (pooled.size() < MAX_POOLED_PER_SIZE) {
+                    pooled.push(segment);
+                }
+            }
+        }
+    }
+}
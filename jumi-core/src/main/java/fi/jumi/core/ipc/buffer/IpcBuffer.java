@@ -5,25 +5,29 @@
 package fi.jumi.core.ipc.buffer;
 
 import javax.annotation.concurrent.NotThreadSafe;
-import java.nio.*;
+import java.nio.ByteBuffer;
+import java.util.*;
 
 @NotThreadSafe
 public class IpcBuffer {
 
     private final ByteBufferSequence buffers;
-    private int position = 0;
+    private final List<Segment> segments = new ArrayList<>(); // by segment index; released segments are null
+    private long position = 0;
+    private long end = 0;
     private Segment current;
+    private int oldest = 0;
 
     public IpcBuffer(ByteBufferSequence buffers) {
         this.buffers = buffers;
-        current = new Segment();
+        current = addSegment();
     }
 
-    public int position() {
+    public long position() {
         return position;
     }
 
-    public IpcBuffer position(int newPosition) {
+    public IpcBuffer position(long newPosition) {
         if (newPosition < 0) {
             throw new IllegalArgumentException();
         }
@@ -31,27 +35,90 @@ public class IpcBuffer {
         return this;
     }
 
-    private Segment segmentContaining(int index) {
+    /**
+     * Releases the segments which are wholly before the specified index, after which those indices cannot anymore
+     * be accessed. Used by forward-only readers and writers to avoid keeping the whole history in memory.
+     */
+    public IpcBuffer releaseSegmentsBefore(long index) {
+        Segment released;
+        while ((released = segments.get(oldest)).endExclusive <= index && released != current) {
+            segments.set(oldest, null);
+            oldest++;
+            buffers.release(released.segmentIndex, released.buffer);
+        }
+        return this;
+    }
+
+    /**
+     * Releases all the segments, after which the buffer cannot anymore be accessed.
+     */
+    public void releaseAllSegments() {
+        for (int i = oldest; i < segments.size(); i++) {
+            Segment released = segments.get(i);
+            segments.set(i, null);
+            buffers.release(released.segmentIndex, released.buffer);
+        }
+        oldest = segments.size();
+        current = null;
+    }
+
+    private Segment segmentContaining(long index) {
+        if (index >= current.startInclusive && index < current.endExclusive) {
+            return current;
+        }
+        current = lookup(index);
+        return current;
+    }
+
+    private Segment lookup(long index) {
         if (index < 0) {
             throw new IndexOutOfBoundsException();
         }
-        while (index < current.startInclusive) {
-            current = current.prev();
+        long oldestIndex = segments.get(oldest).startInclusive;
+        if (index < oldestIndex) {
+            throw new IndexOutOfBoundsException("index " + index + " is in a released segment; " +
+                    "the oldest available index is " + oldestIndex);
         }
-        while (index >= current.endExclusive) {
-            current = current.next();
+        if (index >= end) {
+            Segment segment;
+            do {
+                segment = addSegment();
+            } while (index >= end);
+            return segment;
         }
-        return current;
+
+        // binary search, because the segments may be of different sizes
+        int low = oldest;
+        int high = segments.size() - 1;
+        while (true) {
+            int mid = (low + high) >>> 1;
+            Segment segment = segments.get(mid);
+            if (index < segment.startInclusive) {
+                high = mid - 1;
+            } else if (index >= segment.endExclusive) {
+                low = mid + 1;
+            } else {
+                return segment;
+            }
+        }
+    }
+
+    private Segment addSegment() {
+        int segmentIndex = segments.size();
+        Segment segment = new Segment(segmentIndex, buffers.get(segmentIndex), end);
+        segments.add(segment);
+        end = segment.endExclusive;
+        return segment;
     }
 
     // absolute get
 
-    public byte getByte(int index) {
+    public byte getByte(long index) {
         Segment segment = segmentContaining(index);
         return segment.buffer.get(segment.relativize(index));
     }
 
-    public short getShort(int index) {
+    public short getShort(long index) {
         Segment segment = segmentContaining(index);
         if (index + 2 <= segment.endExclusive) {
             return segment.buffer.getShort(segment.relativize(index));
@@ -60,11 +127,11 @@ public class IpcBuffer {
         }
     }
 
-    public char getChar(int index) {
+    public char getChar(long index) {
         return (char) getShort(index);
     }
 
-    public int getInt(int index) {
+    public int getInt(long index) {
         Segment segment = segmentContaining(index);
         if (index + 4 <= segment.endExclusive) {
             return segment.buffer.getInt(segment.relativize(index));
@@ -73,7 +140,7 @@ public class IpcBuffer {
         }
     }
 
-    public long getLong(int index) {
+    public long getLong(long index) {
         Segment segment = segmentContaining(index);
         if (index + 8 <= segment.endExclusive) {
             return segment.buffer.getLong(segment.relativize(index));
@@ -82,15 +149,29 @@ public class IpcBuffer {
         }
     }
 
+    public IpcBuffer getBytes(long index, byte[] dst, int offset, int length) {
+        return getBytes(index, ByteBuffer.wrap(dst, offset, length));
+    }
+
+    public IpcBuffer getBytes(long index, ByteBuffer dst) {
+        while (dst.hasRemaining()) {
+            Segment segment = segmentContaining(index);
+            int length = (int) Math.min(dst.remaining(), segment.endExclusive - index);
+            dst.put(segment.region(index, length));
+            index += length;
+        }
+        return this;
+    }
+
     // absolute set
 
-    public IpcBuffer setByte(int index, byte value) {
+    public IpcBuffer setByte(long index, byte value) {
         Segment segment = segmentContaining(index);
         segment.buffer.put(segment.relativize(index), value);
         return this;
     }
 
-    public IpcBuffer setShort(int index, short value) {
+    public IpcBuffer setShort(long index, short value) {
         Segment segment = segmentContaining(index);
         if (index + 2 <= segment.endExclusive) {
             segment.buffer.putShort(segment.relativize(index), value);
@@ -101,11 +182,11 @@ public class IpcBuffer {
         return this;
     }
 
-    public IpcBuffer setChar(int index, char value) {
+    public IpcBuffer setChar(long index, char value) {
         return setShort(index, (short) value);
     }
 
-    public IpcBuffer setInt(int index, int value) {
+    public IpcBuffer setInt(long index, int value) {
         Segment segment = segmentContaining(index);
         if (index + 4 <= segment.endExclusive) {
             segment.buffer.putInt(segment.relativize(index), value);
@@ -116,7 +197,7 @@ public class IpcBuffer {
         return this;
     }
 
-    public IpcBuffer setLong(int index, long value) {
+    public IpcBuffer setLong(long index, long value) {
         Segment segment = segmentContaining(index);
         if (index + 8 <= segment.endExclusive) {
             segment.buffer.putLong(segment.relativize(index), value);
@@ -127,6 +208,23 @@ public class IpcBuffer {
         return this;
     }
 
+    public IpcBuffer setBytes(long index, byte[] src, int offset, int length) {
+        return setBytes(index, ByteBuffer.wrap(src, offset, length));
+    }
+
+    public IpcBuffer setBytes(long index, ByteBuffer src) {
+        while (src.hasRemaining()) {
+            Segment segment = segmentContaining(index);
+            int length = (int) Math.min(src.remaining(), segment.endExclusive - index);
+            int limit = src.limit();
+            src.limit(src.position() + length);
+            segment.region(index, length).put(src);
+            src.limit(limit);
+            index += length;
+        }
+        return this;
+    }
+
     // relative read
 
     public byte readByte() {
@@ -157,6 +255,19 @@ public class IpcBuffer {
         return value;
     }
 
+    public IpcBuffer readBytes(byte[] dst, int offset, int length) {
+        getBytes(position, dst, offset, length);
+        position += length;
+        return this;
+    }
+
+    public IpcBuffer readBytes(ByteBuffer dst) {
+        int length = dst.remaining();
+        getBytes(position, dst);
+        position += length;
+        return this;
+    }
+
     // relative write
 
     public IpcBuffer writeByte(byte value) {
@@ -187,49 +298,45 @@ public class IpcBuffer {
         return this;
     }
 
+    public IpcBuffer writeBytes(byte[] src, int offset, int length) {
+        setBytes(position, src, offset, length);
+        position += length;
+        return this;
+    }
 
-    @NotThreadSafe
-    private class Segment {
-        public final Segment prev;
-        public Segment next;
-
-        private final int segmentIndex;
-        public final ByteBuffer buffer;
-        public final int startInclusive;
-        public final int endExclusive;
-
-        public Segment() {
-            prev = null;
-            segmentIndex = 0;
-            buffer = buffers.get(segmentIndex);
-            startInclusive = 0;
-            endExclusive = buffer.capacity();
-        }
+    public IpcBuffer writeBytes(ByteBuffer src) {
+        int length = src.remaining();
+        setBytes(position, src);
+        position += length;
+        return this;
+    }
 
-        public Segment(Segment prev) {
-            this.prev = prev;
-            segmentIndex = prev.segmentIndex + 1;
-            buffer = buffers.get(segmentIndex);
-            startInclusive = prev.endExclusive;
-            endExclusive = startInclusive + buffer.capacity();
-        }
 
-        private int relativize(int index) {
-            return index - startInclusive;
+    @NotThreadSafe
+    private static class Segment {
+        public final int segmentIndex;
+        public final ByteBuffer buffer;
+        public final long startInclusive;
+        public final long endExclusive;
+        private final ByteBuffer bulkView; // the absolute get/set methods depend on the limit of `buffer`
+
+        public Segment(int segmentIndex, ByteBuffer buffer, long startInclusive) {
+            this.segmentIndex = segmentIndex;
+            this.buffer = buffer;
+            this.startInclusive = startInclusive;
+            this.endExclusive = startInclusive + buffer.capacity();
+            this.bulkView = buffer.duplicate();
         }
 
-        public Segment prev() {
-            if (prev == null) {
-                throw new BufferUnderflowException();
-            }
-            return prev;
+        private int relativize(long index) {
+            return (int) (index - startInclusive);
         }
 
-        public Segment next() {
-            if (next == null) {
-                next = new Segment(this);
-            }
-            return next;
+        public ByteBuffer region(long index, int length) {
+            int start = relativize(index);
+            bulkView.limit(start + length);
+            bulkView.position(start);
+            return bulkView;
         }
     }
 }
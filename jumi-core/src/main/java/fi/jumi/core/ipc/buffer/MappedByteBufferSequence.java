@@ -11,6 +11,7 @@ import java.io.IOException;
 import java.nio.*;
 import java.nio.channels.FileChannel;
 import java.nio.file.*;
+import java.util.*;
 
 import static java.nio.file.StandardOpenOption.*;
 
@@ -19,18 +20,44 @@ public class MappedByteBufferSequence implements ByteBufferSequence {
 
     private final FileSegmenter segmenter;
     private final boolean readOnly;
+    private final boolean deleteReleased;
+    private final boolean unmapReleased;
+    private final Map<Integer, ByteBuffer> mapped = new HashMap<>();
 
     public static MappedByteBufferSequence readWrite(FileSegmenter segmenter) {
-        return new MappedByteBufferSequence(segmenter, false);
+        return new MappedByteBufferSequence(segmenter, false, false, false);
     }
 
+    /**
+     * Returns a sequence which does not create new segments, but waits for the writer to create them,
+     * because only the writer knows their sizes, e.g. with {@link AdaptiveFileSegmenter}.
+     */
     public static MappedByteBufferSequence readOnly(FileSegmenter segmenter) {
-        return new MappedByteBufferSequence(segmenter, true);
+        return new MappedByteBufferSequence(segmenter, true, false, false);
     }
 
-    private MappedByteBufferSequence(FileSegmenter segmenter, boolean readOnly) {
+    private MappedByteBufferSequence(FileSegmenter segmenter, boolean readOnly, boolean deleteReleased, boolean unmapReleased) {
         this.segmenter = segmenter;
         this.readOnly = readOnly;
+        this.deleteReleased = deleteReleased;
+        this.unmapReleased = unmapReleased;
+    }
+
+    /**
+     * Returns a sequence which deletes the segment files after they have been released,
+     * for readers who are the last ones to need the data.
+     */
+    public MappedByteBufferSequence deletingReleasedSegments() {
+        return new MappedByteBufferSequence(segmenter, readOnly, true, unmapReleased);
+    }
+
+    /**
+     * Returns a sequence which unmaps the segments explicitly when they are released, instead of waiting for the
+     * garbage collector. Only for users who do not keep any slices or duplicates of the released segments,
+     * because accessing an unmapped buffer crashes the JVM.
+     */
+    public MappedByteBufferSequence unmappingReleasedSegments() {
+        return new MappedByteBufferSequence(segmenter, readOnly, deleteReleased, true);
     }
 
     @Override
@@ -38,16 +65,40 @@ public class MappedByteBufferSequence implements ByteBufferSequence {
         Path path = segmenter.pathOf(index);
         long size = segmenter.sizeOf(index);
         try {
-            return Resilient.tryRepeatedly(() -> tryMapFile(path, size));
+            ByteBuffer buffer = Resilient.tryRepeatedly(() -> tryMapFile(path, size));
+            if (unmapReleased) {
+                mapped.put(index, buffer);
+            }
+            return buffer;
         } catch (IOException e) {
             throw new RuntimeException("failed to map " + path, e);
         }
     }
 
+    @Override
+    public void release(int index, ByteBuffer buffer) {
+        // Without unmapping explicitly, the mapping would stay until the buffer is garbage collected,
+        // which for direct buffers may take a long time because they look small to the garbage collector.
+        // Only the very buffer which we mapped is unmapped; a duplicate given back to us could have other copies.
+        if (unmapReleased && mapped.get(index) == buffer) {
+            mapped.remove(index);
+            BufferUnmapper.unmap(buffer);
+        }
+        if (deleteReleased) {
+            Path path = segmenter.pathOf(index);
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                // On Windows a file cannot be deleted while some other process still has it mapped.
+                // The file will remain until the whole directory is cleaned up, which is not fatal.
+            }
+        }
+    }
+
     private MappedByteBuffer tryMapFile(Path path, long size) throws IOException {
         OpenOption[] options;
-        if (Files.exists(path)) {
-            size = Files.size(path);
+        if (readOnly || Files.exists(path)) {
+            size = Files.size(path); // throws NoSuchFileException if the writer has not yet created it
             if (size <= 0) {
                 throw new IOException("file size was " + size + " bytes");
             }
@@ -65,6 +116,4 @@ public class MappedByteBufferSequence implements ByteBufferSequence {
     private FileChannel.MapMode mapMode() {
         return readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE;
     }
-
-    // TODO: should read-only MappedByteBufferSequence not be able to create new segments?
 }
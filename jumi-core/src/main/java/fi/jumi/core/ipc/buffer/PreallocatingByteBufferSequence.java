@@ -0,0 +1,76 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import fi.jumi.core.util.Boilerplate;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Gets the next segment in the background as soon as the previous segment is taken into use,
+ * so that the writer will not need to wait for a file to be created and memory-mapped.
+ * <p>
+ * Only for writers; if a reader would create the next segment, it would decide the segment's size.
+ */
+@NotThreadSafe
+public class PreallocatingByteBufferSequence implements ByteBufferSequence {
+
+    private final Map<Integer, Future<ByteBuffer>> preallocated = new HashMap<>();
+    private final ByteBufferSequence sequence;
+    private final Executor backgroundExecutor;
+
+    public PreallocatingByteBufferSequence(ByteBufferSequence sequence, Executor backgroundExecutor) {
+        this.sequence = sequence;
+        this.backgroundExecutor = backgroundExecutor;
+    }
+
+    @Override
+    public ByteBuffer get(int index) {
+        Future<ByteBuffer> future = preallocated.remove(index);
+        ByteBuffer buffer = future != null ? await(future) : sequence.get(index);
+        preallocate(index + 1);
+        return buffer;
+    }
+
+    private void preallocate(int index) {
+        if (preallocated.containsKey(index)) {
+            return;
+        }
+        FutureTask<ByteBuffer> task = new FutureTask<>(() -> sequence.get(index));
+        try {
+            backgroundExecutor.execute(task);
+            preallocated.put(index, task);
+        } catch (RejectedExecutionException e) {
+            // the segment will be got on demand
+        }
+    }
+
+    private static ByteBuffer await(Future<ByteBuffer> future) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw Boilerplate.rethrow(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void release(int index, ByteBuffer buffer) {
+        sequence.release(index, buffer);
+    }
+}
@@ -0,0 +1,34 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.nio.ByteBuffer;
+
+/**
+ * Tells the {@link FileSegmenter} when the writer starts writing to each segment.
+ */
+@NotThreadSafe
+public class WriterByteBufferSequence implements ByteBufferSequence {
+
+    private final ByteBufferSequence sequence;
+    private final FileSegmenter segmenter;
+
+    public WriterByteBufferSequence(ByteBufferSequence sequence, FileSegmenter segmenter) {
+        this.sequence = sequence;
+        this.segmenter = segmenter;
+    }
+
+    @Override
+    public ByteBuffer get(int index) {
+        segmenter.segmentStarted(index);
+        return sequence.get(index);
+    }
+
+    @Override
+    public void release(int index, ByteBuffer buffer) {
+        sequence.release(index, buffer);
+    }
+}
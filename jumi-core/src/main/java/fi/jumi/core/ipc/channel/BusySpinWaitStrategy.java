@@ -0,0 +1,26 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Lowest latency, but keeps one CPU core busy for as long as the reader is waiting.
+ */
+@NotThreadSafe
+public class BusySpinWaitStrategy implements WaitStrategy {
+
+    @Override
+    public void reset() {
+    }
+
+    @Override
+    public void snooze() {
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,38 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+
+/**
+ * A reader which releases the segments after reading them. The segment being read is released only when the reader
+ * is closed, after which the reader cannot anymore be used.
+ *
+ * @see IpcChannel#consumingReader
+ */
+@NotThreadSafe
+public class ConsumingIpcReader<T> implements IpcReader<T>, Closeable {
+
+    private final IpcBuffer buffer;
+    private final IpcReader<T> reader;
+
+    ConsumingIpcReader(IpcBuffer buffer, IpcProtocol.EncodingFactory<T> encodingFactory) {
+        this.buffer = buffer;
+        this.reader = new IpcProtocol<>(buffer, encodingFactory, true);
+    }
+
+    @Override
+    public PollResult poll(T target) {
+        return reader.poll(target);
+    }
+
+    @Override
+    public void close() {
+        buffer.releaseAllSegments();
+    }
+}
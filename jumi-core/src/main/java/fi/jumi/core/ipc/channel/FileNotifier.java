@@ -0,0 +1,90 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import fi.jumi.core.util.MemoryBarrier;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wakes up the readers who use {@link NotificationWaitStrategy}. Until a reader has created the notification file,
+ * checks for its existence only periodically, so that writers without such readers will not be slowed down.
+ * Writes to the file only when some reader has marked that it is waiting, so that the notifications of
+ * a busy channel are coalesced into one system call per reader wakeup.
+ */
+@NotThreadSafe
+public class FileNotifier implements Closeable {
+
+    private static final long CHECK_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MemoryBarrier memoryBarrier = new MemoryBarrier();
+    private final ByteBuffer signal = ByteBuffer.wrap(new byte[]{NotificationWaitStrategy.NO_READERS_WAITING});
+    private final Path notificationFile;
+    private FileChannel channel;
+    private MappedByteBuffer waitingFlag;
+    private long nextCheck = System.nanoTime();
+
+    public FileNotifier(Path notificationFile) {
+        this.notificationFile = notificationFile;
+    }
+
+    public void signal() {
+        if (channel == null && !tryOpen()) {
+            return;
+        }
+        // the messages must be published before we check whether the readers have gone to sleep
+        memoryBarrier.storeLoad();
+        if (waitingFlag.get(0) == NotificationWaitStrategy.NO_READERS_WAITING) {
+            return;
+        }
+        try {
+            // clears the flag and, unlike writing through the memory mapping, wakes up the readers
+            signal.clear();
+            channel.write(signal, 0);
+        } catch (IOException e) {
+            // the readers will notice the new messages when their maximum wait time runs out
+            close();
+        }
+    }
+
+    private boolean tryOpen() {
+        long now = System.nanoTime();
+        if (now - nextCheck < 0) {
+            return false;
+        }
+        nextCheck = now + CHECK_INTERVAL_NANOS;
+        try {
+            FileChannel fc = FileChannel.open(notificationFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (fc.size() < 1) {
+                // the reader has not yet finished creating it
+                fc.close();
+                return false;
+            }
+            waitingFlag = fc.map(FileChannel.MapMode.READ_WRITE, 0, 1);
+            channel = fc;
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
+            channel = null;
+            waitingFlag = null;
+        }
+    }
+}
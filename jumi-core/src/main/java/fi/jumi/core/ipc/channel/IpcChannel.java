@@ -7,7 +7,8 @@ package fi.jumi.core.ipc.channel;
 import fi.jumi.core.ipc.buffer.*;
 
 import javax.annotation.concurrent.ThreadSafe;
-import java.nio.file.Path;
+import java.nio.file.*;
+import java.util.concurrent.Executor;
 
 @ThreadSafe
 public class IpcChannel {
@@ -21,8 +22,29 @@ public class IpcChannel {
     }
 
     public static <T> IpcWriter<T> writer(FileSegmenter fileSegmenter, IpcProtocol.EncodingFactory<T> encodingFactory) {
-        IpcBuffer buffer = new IpcBuffer(MappedByteBufferSequence.readWrite(fileSegmenter));
-        IpcProtocol<T> protocol = new IpcProtocol<>(buffer, encodingFactory);
+        return writer(fileSegmenter, MappedByteBufferSequence.readWrite(fileSegmenter), encodingFactory);
+    }
+
+    /**
+     * Like {@link #writer(FileSegmenter, IpcProtocol.EncodingFactory)}, but creates the next segment
+     * in the background before the writer needs it.
+     */
+    public static <T> IpcWriter<T> writer(FileSegmenter fileSegmenter, Executor backgroundExecutor, IpcProtocol.EncodingFactory<T> encodingFactory) {
+        return writer(fileSegmenter, new PreallocatingByteBufferSequence(MappedByteBufferSequence.readWrite(fileSegmenter), backgroundExecutor), encodingFactory);
+    }
+
+    private static <T> IpcWriter<T> writer(FileSegmenter fileSegmenter, ByteBufferSequence segments, IpcProtocol.EncodingFactory<T> encodingFactory) {
+        IpcProtocol<T> protocol = new IpcProtocol<>(new IpcBuffer(new WriterByteBufferSequence(segments, fileSegmenter)), encodingFactory);
+        protocol.start();
+        return new NotifyingIpcWriter<>(protocol, new FileNotifier(notificationFileOf(fileSegmenter.pathOf(0))));
+    }
+
+    /**
+     * Returns a writer for a channel in the same JVM, which does not use files.
+     * Readers can use only wait strategies which do not need files, i.e. not {@link NotificationWaitStrategy}.
+     */
+    public static <T> IpcWriter<T> writer(InMemoryByteBufferSequence segments, IpcProtocol.EncodingFactory<T> encodingFactory) {
+        IpcProtocol<T> protocol = new IpcProtocol<>(new IpcBuffer(segments), encodingFactory, true);
         protocol.start();
         return protocol;
     }
@@ -32,10 +54,49 @@ public class IpcChannel {
     }
 
     public static <T> IpcReader<T> reader(FileSegmenter fileSegmenter, IpcProtocol.EncodingFactory<T> encodingFactory) {
-        IpcBuffer buffer = new IpcBuffer(MappedByteBufferSequence.readWrite(fileSegmenter));
+        IpcBuffer buffer = new IpcBuffer(MappedByteBufferSequence.readOnly(fileSegmenter));
         return new IpcProtocol<>(buffer, encodingFactory);
     }
 
+    /**
+     * Like {@link #reader(Path, IpcProtocol.EncodingFactory)}, but unmaps and deletes the files after they have been
+     * read. Only for when there are no other readers for the same files. The last file is unmapped and deleted
+     * only when the reader is closed.
+     */
+    public static <T> ConsumingIpcReader<T> consumingReader(Path basePath, IpcProtocol.EncodingFactory<T> encodingFactory) {
+        return consumingReader(defaultFileSegmenter(basePath), encodingFactory);
+    }
+
+    public static <T> ConsumingIpcReader<T> consumingReader(FileSegmenter fileSegmenter, IpcProtocol.EncodingFactory<T> encodingFactory) {
+        IpcBuffer buffer = new IpcBuffer(MappedByteBufferSequence.readWrite(fileSegmenter)
+                .deletingReleasedSegments()
+                .unmappingReleasedSegments());
+        return new ConsumingIpcReader<>(buffer, encodingFactory);
+    }
+
+    /**
+     * Like {@link #consumingReader(Path, IpcProtocol.EncodingFactory)}, but for a channel in the same JVM.
+     * The segments are reused after they have been read.
+     */
+    public static <T> ConsumingIpcReader<T> consumingReader(InMemoryByteBufferSequence segments, IpcProtocol.EncodingFactory<T> encodingFactory) {
+        IpcBuffer buffer = new IpcBuffer(segments.recyclingReleasedSegments());
+        return new ConsumingIpcReader<>(buffer, encodingFactory);
+    }
+
+    /**
+     * Segments for a channel in the same JVM, which grow the same way as the files of other channels.
+     */
+    public static InMemoryByteBufferSequence inMemorySegments() {
+        return new InMemoryByteBufferSequence(new FileSegmenter(Paths.get("in-memory"), INITIAL_SEGMENT_SIZE, MAX_SEGMENT_SIZE));
+    }
+
+    /**
+     * The file which the writers of a channel touch after every write, for {@link NotificationWaitStrategy}.
+     */
+    public static Path notificationFileOf(Path basePath) {
+        return basePath.resolveSibling(basePath.getFileName() + ".notify");
+    }
+
     private static FileSegmenter defaultFileSegmenter(Path basePath) {
         return new FileSegmenter(basePath, INITIAL_SEGMENT_SIZE, MAX_SEGMENT_SIZE);
     }
@@ -6,12 +6,14 @@ package fi.jumi.core.ipc.channel;
 
 import fi.jumi.actors.eventizers.Event;
 import fi.jumi.core.ipc.buffer.IpcBuffer;
-import fi.jumi.core.ipc.encoding.MessageEncoding;
-import fi.jumi.core.util.MemoryBarrier;
+import fi.jumi.core.ipc.encoding.*;
+import fi.jumi.core.util.*;
 
+import javax.annotation.Nullable;
 import javax.annotation.concurrent.NotThreadSafe;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
-import java.util.Arrays;
+import java.util.*;
 
 import static fi.jumi.core.ipc.encoding.StringEncoding.*;
 
@@ -27,11 +29,41 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
 
     private final MemoryBarrier memoryBarrier = new MemoryBarrier();
     private final IpcBuffer buffer;
+    private final MessageDecoding<T> messageDecoding;
+    @Nullable
     private final MessageEncoding<T> messageEncoding;
+    private final boolean forwardOnly;
 
     public IpcProtocol(IpcBuffer buffer, EncodingFactory<T> encodingFactory) {
+        this(buffer, encodingFactory, false);
+    }
+
+    /**
+     * @param forwardOnly whether to release the buffer segments which have already been written or read.
+     *                    The buffer cannot then be rewound to read the same messages again.
+     */
+    public IpcProtocol(IpcBuffer buffer, EncodingFactory<T> encodingFactory, boolean forwardOnly) {
         this.buffer = buffer;
         this.messageEncoding = encodingFactory.create(buffer);
+        this.messageDecoding = messageEncoding;
+        this.forwardOnly = forwardOnly;
+    }
+
+    private IpcProtocol(IpcBuffer buffer, DecodingFactory<T> decodingFactory, boolean forwardOnly) {
+        this.buffer = buffer;
+        this.messageEncoding = null;
+        this.messageDecoding = decodingFactory.create(buffer);
+        this.forwardOnly = forwardOnly;
+    }
+
+    /**
+     * Returns a reader for decodings which cannot write the messages, e.g. ones which read into a different
+     * type of listener than what the messages were written from.
+     *
+     * @see #IpcProtocol(IpcBuffer, EncodingFactory, boolean)
+     */
+    public static <T> IpcReader<T> reader(IpcBuffer buffer, DecodingFactory<T> decodingFactory, boolean forwardOnly) {
+        return new IpcProtocol<>(buffer, decodingFactory, forwardOnly);
     }
 
 
@@ -43,17 +75,41 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
 
     @Override
     public void send(Event<T> message) {
-        int currentMessage = writeStatusEmpty();
+        long currentMessage = writeStatusEmpty();
         messageEncoding.encode(message);
         initNextMessage();
 
         memoryBarrier.storeStore();
         setStatusExists(currentMessage);
+        releaseConsumedSegments();
+    }
+
+    @Override
+    public void sendAll(Iterable<Event<T>> messages) {
+        Iterator<Event<T>> it = messages.iterator();
+        if (!it.hasNext()) {
+            return;
+        }
+        long firstMessage = writeStatusEmpty();
+        messageEncoding.encode(it.next());
+        while (it.hasNext()) {
+            // The reader will not go past the first message before its status is changed,
+            // so the rest of the messages can be marked as existing right away.
+            writeStatusExists();
+            messageEncoding.encode(it.next());
+        }
+        initNextMessage();
+
+        memoryBarrier.storeStore();
+        setStatusExists(firstMessage);
+        releaseConsumedSegments();
     }
 
     @Override
     public void close() {
         writeStatusEndOfStream();
+        releaseConsumedSegments();
+        closeEncoding();
     }
 
 
@@ -61,7 +117,20 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
 
     @Override
     public PollResult poll(T target) {
-        int index = buffer.position();
+        boolean header = buffer.position() == 0;
+        PollResult result = pollOne(target);
+        if (result != PollResult.HAD_SOME_MESSAGES || header) {
+            return result;
+        }
+        // Drain all the published messages. If the stream ends after them, that is left to the next call,
+        // so that the caller will know that it got some messages.
+        while (pollOne(target) == PollResult.HAD_SOME_MESSAGES) {
+        }
+        return PollResult.HAD_SOME_MESSAGES;
+    }
+
+    private PollResult pollOne(T target) {
+        long index = buffer.position();
 
         byte status = readStatus();
         if (status == STATUS_EMPTY) {
@@ -69,6 +138,9 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
             return PollResult.NO_NEW_MESSAGES;
         }
         if (status == STATUS_END_OF_STREAM) {
+            buffer.position(index);
+            releaseConsumedSegments();
+            closeEncoding();
             return PollResult.END_OF_STREAM;
         }
         memoryBarrier.loadLoad();
@@ -81,11 +153,29 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
 
         } else {
             assert status == STATUS_EXISTS : "unexpected status: " + status;
-            messageEncoding.decode(target);
+            messageDecoding.decode(target);
         }
+        releaseConsumedSegments();
         return PollResult.HAD_SOME_MESSAGES;
     }
 
+    private void closeEncoding() {
+        // e.g. the text compression of SuiteListenerEncoding holds native memory
+        if (messageDecoding instanceof Closeable) {
+            try {
+                ((Closeable) messageDecoding).close();
+            } catch (IOException e) {
+                throw Boilerplate.rethrow(e);
+            }
+        }
+    }
+
+    private void releaseConsumedSegments() {
+        if (forwardOnly) {
+            buffer.releaseSegmentsBefore(buffer.position());
+        }
+    }
+
 
     // header
 
@@ -97,8 +187,8 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
         }
 
         buffer.writeInt(PROTOCOL_VERSION);
-        writeString(buffer, messageEncoding.getInterfaceName());
-        buffer.writeInt(messageEncoding.getInterfaceVersion());
+        writeString(buffer, messageDecoding.getInterfaceName());
+        buffer.writeInt(messageDecoding.getInterfaceVersion());
 
         // all done
         memoryBarrier.storeStore();
@@ -139,16 +229,17 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
 
     private void checkInterface() {
         String actual = readString(buffer);
-        if (!actual.equals(messageEncoding.getInterfaceName())) {
-            throw new IllegalArgumentException("wrong interface: expected " + messageEncoding.getInterfaceName() + " but was " + actual);
+        if (!actual.equals(messageDecoding.getInterfaceName())) {
+            throw new IllegalArgumentException("wrong interface: expected " + messageDecoding.getInterfaceName() + " but was " + actual);
         }
     }
 
     private void checkInterfaceVersion() {
         int actual = buffer.readInt();
-        if (actual != messageEncoding.getInterfaceVersion()) {
+        if (!messageDecoding.supportsInterfaceVersion(actual)) {
             throw new IllegalArgumentException("unsupported interface version: " + actual);
         }
+        messageDecoding.setInterfaceVersion(actual);
     }
 
 
@@ -158,19 +249,23 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
         return buffer.readByte();
     }
 
-    private int writeStatusEmpty() {
-        int index = buffer.position();
+    private long writeStatusEmpty() {
+        long index = buffer.position();
         buffer.writeByte(STATUS_EMPTY);
         return index;
     }
 
+    private void writeStatusExists() {
+        buffer.writeByte(STATUS_EXISTS);
+    }
+
     private void initNextMessage() {
         // Write empty status for next message, so that the producer
         // is the first to touch a new segment, thus determining its size.
         buffer.setByte(buffer.position(), STATUS_EMPTY);
     }
 
-    private void setStatusExists(int index) {
+    private void setStatusExists(long index) {
         buffer.setByte(index, STATUS_EXISTS);
     }
 
@@ -179,7 +274,12 @@ public class IpcProtocol<T> implements IpcReader<T>, IpcWriter<T> {
     }
 
 
-    public interface EncodingFactory<T> {
+    public interface DecodingFactory<T> {
+        MessageDecoding<T> create(IpcBuffer buffer);
+    }
+
+    public interface EncodingFactory<T> extends DecodingFactory<T> {
+        @Override
         MessageEncoding<T> create(IpcBuffer buffer);
     }
 }
@@ -6,5 +6,8 @@ package fi.jumi.core.ipc.channel;
 
 public interface IpcReader<T> {
 
+    /**
+     * Decodes all the messages which have been published since the previous call.
+     */
     PollResult poll(T target);
 }
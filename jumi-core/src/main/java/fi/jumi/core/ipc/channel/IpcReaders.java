@@ -10,20 +10,29 @@ import javax.annotation.concurrent.NotThreadSafe;
 public class IpcReaders {
 
     public static <T> void decodeAll(IpcReader<T> reader, T target) throws InterruptedException {
-        WaitStrategy waitStrategy = new ProgressiveSleepWaitStrategy();
-        while (true) {
-            PollResult result = reader.poll(target);
-            if (result == PollResult.NO_NEW_MESSAGES) {
-                waitStrategy.snooze();
-            }
-            if (result == PollResult.HAD_SOME_MESSAGES) {
-                waitStrategy.reset();
-            }
-            if (result == PollResult.END_OF_STREAM) {
-                return;
-            }
-            if (Thread.interrupted()) {
-                throw new InterruptedException();
+        decodeAll(reader, target, new ProgressiveSleepWaitStrategy());
+    }
+
+    /**
+     * Closes the wait strategy when done.
+     */
+    public static <T> void decodeAll(IpcReader<T> reader, T target, WaitStrategy waitStrategy) throws InterruptedException {
+        // a failure to close must not hide the failure to decode
+        try (WaitStrategy wait = waitStrategy) {
+            while (true) {
+                PollResult result = reader.poll(target);
+                if (result == PollResult.NO_NEW_MESSAGES) {
+                    wait.snooze();
+                }
+                if (result == PollResult.HAD_SOME_MESSAGES) {
+                    wait.reset();
+                }
+                if (result == PollResult.END_OF_STREAM) {
+                    return;
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
             }
         }
     }
@@ -0,0 +1,119 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Lets any number of readers tail the same channel, e.g. the results of a suite. Every reader starts from
+ * the beginning of the channel, even if it is added after the writer has finished, and runs in its own thread
+ * with its own position and wait strategy, so that a slow reader slows down neither the writer nor the other readers.
+ * The readers map the same files, so the messages are not copied per reader.
+ */
+@ThreadSafe
+public class IpcStreamer<T> implements Closeable {
+
+    private final Path basePath;
+    private final IpcProtocol.EncodingFactory<T> encodingFactory;
+    private final Executor executor;
+    private final Set<Future<?>> readers = Collections.newSetFromMap(new ConcurrentHashMap<Future<?>, Boolean>());
+    private volatile boolean writerGone = false;
+
+    public IpcStreamer(Path basePath, IpcProtocol.EncodingFactory<T> encodingFactory, Executor executor) {
+        this.basePath = basePath;
+        this.encodingFactory = encodingFactory;
+        this.executor = executor;
+    }
+
+    public Future<?> addReader(T target, WaitStrategies waitStrategy) {
+        return addReader(target, waitStrategy.create(basePath));
+    }
+
+    /**
+     * Reads all messages to the target, until the end of the stream or until cancelled.
+     * The wait strategy must not be shared with other readers.
+     */
+    public Future<?> addReader(T target, WaitStrategy waitStrategy) {
+        FutureTask<Void> task = new FutureTask<Void>(() -> {
+            read(target, waitStrategy);
+            return null;
+        }) {
+            @Override
+            protected void done() {
+                readers.remove(this);
+            }
+        };
+        readers.add(task);
+        executor.execute(task);
+        return task;
+    }
+
+    public void read(T target, WaitStrategies waitStrategy) throws InterruptedException {
+        read(target, waitStrategy.create(basePath));
+    }
+
+    /**
+     * Like {@link #addReader(Object, WaitStrategy)}, but reads in the calling thread, which {@link #close()}
+     * does not stop. Closes the wait strategy when done.
+     */
+    public void read(T target, WaitStrategy waitStrategy) throws InterruptedException {
+        IpcReader<T> reader = IpcChannel.reader(basePath, encodingFactory);
+        try (WaitStrategy wait = waitStrategy) {
+            while (true) {
+                // checked before polling, so that everything written before the writer was gone will be read
+                boolean writerGone = this.writerGone;
+                PollResult result = reader.poll(target);
+                if (result == PollResult.END_OF_STREAM) {
+                    return;
+                }
+                if (result == PollResult.NO_NEW_MESSAGES) {
+                    if (writerGone) {
+                        return;
+                    }
+                    wait.snooze();
+                }
+                if (result == PollResult.HAD_SOME_MESSAGES) {
+                    wait.reset();
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        }
+    }
+
+    /**
+     * Tells that nothing more will be written, even though the stream was not ended, e.g. because the writer
+     * process died. The readers will stop after reading everything that was written.
+     */
+    public void onWriterGone() {
+        writerGone = true;
+    }
+
+    public int getActiveReaders() {
+        // done() is called only after the waiters of get() have been released, so they may still be in the set
+        int active = 0;
+        for (Future<?> reader : readers) {
+            if (!reader.isDone()) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Stops the readers which have not yet reached the end of the stream.
+     */
+    @Override
+    public void close() {
+        for (Future<?> reader : readers) {
+            reader.cancel(true);
+        }
+    }
+}
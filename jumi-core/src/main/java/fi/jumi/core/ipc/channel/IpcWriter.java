@@ -11,6 +11,12 @@ import java.io.Closeable;
 
 public interface IpcWriter<T> extends MessageSender<Event<T>>, Closeable {
 
+    /**
+     * Publishes all the messages at once, so that the reader will see either none or all of them.
+     * Faster than sending the messages one at a time.
+     */
+    void sendAll(Iterable<Event<T>> messages);
+
     @Override
     void close();
 }
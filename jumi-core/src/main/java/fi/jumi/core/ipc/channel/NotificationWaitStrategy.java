@@ -0,0 +1,117 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import fi.jumi.core.util.MemoryBarrier;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.file.StandardOpenOption.*;
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Blocks until the writer modifies the notification file (see {@link FileNotifier}), so an idle reader
+ * uses no CPU. Because not all platforms notify about file changes promptly, waiting is limited to
+ * a maximum time, after which the reader will check for new messages anyway.
+ * <p>
+ * Before going to sleep, the reader marks in the notification file that it is waiting, and checks once more for
+ * new messages; the writer signals only when a reader is waiting, so that a busy channel costs no system calls.
+ * The directory may contain the notification files of other channels; their changes do not wake up this reader.
+ */
+@NotThreadSafe
+public class NotificationWaitStrategy implements WaitStrategy {
+
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 100;
+
+    static final byte NO_READERS_WAITING = 0;
+    static final byte READERS_WAITING = 1;
+
+    private final MemoryBarrier memoryBarrier = new MemoryBarrier();
+    private final long maxWaitMillis;
+    private final Path notificationFileName;
+    private final MappedByteBuffer waitingFlag;
+    private final WatchService watcher;
+    private boolean waitingMarked = false;
+
+    public NotificationWaitStrategy(Path notificationFile) {
+        this(notificationFile, DEFAULT_MAX_WAIT_MILLIS);
+    }
+
+    public NotificationWaitStrategy(Path notificationFile, long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+        this.notificationFileName = notificationFile.getFileName();
+        try {
+            waitingFlag = mapWaitingFlag(notificationFile);
+            watcher = notificationFile.getFileSystem().newWatchService();
+            notificationFile.toAbsolutePath().getParent().register(watcher, ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new RuntimeException("failed to watch " + notificationFile, e);
+        }
+    }
+
+    private static MappedByteBuffer mapWaitingFlag(Path notificationFile) throws IOException {
+        // some other reader may have created the file already
+        try (FileChannel fc = FileChannel.open(notificationFile, READ, WRITE, CREATE)) {
+            return fc.map(FileChannel.MapMode.READ_WRITE, 0, 1);
+        }
+    }
+
+    @Override
+    public void reset() {
+        waitingMarked = false;
+    }
+
+    @Override
+    public void snooze() {
+        if (!waitingMarked) {
+            // The writer may have published a message before it could see the flag,
+            // so the caller must check for messages once more before we may sleep.
+            waitingFlag.put(0, READERS_WAITING);
+            memoryBarrier.storeLoad();
+            waitingMarked = true;
+            return;
+        }
+        waitingMarked = false;
+        try {
+            awaitNotification();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void awaitNotification() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        while (true) {
+            long timeout = deadline - System.nanoTime();
+            WatchKey key = watcher.poll(timeout, TimeUnit.NANOSECONDS);
+            if (key == null) {
+                return;
+            }
+            boolean notified = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                // also an overflow may have been our notification
+                notified |= event.kind() == OVERFLOW || notificationFileName.equals(event.context());
+            }
+            key.reset();
+            if (notified) {
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            watcher.close();
+        } catch (IOException e) {
+            throw new RuntimeException("failed to close " + watcher, e);
+        }
+    }
+}
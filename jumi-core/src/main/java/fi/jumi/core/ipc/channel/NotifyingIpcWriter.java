@@ -0,0 +1,40 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import fi.jumi.actors.eventizers.Event;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+@NotThreadSafe
+class NotifyingIpcWriter<T> implements IpcWriter<T> {
+
+    private final IpcWriter<T> writer;
+    private final FileNotifier notifier;
+
+    public NotifyingIpcWriter(IpcWriter<T> writer, FileNotifier notifier) {
+        this.writer = writer;
+        this.notifier = notifier;
+    }
+
+    @Override
+    public void send(Event<T> message) {
+        writer.send(message);
+        notifier.signal();
+    }
+
+    @Override
+    public void sendAll(Iterable<Event<T>> messages) {
+        writer.sendAll(messages);
+        notifier.signal();
+    }
+
+    @Override
+    public void close() {
+        writer.close();
+        notifier.signal();
+        notifier.close();
+    }
+}
@@ -45,6 +45,11 @@ public class ProgressiveSleepWaitStrategy implements WaitStrategy {
     }
 
 
+    @Override
+    public void close() {
+    }
+
+
     // package-private for testing
 
     void yield() {
@@ -0,0 +1,62 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Spins for a while, after which parks for progressively longer times. Reacts faster than
+ * {@link ProgressiveSleepWaitStrategy} because parking has a much finer granularity than sleeping.
+ */
+@NotThreadSafe
+public class SpinThenParkWaitStrategy implements WaitStrategy {
+
+    private final int spinCount;
+    private final long initialParkNanos;
+    private final long maxParkNanos;
+
+    private int invocations = 0;
+    private long parkNanos;
+
+    public SpinThenParkWaitStrategy() {
+        this(1000, TimeUnit.MICROSECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public SpinThenParkWaitStrategy(int spinCount, long initialParkNanos, long maxParkNanos) {
+        this.spinCount = spinCount;
+        this.initialParkNanos = initialParkNanos;
+        this.maxParkNanos = maxParkNanos;
+        this.parkNanos = initialParkNanos;
+    }
+
+    @Override
+    public void reset() {
+        invocations = 0;
+        parkNanos = initialParkNanos;
+    }
+
+    @Override
+    public void snooze() {
+        if (invocations < spinCount) {
+            invocations++;
+        } else {
+            park(parkNanos);
+            parkNanos = Math.min(parkNanos * 2, maxParkNanos);
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+
+    // package-private for testing
+
+    void park(long nanos) {
+        LockSupport.parkNanos(nanos);
+    }
+}
@@ -0,0 +1,42 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import javax.annotation.concurrent.Immutable;
+import java.nio.file.Path;
+
+@Immutable
+public enum WaitStrategies {
+
+    BUSY_SPIN {
+        @Override
+        public WaitStrategy create(Path channelBasePath) {
+            return new BusySpinWaitStrategy();
+        }
+    },
+
+    SPIN_THEN_PARK {
+        @Override
+        public WaitStrategy create(Path channelBasePath) {
+            return new SpinThenParkWaitStrategy();
+        }
+    },
+
+    PROGRESSIVE_SLEEP {
+        @Override
+        public WaitStrategy create(Path channelBasePath) {
+            return new ProgressiveSleepWaitStrategy();
+        }
+    },
+
+    NOTIFICATION {
+        @Override
+        public WaitStrategy create(Path channelBasePath) {
+            return new NotificationWaitStrategy(IpcChannel.notificationFileOf(channelBasePath));
+        }
+    };
+
+    public abstract WaitStrategy create(Path channelBasePath);
+}
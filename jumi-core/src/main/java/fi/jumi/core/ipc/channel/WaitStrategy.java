@@ -4,9 +4,14 @@
 
 package fi.jumi.core.ipc.channel;
 
-public interface WaitStrategy {
+import java.io.Closeable;
+
+public interface WaitStrategy extends Closeable {
 
     void reset();
 
     void snooze();
+
+    @Override
+    void close();
 }
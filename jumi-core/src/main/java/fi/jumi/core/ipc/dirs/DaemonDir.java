@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -8,7 +8,10 @@ import fi.jumi.core.util.Boilerplate;
 
 import javax.annotation.concurrent.Immutable;
 import java.io.IOException;
-import java.nio.file.Path;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+import static java.nio.file.StandardOpenOption.*;
 
 @Immutable
 public final class DaemonDir {
@@ -35,6 +38,37 @@ public final class DaemonDir {
         return new SuiteDir(createUniqueDirUnder(getSuitesDir()));
     }
 
+    private Path getLockFile() {
+        return baseDir.resolve("daemon.lock");
+    }
+
+    /**
+     * Marks the daemon directory as being in use until the lock is released or the process exits.
+     * The lock may be released also if it is garbage collected, so it must be kept reachable.
+     */
+    public FileLock lock() throws IOException {
+        FileChannel channel = FileChannel.open(getLockFile(), CREATE, WRITE);
+        try {
+            return channel.lock();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Whether some process, for example a daemon which is still running, holds the lock of the daemon directory.
+     */
+    public boolean isInUse() throws IOException {
+        try (FileChannel channel = FileChannel.open(getLockFile(), WRITE)) {
+            return channel.tryLock() == null;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (OverlappingFileLockException e) {
+            return true; // locked by this JVM
+        }
+    }
+
     private Path createUniqueDirUnder(Path dir) throws IOException {
         return UniqueDirectories.createUniqueDir(dir, System.currentTimeMillis());
     }
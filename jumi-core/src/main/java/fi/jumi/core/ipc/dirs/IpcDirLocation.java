@@ -0,0 +1,113 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.dirs;
+
+import javax.annotation.*;
+import javax.annotation.concurrent.Immutable;
+import java.io.*;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.Set;
+
+/**
+ * Where to create the daemon directories, which contain the memory-mapped IPC files.
+ * Other files, such as the daemon JAR, always stay in the Jumi home directory.
+ */
+@Immutable
+public enum IpcDirLocation {
+
+    /**
+     * A RAM-backed directory on Linux when one is available and private to the user,
+     * otherwise the Jumi home directory.
+     */
+    AUTO {
+        @Override
+        public Path resolve(Path jumiHome, PrintStream logOutput) {
+            Path dir = null;
+            if (System.getProperty("os.name").startsWith("Linux")) {
+                dir = findSharedMemoryDir(System.getenv("XDG_RUNTIME_DIR"), Paths.get("/dev/shm"), System.getProperty("user.name"));
+            }
+            if (dir == null) {
+                return jumiHome;
+            }
+            try {
+                return createPrivateDir(dir, currentUser(dir));
+            } catch (IOException e) {
+                logOutput.println("Not using " + dir + " for the daemon directories: " + e.getMessage());
+                return jumiHome;
+            }
+        }
+    },
+
+    JUMI_HOME {
+        @Override
+        public Path resolve(Path jumiHome, PrintStream logOutput) {
+            return jumiHome;
+        }
+    },
+
+    SHARED_MEMORY {
+        @Override
+        public Path resolve(Path jumiHome, PrintStream logOutput) {
+            Path dir = findSharedMemoryDir(System.getenv("XDG_RUNTIME_DIR"), Paths.get("/dev/shm"), System.getProperty("user.name"));
+            if (dir == null) {
+                throw new IllegalStateException("No shared memory directory available; neither $XDG_RUNTIME_DIR nor /dev/shm exists");
+            }
+            try {
+                return createPrivateDir(dir, currentUser(dir));
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to use the shared memory directory " + dir, e);
+            }
+        }
+    };
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    /**
+     * @param logOutput where to tell why a preferred directory is not used
+     * @return the directory under which the daemon directories should be created
+     */
+    public abstract Path resolve(Path jumiHome, PrintStream logOutput);
+
+    @CheckForNull
+    static Path findSharedMemoryDir(@Nullable String xdgRuntimeDir, Path devShm, String userName) {
+        // XDG_RUNTIME_DIR is private to the user, whereas /dev/shm is shared by all users
+        if (xdgRuntimeDir != null && !xdgRuntimeDir.isEmpty() && Files.isDirectory(Paths.get(xdgRuntimeDir))) {
+            return Paths.get(xdgRuntimeDir, "jumi");
+        }
+        if (Files.isDirectory(devShm)) {
+            return devShm.resolve("jumi-" + userName);
+        }
+        return null;
+    }
+
+    /**
+     * Other users can see /dev/shm, so they must not be able to read our IPC files
+     * or to prepare a directory for us in advance.
+     */
+    static Path createPrivateDir(Path dir, UserPrincipal owner) throws IOException {
+        try {
+            Files.createDirectory(dir, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        } catch (FileAlreadyExistsException e) {
+            // checked below
+        }
+        PosixFileAttributes attributes = Files.readAttributes(dir, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        if (!attributes.isDirectory()) {
+            throw new IOException(dir + " is not a directory");
+        }
+        if (!attributes.owner().equals(owner)) {
+            throw new IOException(dir + " is owned by " + attributes.owner().getName() + " instead of " + owner.getName());
+        }
+        if (!OWNER_ONLY.containsAll(attributes.permissions())) {
+            throw new IOException(dir + " is accessible by other users; its permissions are "
+                    + PosixFilePermissions.toString(attributes.permissions()));
+        }
+        return dir;
+    }
+
+    private static UserPrincipal currentUser(Path dir) throws IOException {
+        return dir.getFileSystem().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+    }
+}
@@ -5,7 +5,8 @@
 package fi.jumi.core.ipc.dirs;
 
 import javax.annotation.concurrent.Immutable;
-import java.nio.file.Path;
+import java.io.IOException;
+import java.nio.file.*;
 
 @Immutable
 public class SuiteDir {
@@ -23,4 +24,21 @@ public class SuiteDir {
     public Path getSuiteResultsPath() {
         return path.resolve("suite");
     }
+
+    /**
+     * Copies the files of this suite into a same-named directory under {@code targetParentDir}.
+     * Copying instead of linking, because the suite directory may be on a different file system.
+     *
+     * @return the new directory
+     */
+    public Path copyTo(Path targetParentDir) throws IOException {
+        Path target = targetParentDir.resolve(path.getFileName().toString());
+        Files.createDirectories(target);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(path)) {
+            for (Path file : files) {
+                Files.copy(file, target.resolve(file.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return target;
+    }
 }
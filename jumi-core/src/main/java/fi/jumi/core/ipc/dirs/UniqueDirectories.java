@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -7,6 +7,7 @@ package fi.jumi.core.ipc.dirs;
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.IOException;
 import java.nio.file.*;
+import java.util.*;
 
 @NotThreadSafe
 public class UniqueDirectories {
@@ -22,4 +23,48 @@ public class UniqueDirectories {
             }
         }
     }
+
+    /**
+     * Like {@link #createUniqueDir} but the new directory will also have a higher sequence number than
+     * the existing directories, even if some of them were deleted or the clock went backwards.
+     */
+    public static Path createNewestDir(Path parentDir, long sequence) throws IOException {
+        Files.createDirectories(parentDir);
+        List<Long> existing = sequencesUnder(parentDir);
+        if (!existing.isEmpty()) {
+            sequence = Math.max(sequence, existing.get(existing.size() - 1) + 1);
+        }
+        return createUniqueDir(parentDir, sequence);
+    }
+
+    /**
+     * Returns the directories created by {@link #createUniqueDir}, except the {@code retained} ones
+     * with the highest sequence numbers, oldest first. Other files in the parent directory are left out.
+     */
+    public static List<Path> allButNewest(Path parentDir, int retained) throws IOException {
+        List<Long> sequences = sequencesUnder(parentDir);
+        List<Path> dirs = new ArrayList<>();
+        for (Long sequence : sequences.subList(0, Math.max(0, sequences.size() - retained))) {
+            dirs.add(parentDir.resolve(sequence.toString()));
+        }
+        return dirs;
+    }
+
+    private static List<Long> sequencesUnder(Path parentDir) throws IOException {
+        List<Long> sequences = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(parentDir)) {
+            for (Path dir : dirs) {
+                if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) {
+                    continue;
+                }
+                try {
+                    sequences.add(Long.parseLong(dir.getFileName().toString()));
+                } catch (NumberFormatException e) {
+                    // not created by us
+                }
+            }
+        }
+        Collections.sort(sequences);
+        return sequences;
+    }
 }
@@ -0,0 +1,102 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.*;
+
+import static fi.jumi.core.ipc.encoding.VarIntEncoding.*;
+
+/**
+ * Writes the first occurrence of a value in full and gives it an ID, so that later occurrences can be written as
+ * just a reference to that ID. The reader builds the same dictionary as it goes, and returns the same instance for
+ * every occurrence of a value. Relies on the messages being read in the same order as they were written.
+ * <p>
+ * After the dictionary is full, new values are written in full every time.
+ */
+@NotThreadSafe
+public class DictionaryEncoding<T> {
+
+    private static final int NULL = 0;
+    private static final int LITERAL = 1;
+    private static final int DEFINITION = 2;
+    private static final int FIRST_REFERENCE = 3;
+
+    private final IpcBuffer buffer;
+    private final int maxSize;
+    private final EncodingUtil.WriteOp<T> valueWriter;
+    private final EncodingUtil.ReadOp<T> valueReader;
+
+    // the writer and reader may be the same instance, so they must not share state
+    private final Map<T, Integer> writtenIds = new HashMap<>();
+    private final List<T> readValues = new ArrayList<>();
+    private boolean readValuesPreloaded = false;
+
+    public DictionaryEncoding(IpcBuffer buffer, int maxSize, EncodingUtil.WriteOp<T> valueWriter, EncodingUtil.ReadOp<T> valueReader) {
+        this.buffer = buffer;
+        this.maxSize = maxSize;
+        this.valueWriter = valueWriter;
+        this.valueReader = valueReader;
+    }
+
+    public void write(T value) {
+        if (value == null) {
+            writeVarInt(buffer, NULL);
+            return;
+        }
+        Integer id = writtenIds.get(value);
+        if (id != null) {
+            writeVarInt(buffer, FIRST_REFERENCE + id);
+        } else if (writtenIds.size() < maxSize) {
+            writtenIds.put(value, writtenIds.size());
+            writeVarInt(buffer, DEFINITION);
+            valueWriter.write(value);
+        } else {
+            writeVarInt(buffer, LITERAL);
+            valueWriter.write(value);
+        }
+    }
+
+    /**
+     * The values which the reader has defined so far, in the order of their IDs.
+     */
+    public List<T> getReadValues() {
+        return Collections.unmodifiableList(readValues);
+    }
+
+    /**
+     * Gives the reader all the values beforehand, so that it can read references to values whose definitions
+     * it has not read, e.g. after seeking to the middle of the data. Any definitions read after this are ignored.
+     */
+    public void preloadReadValues(List<T> values) {
+        readValues.clear();
+        readValues.addAll(values);
+        readValuesPreloaded = true;
+    }
+
+    public T read() {
+        int tag = readVarInt(buffer);
+        switch (tag) {
+            case NULL:
+                return null;
+            case LITERAL:
+                return valueReader.read();
+            case DEFINITION:
+                T value = valueReader.read();
+                if (!readValuesPreloaded) {
+                    readValues.add(value);
+                }
+                return value;
+            default:
+                int id = tag - FIRST_REFERENCE;
+                if (id >= readValues.size()) {
+                    throw new IllegalArgumentException("undefined dictionary reference " + id + ", only " + readValues.size() + " values defined");
+                }
+                return readValues.get(id);
+        }
+    }
+}
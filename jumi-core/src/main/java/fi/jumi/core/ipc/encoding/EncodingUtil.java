@@ -9,6 +9,7 @@ import fi.jumi.core.util.Boilerplate;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.net.*;
+import java.nio.ByteBuffer;
 import java.util.*;
 
 @NotThreadSafe
@@ -80,19 +81,27 @@ public abstract class EncodingUtil {
 
     // Collections
 
+    protected void writeLength(int length) {
+        buffer.writeInt(length);
+    }
+
+    protected int readLength() {
+        return buffer.readInt();
+    }
+
     protected <T> void writeArray(T[] values, WriteOp<T> writer) {
         writeList(Arrays.asList(values), writer);
     }
 
     protected <T> void writeList(List<T> values, WriteOp<T> writer) {
-        buffer.writeInt(values.size());
+        writeLength(values.size());
         for (T value : values) {
             writer.write(value);
         }
     }
 
     protected <T> T[] readArray(ReadOp<T> reader, ArrayFactory<T> arrayFactory) {
-        T[] values = arrayFactory.create(buffer.readInt());
+        T[] values = arrayFactory.create(readLength());
         for (int i = 0; i < values.length; i++) {
             values[i] = reader.read();
         }
@@ -100,17 +109,18 @@ public abstract class EncodingUtil {
     }
 
     protected void writeIntArray(int[] values) {
-        buffer.writeInt(values.length);
-        for (int value : values) {
-            buffer.writeInt(value);
-        }
+        writeLength(values.length);
+        ByteBuffer bytes = ByteBuffer.allocate(values.length * 4);
+        bytes.asIntBuffer().put(values);
+        buffer.writeBytes(bytes);
     }
 
     protected int[] readIntArray() {
-        int[] values = new int[buffer.readInt()];
-        for (int i = 0; i < values.length; i++) {
-            values[i] = buffer.readInt();
-        }
+        int[] values = new int[readLength()];
+        ByteBuffer bytes = ByteBuffer.allocate(values.length * 4);
+        buffer.readBytes(bytes);
+        bytes.flip();
+        bytes.asIntBuffer().get(values);
         return values;
     }
 
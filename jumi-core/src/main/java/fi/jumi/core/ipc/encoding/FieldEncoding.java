@@ -1,22 +1,21 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
 package fi.jumi.core.ipc.encoding;
 
-
-import fi.jumi.actors.eventizers.Event;
 import fi.jumi.core.config.*;
-import fi.jumi.core.ipc.api.RequestListener;
 import fi.jumi.core.ipc.buffer.IpcBuffer;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.net.URI;
 
+/**
+ * How the parameters of the messages are written by the encodings which are generated using
+ * {@link fi.jumi.ipc.generator.GenerateMessageEncoding}.
+ */
 @NotThreadSafe
-public class RequestListenerEncoding extends EncodingUtil implements RequestListener, MessageEncoding<RequestListener> {
-
-    private static final byte runTests = 1;
-    private static final byte shutdown = 2;
+public abstract class FieldEncoding extends EncodingUtil {
 
     // SuiteConfiguration properties
     private static final String classpath = "classpath";
@@ -25,41 +24,32 @@ public class RequestListenerEncoding extends EncodingUtil implements RequestList
     private static final String includedTestsPattern = "includedTestsPattern";
     private static final String excludedTestsPattern = "excludedTestsPattern";
 
-    public RequestListenerEncoding(IpcBuffer buffer) {
+    public FieldEncoding(IpcBuffer buffer) {
         super(buffer);
     }
 
-    @Override
-    public String getInterfaceName() {
-        return RequestListener.class.getName();
-    }
+    // SuiteConfiguration
 
-    @Override
-    public int getInterfaceVersion() {
-        return 1;
-    }
+    protected void writeSuiteConfiguration(SuiteConfiguration config) {
+        writeString(classpath);
+        writeUris(config.getClasspath());
 
-    @Override
-    public void encode(Event<RequestListener> message) {
-        message.fireOn(this);
-    }
+        writeString(jvmOptions);
+        writeStrings(config.getJvmOptions());
 
-    @Override
-    public void decode(RequestListener target) {
-        byte type = readEventType();
-        switch (type) {
-            case runTests:
-                target.runTests(readSuiteConfiguration());
-                break;
-            case shutdown:
-                target.shutdown();
-                break;
-            default:
-                throw new IllegalArgumentException("Unknown type " + type);
-        }
+        writeString(workingDirectory);
+        writeUri(config.getWorkingDirectory());
+
+        writeString(includedTestsPattern);
+        writeString(config.getIncludedTestsPattern());
+
+        writeString(excludedTestsPattern);
+        writeString(config.getExcludedTestsPattern());
+
+        writeNullableString(null); // end of this null-terminated list
     }
 
-    private SuiteConfiguration readSuiteConfiguration() {
+    protected SuiteConfiguration readSuiteConfiguration() {
         SuiteConfigurationBuilder config = new SuiteConfigurationBuilder();
         while (true) {
             String name = readNullableString();
@@ -88,33 +78,13 @@ public class RequestListenerEncoding extends EncodingUtil implements RequestList
         }
     }
 
+    // URI
 
-    // encoding events
-
-    @Override
-    public void runTests(SuiteConfiguration config) {
-        writeEventType(runTests);
-
-        writeString(classpath);
-        writeUris(config.getClasspath());
-
-        writeString(jvmOptions);
-        writeStrings(config.getJvmOptions());
-
-        writeString(workingDirectory);
-        writeUri(config.getWorkingDirectory());
-
-        writeString(includedTestsPattern);
-        writeString(config.getIncludedTestsPattern());
-
-        writeString(excludedTestsPattern);
-        writeString(config.getExcludedTestsPattern());
-
-        writeNullableString(null); // end of this null-terminated list
+    protected void writeURI(URI uri) {
+        writeUri(uri);
     }
 
-    @Override
-    public void shutdown() {
-        writeEventType(shutdown);
+    protected URI readURI() {
+        return readUri();
     }
 }
@@ -0,0 +1,16 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+/**
+ * Alternative to {@link fi.jumi.core.api.SuiteListener} for consumers which look at only some of the events or
+ * fields, e.g. to count the results of a large suite, and which should not create garbage for the rest.
+ *
+ * @see FlyweightSuiteListenerDecoding
+ */
+public interface FlyweightSuiteListener {
+
+    void onEvent(SuiteEventView event);
+}
@@ -0,0 +1,54 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+
+/**
+ * Reads the same data as {@link SuiteListenerEncoding}, but gives it to a {@link FlyweightSuiteListener}.
+ * Use with {@link fi.jumi.core.ipc.channel.IpcProtocol#reader}.
+ */
+@NotThreadSafe
+public class FlyweightSuiteListenerDecoding implements MessageDecoding<FlyweightSuiteListener>, Closeable {
+
+    private final SuiteListenerEncoding encoding;
+
+    public FlyweightSuiteListenerDecoding(IpcBuffer buffer) {
+        this.encoding = new SuiteListenerEncoding(buffer);
+    }
+
+    @Override
+    public String getInterfaceName() {
+        return encoding.getInterfaceName();
+    }
+
+    @Override
+    public int getInterfaceVersion() {
+        return encoding.getInterfaceVersion();
+    }
+
+    @Override
+    public boolean supportsInterfaceVersion(int version) {
+        return encoding.supportsInterfaceVersion(version);
+    }
+
+    @Override
+    public void setInterfaceVersion(int version) {
+        encoding.setInterfaceVersion(version);
+    }
+
+    @Override
+    public void decode(FlyweightSuiteListener target) {
+        encoding.decode(target);
+    }
+
+    @Override
+    public void close() {
+        encoding.close();
+    }
+}
@@ -0,0 +1,72 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.*;
+
+/**
+ * Which stack trace frames are of no interest to the user. Consecutive framework frames are collapsed into one
+ * placeholder frame, which tells the package and how many frames were left out.
+ */
+@Immutable
+public class FrameworkFrames {
+
+    public static final FrameworkFrames NONE = new FrameworkFrames();
+
+    public static final FrameworkFrames COMMON = new FrameworkFrames(
+            "sun.reflect.",
+            "jdk.internal.reflect.",
+            "java.lang.reflect.",
+            "org.junit.runners.",
+            "org.junit.internal.runners.",
+            "fi.jumi.core."
+    );
+
+    private final String[] packagePrefixes;
+
+    public FrameworkFrames(String... packagePrefixes) {
+        this.packagePrefixes = packagePrefixes.clone();
+    }
+
+    public StackTraceElement[] collapse(StackTraceElement[] frames) {
+        if (packagePrefixes.length == 0) {
+            return frames;
+        }
+        List<StackTraceElement> result = null;
+        for (int i = 0; i < frames.length; ) {
+            String prefix = prefixOf(frames[i]);
+            int end = i + 1;
+            while (prefix != null && end < frames.length && prefix.equals(prefixOf(frames[end]))) {
+                end++;
+            }
+            int runLength = end - i;
+            if (runLength > 1) {
+                if (result == null) {
+                    result = new ArrayList<>(Arrays.asList(frames).subList(0, i));
+                }
+                result.add(placeholder(prefix, runLength));
+            } else if (result != null) {
+                result.add(frames[i]);
+            }
+            i = end;
+        }
+        return result == null ? frames : result.toArray(new StackTraceElement[result.size()]);
+    }
+
+    private String prefixOf(StackTraceElement frame) {
+        for (String prefix : packagePrefixes) {
+            if (frame.getClassName().startsWith(prefix)) {
+                return prefix;
+            }
+        }
+        return null;
+    }
+
+    private static StackTraceElement placeholder(String packagePrefix, int collapsedFrames) {
+        String packageName = packagePrefix.endsWith(".") ? packagePrefix.substring(0, packagePrefix.length() - 1) : packagePrefix;
+        return new StackTraceElement(packageName, "<" + collapsedFrames + " frames collapsed>", null, -1);
+    }
+}
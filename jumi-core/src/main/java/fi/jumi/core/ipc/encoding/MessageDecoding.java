@@ -0,0 +1,30 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+/**
+ * The reading half of {@link MessageEncoding}, for readers which cannot write the messages they read.
+ */
+public interface MessageDecoding<T> {
+
+    String getInterfaceName();
+
+    /**
+     * The version which {@link #decode} expects.
+     */
+    int getInterfaceVersion();
+
+    /**
+     * Whether data that was written in an older (or newer) version of the interface can be decoded.
+     */
+    boolean supportsInterfaceVersion(int version);
+
+    /**
+     * Called by the reader after it has read the version from the header.
+     */
+    void setInterfaceVersion(int version);
+
+    void decode(T target);
+}
@@ -6,13 +6,13 @@ package fi.jumi.core.ipc.encoding;
 
 import fi.jumi.actors.eventizers.Event;
 
-public interface MessageEncoding<T> {
-
-    String getInterfaceName();
+public interface MessageEncoding<T> extends MessageDecoding<T> {
 
+    /**
+     * The version which {@link #encode} produces and {@link #decode} expects.
+     */
+    @Override
     int getInterfaceVersion();
 
     void encode(Event<T> message);
-
-    void decode(T target);
 }
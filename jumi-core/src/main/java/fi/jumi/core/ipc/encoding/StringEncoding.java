@@ -7,6 +7,10 @@ package fi.jumi.core.ipc.encoding;
 import fi.jumi.core.ipc.buffer.IpcBuffer;
 
 import javax.annotation.concurrent.ThreadSafe;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static fi.jumi.core.ipc.encoding.VarIntEncoding.*;
 
 @ThreadSafe
 public class StringEncoding {
@@ -24,11 +28,10 @@ public class StringEncoding {
         if (length < 0) {
             return null;
         } else {
-            char[] chars = new char[length];
-            for (int i = 0; i < chars.length; i++) {
-                chars[i] = source.readChar();
-            }
-            return new String(chars);
+            ByteBuffer bytes = ByteBuffer.allocate(length * 2);
+            source.readBytes(bytes);
+            bytes.flip();
+            return bytes.asCharBuffer().toString();
         }
     }
 
@@ -45,9 +48,151 @@ public class StringEncoding {
         } else {
             int length = s.length();
             target.writeInt(length);
+            // same as writeChar for each char, but without looking up the segment for every char
+            ByteBuffer bytes = ByteBuffer.allocate(length * 2);
+            bytes.asCharBuffer().put(s);
+            target.writeBytes(bytes);
+        }
+    }
+
+    // UTF-8
+
+    // The lengths are in bytes, plus one so that zero can mean null. Unpaired surrogates are encoded like
+    // any other 3-byte character (instead of replacing them with '?') so that all strings survive the round trip.
+
+    public static String readUtf8String(IpcBuffer source) {
+        String s = readNullableUtf8String(source);
+        if (s == null) {
+            throw new NullPointerException();
+        }
+        return s;
+    }
+
+    public static String readNullableUtf8String(IpcBuffer source) {
+        int length = readVarInt(source) - 1;
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        source.readBytes(bytes, 0, length);
+        if (isAscii(bytes)) {
+            return new String(bytes, StandardCharsets.US_ASCII);
+        }
+        return decodeUtf8(bytes);
+    }
+
+    public static void writeUtf8String(IpcBuffer target, String s) {
+        if (s == null) {
+            throw new NullPointerException();
+        }
+        writeNullableUtf8String(target, s);
+    }
+
+    public static void writeNullableUtf8String(IpcBuffer target, String s) {
+        if (s == null) {
+            writeVarInt(target, 0);
+            return;
+        }
+        int length = utf8Length(s);
+        writeVarInt(target, length + 1);
+        byte[] bytes = new byte[length];
+        if (length == s.length()) {
             for (int i = 0; i < length; i++) {
-                target.writeChar(s.charAt(i));
+                bytes[i] = (byte) s.charAt(i);
+            }
+        } else {
+            encodeUtf8(s, bytes);
+        }
+        target.writeBytes(bytes, 0, length);
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int utf8Length(String s) {
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (isSurrogatePair(s, i)) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static boolean isSurrogatePair(String s, int index) {
+        return Character.isHighSurrogate(s.charAt(index))
+                && index + 1 < s.length()
+                && Character.isLowSurrogate(s.charAt(index + 1));
+    }
+
+    private static void encodeUtf8(String s, byte[] bytes) {
+        int pos = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes[pos++] = (byte) c;
+            } else if (c < 0x800) {
+                bytes[pos++] = (byte) (0xC0 | c >> 6);
+                bytes[pos++] = (byte) (0x80 | c & 0x3F);
+            } else if (isSurrogatePair(s, i)) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                bytes[pos++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[pos++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[pos++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[pos++] = (byte) (0x80 | codePoint & 0x3F);
+            } else {
+                bytes[pos++] = (byte) (0xE0 | c >> 12);
+                bytes[pos++] = (byte) (0x80 | c >> 6 & 0x3F);
+                bytes[pos++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    private static String decodeUtf8(byte[] bytes) {
+        char[] chars = new char[bytes.length];
+        int length = 0;
+        int i = 0;
+        while (i < bytes.length) {
+            int b = bytes[i];
+            if (b >= 0) {
+                chars[length++] = (char) b;
+                i += 1;
+            } else if ((b & 0xE0) == 0xC0) {
+                chars[length++] = (char) ((b & 0x1F) << 6 | continuation(bytes, i + 1));
+                i += 2;
+            } else if ((b & 0xF0) == 0xE0) {
+                chars[length++] = (char) ((b & 0x0F) << 12 | continuation(bytes, i + 1) << 6 | continuation(bytes, i + 2));
+                i += 3;
+            } else if ((b & 0xF8) == 0xF0) {
+                int codePoint = (b & 0x07) << 18 | continuation(bytes, i + 1) << 12 | continuation(bytes, i + 2) << 6 | continuation(bytes, i + 3);
+                chars[length++] = Character.highSurrogate(codePoint);
+                chars[length++] = Character.lowSurrogate(codePoint);
+                i += 4;
+            } else {
+                throw new IllegalArgumentException("malformed UTF-8: unexpected byte " + Integer.toHexString(b & 0xFF) + " at offset " + i);
             }
         }
+        return new String(chars, 0, length);
+    }
+
+    private static int continuation(byte[] bytes, int index) {
+        if (index >= bytes.length || (bytes[index] & 0xC0) != 0x80) {
+            throw new IllegalArgumentException("malformed UTF-8: truncated character at offset " + index);
+        }
+        return bytes[index] & 0x3F;
     }
 }
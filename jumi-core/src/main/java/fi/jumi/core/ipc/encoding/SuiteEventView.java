@@ -0,0 +1,207 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+
+/**
+ * The event which {@link FlyweightSuiteListener} is currently handling. The same instance is reused for every event,
+ * so it must not be used after the callback has returned. Only the fields of the current event type are valid.
+ * <p>
+ * Texts are decoded only when asked for, and the other objects are created only when asked for, unless
+ * they are shared dictionary entries. Stack traces are always decoded, because the following stack traces
+ * may refer to their elements.
+ */
+@NotThreadSafe
+public class SuiteEventView {
+
+    public enum Type {
+        SUITE_STARTED,
+        INTERNAL_ERROR,
+        TEST_FILE_FOUND,
+        ALL_TEST_FILES_FOUND,
+        TEST_FOUND,
+        RUN_STARTED,
+        TEST_STARTED,
+        PRINTED_OUT,
+        PRINTED_ERR,
+        FAILURE,
+        TEST_FINISHED,
+        RUN_FINISHED,
+        TEST_FILE_FINISHED,
+        SUITE_FINISHED
+    }
+
+    private static final long NONE = -1;
+
+    private final SuiteListenerEncoding encoding;
+
+    Type type;
+    int runId;
+    int[] testIdPath = new int[8];
+    int testIdPathLength;
+    TestFile testFile;
+    long testFilePosition;
+    String name;
+    long namePosition;
+    String text;
+    long textPosition;
+    boolean textCompressed;
+    StackTrace cause;
+
+    SuiteEventView(SuiteListenerEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    void clear() {
+        type = null;
+        runId = 0;
+        testIdPathLength = 0;
+        testFile = null;
+        testFilePosition = NONE;
+        name = null;
+        namePosition = NONE;
+        text = null;
+        textPosition = NONE;
+        textCompressed = false;
+        cause = null;
+    }
+
+    void addTestIdPathElement(int index) {
+        if (testIdPathLength == testIdPath.length) {
+            testIdPath = Arrays.copyOf(testIdPath, testIdPath.length * 2);
+        }
+        testIdPath[testIdPathLength++] = index;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Same as {@link RunId#toInt()}, but without creating the {@link RunId}.
+     */
+    public int getRunId() {
+        return runId;
+    }
+
+    public TestFile getTestFile() {
+        if (testFile == null && testFilePosition != NONE) {
+            testFile = encoding.readTestFileAt(testFilePosition);
+        }
+        return testFile;
+    }
+
+    /**
+     * Same as {@code getTestId().getPath().length}, but without creating the {@link TestId}.
+     */
+    public int getTestIdPathLength() {
+        return testIdPathLength;
+    }
+
+    /**
+     * Same as {@code getTestId().getPath()[i]}, but without creating the {@link TestId}.
+     */
+    public int getTestIdPathElement(int i) {
+        if (i < 0 || i >= testIdPathLength) {
+            throw new IndexOutOfBoundsException("index " + i + ", length " + testIdPathLength);
+        }
+        return testIdPath[i];
+    }
+
+    public TestId getTestId() {
+        return TestId.of(Arrays.copyOf(testIdPath, testIdPathLength));
+    }
+
+    /**
+     * The name of the test, for {@link Type#TEST_FOUND}.
+     */
+    public String getName() {
+        if (name == null && namePosition != NONE) {
+            name = encoding.readNameAt(namePosition);
+        }
+        return name;
+    }
+
+    /**
+     * The printed text, or the message of {@link Type#INTERNAL_ERROR}.
+     */
+    public String getText() {
+        if (text == null && textPosition != NONE) {
+            text = encoding.readTextAt(textPosition, textCompressed);
+        }
+        return text;
+    }
+
+    @CheckForNull
+    public StackTrace getCause() {
+        return cause;
+    }
+
+    /**
+     * Creates all the objects of the current event and passes them to a regular listener.
+     */
+    public void fireOn(SuiteListener target) {
+        if (type == null) {
+            throw new IllegalStateException("no current event");
+        }
+        switch (type) {
+            case SUITE_STARTED:
+                target.onSuiteStarted();
+                break;
+            case INTERNAL_ERROR:
+                target.onInternalError(getText(), cause);
+                break;
+            case TEST_FILE_FOUND:
+                target.onTestFileFound(getTestFile());
+                break;
+            case ALL_TEST_FILES_FOUND:
+                target.onAllTestFilesFound();
+                break;
+            case TEST_FOUND:
+                target.onTestFound(getTestFile(), getTestId(), getName());
+                break;
+            case RUN_STARTED:
+                target.onRunStarted(new RunId(runId), getTestFile());
+                break;
+            case TEST_STARTED:
+                target.onTestStarted(new RunId(runId), getTestId());
+                break;
+            case PRINTED_OUT:
+                target.onPrintedOut(new RunId(runId), getText());
+                break;
+            case PRINTED_ERR:
+                target.onPrintedErr(new RunId(runId), getText());
+                break;
+            case FAILURE:
+                target.onFailure(new RunId(runId), cause);
+                break;
+            case TEST_FINISHED:
+                target.onTestFinished(new RunId(runId));
+                break;
+            case RUN_FINISHED:
+                target.onRunFinished(new RunId(runId));
+                break;
+            case TEST_FILE_FINISHED:
+                target.onTestFileFinished(getTestFile());
+                break;
+            case SUITE_FINISHED:
+                target.onSuiteFinished();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(" + type + ")";
+    }
+}
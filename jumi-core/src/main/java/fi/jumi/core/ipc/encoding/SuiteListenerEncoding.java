@@ -9,11 +9,16 @@ import fi.jumi.api.drivers.TestId;
 import fi.jumi.core.api.*;
 import fi.jumi.core.ipc.buffer.IpcBuffer;
 
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.*;
+import java.io.Closeable;
 import java.nio.file.Paths;
+import java.util.*;
+
+import static fi.jumi.core.ipc.encoding.StringEncoding.*;
+import static fi.jumi.core.ipc.encoding.VarIntEncoding.*;
 
 @NotThreadSafe
-public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener, MessageEncoding<SuiteListener> {
+public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener, MessageEncoding<SuiteListener>, Closeable {
 
     private static final byte onSuiteStarted = 1;
     private static final byte onInternalError = 2;
@@ -29,9 +34,93 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
     private static final byte onRunFinished = 12;
     private static final byte onTestFileFinished = 13;
     private static final byte onSuiteFinished = 14;
+    private static final byte onPrintedOutCompressed = 15;
+    private static final byte onPrintedErrCompressed = 16;
+
+    /**
+     * Fixed-size ints and UTF-16 strings.
+     */
+    private static final int VERSION_1 = 1;
+
+    /**
+     * Variable-length ints and UTF-8 strings.
+     */
+    private static final int VERSION_2 = 2;
+
+    /**
+     * Like version 2, but test files and the names of tests, classes and methods
+     * are written in full only the first time, after which they are referred to by ID.
+     */
+    private static final int VERSION_3 = 3;
+
+    /**
+     * Like version 3, but also exception messages and stack trace elements are written in full only the first time,
+     * and a stack trace which ends with the same elements as the previous one refers to them instead of repeating them.
+     */
+    private static final int VERSION_4 = 4;
+
+    /**
+     * Like version 4, but printed texts above a configurable length may be compressed, which is indicated
+     * by a separate event type.
+     */
+    private static final int VERSION_5 = 5;
+
+    private static final int MAX_DICTIONARY_SIZE = 65536;
+
+    private int version;
+    private final FrameworkFrames frameworkFrames;
+    private final TextCompression compression;
+    private final DictionaryEncoding<TestFile> testFiles;
+    private final DictionaryEncoding<String> names;
+    private final DictionaryEncoding<String> messages;
+    private final DictionaryEncoding<StackTraceElement> frames;
+    private StackTraceElement[] previousWrittenElements = new StackTraceElement[0];
+    private StackTraceElement[] previousReadElements = new StackTraceElement[0];
+    private final SuiteEventView view = new SuiteEventView(this);
 
     public SuiteListenerEncoding(IpcBuffer buffer) {
+        this(buffer, FrameworkFrames.NONE);
+    }
+
+    public SuiteListenerEncoding(IpcBuffer buffer, FrameworkFrames frameworkFrames) {
+        this(buffer, frameworkFrames, TextCompression.DISABLED);
+    }
+
+    /**
+     * Without compression, writes the previous interface version, so that older readers can still read the data.
+     *
+     * @param compressionThreshold the minimum length of printed texts to be compressed, or {@link TextCompression#DISABLED}
+     */
+    public SuiteListenerEncoding(IpcBuffer buffer, FrameworkFrames frameworkFrames, int compressionThreshold) {
+        this(buffer, compressionThreshold == TextCompression.DISABLED ? VERSION_4 : VERSION_5, frameworkFrames, compressionThreshold);
+    }
+
+    public SuiteListenerEncoding(IpcBuffer buffer, int interfaceVersion) {
+        this(buffer, interfaceVersion, FrameworkFrames.NONE);
+    }
+
+    public SuiteListenerEncoding(IpcBuffer buffer, int interfaceVersion, FrameworkFrames frameworkFrames) {
+        this(buffer, interfaceVersion, frameworkFrames, TextCompression.DISABLED);
+    }
+
+    public SuiteListenerEncoding(IpcBuffer buffer, int interfaceVersion, FrameworkFrames frameworkFrames, int compressionThreshold) {
         super(buffer);
+        setInterfaceVersion(interfaceVersion);
+        this.frameworkFrames = frameworkFrames;
+        this.compression = new TextCompression(compressionThreshold);
+        testFiles = new DictionaryEncoding<>(buffer, MAX_DICTIONARY_SIZE, this::writeTestFilePath, this::readTestFilePath);
+        names = new DictionaryEncoding<>(buffer, MAX_DICTIONARY_SIZE, this::writeString, this::readString);
+        messages = new DictionaryEncoding<>(buffer, MAX_DICTIONARY_SIZE, this::writeString, this::readString);
+        frames = new DictionaryEncoding<>(buffer, MAX_DICTIONARY_SIZE, this::writeStackTraceElement, this::readStackTraceElement);
+    }
+
+    /**
+     * Returns an encoding for storing the values of the messages outside of the stream, e.g. in an index,
+     * with methods such as {@link #writeTestFile} and {@link #readTestFile}. The values do not refer to
+     * dictionaries nor to each other, so they can be read in any order.
+     */
+    public static SuiteListenerEncoding forValues(IpcBuffer buffer) {
+        return new SuiteListenerEncoding(buffer, VERSION_2);
     }
 
     @Override
@@ -41,7 +130,20 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
 
     @Override
     public int getInterfaceVersion() {
-        return 1;
+        return version;
+    }
+
+    @Override
+    public boolean supportsInterfaceVersion(int version) {
+        return version >= VERSION_1 && version <= VERSION_5;
+    }
+
+    @Override
+    public void setInterfaceVersion(int version) {
+        if (!supportsInterfaceVersion(version)) {
+            throw new IllegalArgumentException("unsupported interface version: " + version);
+        }
+        this.version = version;
     }
 
     @Override
@@ -49,6 +151,11 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
         message.fireOn(this);
     }
 
+    @Override
+    public void close() {
+        compression.close();
+    }
+
     @Override
     public void decode(SuiteListener target) {
         byte type = readEventType();
@@ -66,7 +173,7 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
                 target.onAllTestFilesFound();
                 break;
             case onTestFound:
-                target.onTestFound(readTestFile(), readTestId(), readString());
+                target.onTestFound(readTestFile(), readTestId(), readName());
                 break;
             case onRunStarted:
                 target.onRunStarted(readRunId(), readTestFile());
@@ -80,6 +187,12 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
             case onPrintedErr:
                 target.onPrintedErr(readRunId(), readString());
                 break;
+            case onPrintedOutCompressed:
+                target.onPrintedOut(readRunId(), compression.readCompressed(buffer));
+                break;
+            case onPrintedErrCompressed:
+                target.onPrintedErr(readRunId(), compression.readCompressed(buffer));
+                break;
             case onFailure:
                 target.onFailure(readRunId(), readStackTrace());
                 break;
@@ -100,6 +213,93 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
         }
     }
 
+    /**
+     * Like {@link #decode(SuiteListener)}, but creates objects only for the fields which the target asks for.
+     */
+    public void decode(FlyweightSuiteListener target) {
+        SuiteEventView event = view;
+        event.clear();
+        byte type = readEventType();
+        switch (type) {
+            case onSuiteStarted:
+                event.type = SuiteEventView.Type.SUITE_STARTED;
+                break;
+            case onInternalError:
+                event.type = SuiteEventView.Type.INTERNAL_ERROR;
+                event.textPosition = skipString();
+                event.cause = readStackTrace();
+                break;
+            case onTestFileFound:
+                event.type = SuiteEventView.Type.TEST_FILE_FOUND;
+                readTestFile(event);
+                break;
+            case onAllTestFilesFound:
+                event.type = SuiteEventView.Type.ALL_TEST_FILES_FOUND;
+                break;
+            case onTestFound:
+                event.type = SuiteEventView.Type.TEST_FOUND;
+                readTestFile(event);
+                readTestId(event);
+                readName(event);
+                break;
+            case onRunStarted:
+                event.type = SuiteEventView.Type.RUN_STARTED;
+                event.runId = readRunIdInt();
+                readTestFile(event);
+                break;
+            case onTestStarted:
+                event.type = SuiteEventView.Type.TEST_STARTED;
+                event.runId = readRunIdInt();
+                readTestId(event);
+                break;
+            case onPrintedOut:
+                event.type = SuiteEventView.Type.PRINTED_OUT;
+                event.runId = readRunIdInt();
+                event.textPosition = skipString();
+                break;
+            case onPrintedErr:
+                event.type = SuiteEventView.Type.PRINTED_ERR;
+                event.runId = readRunIdInt();
+                event.textPosition = skipString();
+                break;
+            case onPrintedOutCompressed:
+                event.type = SuiteEventView.Type.PRINTED_OUT;
+                event.runId = readRunIdInt();
+                event.textPosition = skipCompressed();
+                event.textCompressed = true;
+                break;
+            case onPrintedErrCompressed:
+                event.type = SuiteEventView.Type.PRINTED_ERR;
+                event.runId = readRunIdInt();
+                event.textPosition = skipCompressed();
+                event.textCompressed = true;
+                break;
+            case onFailure:
+                event.type = SuiteEventView.Type.FAILURE;
+                event.runId = readRunIdInt();
+                event.cause = readStackTrace();
+                break;
+            case onTestFinished:
+                event.type = SuiteEventView.Type.TEST_FINISHED;
+                event.runId = readRunIdInt();
+                break;
+            case onRunFinished:
+                event.type = SuiteEventView.Type.RUN_FINISHED;
+                event.runId = readRunIdInt();
+                break;
+            case onTestFileFinished:
+                event.type = SuiteEventView.Type.TEST_FILE_FINISHED;
+                readTestFile(event);
+                break;
+            case onSuiteFinished:
+                event.type = SuiteEventView.Type.SUITE_FINISHED;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown type " + type);
+        }
+        target.onEvent(event);
+    }
+
     // encoding events
 
     @Override
@@ -130,7 +330,7 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
         writeEventType(onTestFound);
         writeTestFile(testFile);
         writeTestId(testId);
-        writeString(name);
+        writeName(name);
     }
 
     @Override
@@ -149,16 +349,24 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
 
     @Override
     public void onPrintedOut(RunId runId, String text) {
-        writeEventType(onPrintedOut);
-        writeRunId(runId);
-        writeString(text);
+        writePrinted(onPrintedOut, onPrintedOutCompressed, runId, text);
     }
 
     @Override
     public void onPrintedErr(RunId runId, String text) {
-        writeEventType(onPrintedErr);
-        writeRunId(runId);
-        writeString(text);
+        writePrinted(onPrintedErr, onPrintedErrCompressed, runId, text);
+    }
+
+    private void writePrinted(byte type, byte compressedType, RunId runId, String text) {
+        if (version >= VERSION_5 && compression.tryCompress(text)) {
+            writeEventType(compressedType);
+            writeRunId(runId);
+            compression.writeCompressed(buffer);
+        } else {
+            writeEventType(type);
+            writeRunId(runId);
+            writeString(text);
+        }
     }
 
     @Override
@@ -192,81 +400,404 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
     }
 
 
+    // primitives
+
+    @Override
+    protected void writeLength(int length) {
+        if (version == VERSION_1) {
+            super.writeLength(length);
+        } else {
+            writeVarInt(buffer, length);
+        }
+    }
+
+    @Override
+    protected int readLength() {
+        if (version == VERSION_1) {
+            return super.readLength();
+        } else {
+            return readVarInt(buffer);
+        }
+    }
+
+    @Override
+    protected void writeString(String s) {
+        if (version == VERSION_1) {
+            super.writeString(s);
+        } else {
+            writeUtf8String(buffer, s);
+        }
+    }
+
+    @Override
+    protected String readString() {
+        if (version == VERSION_1) {
+            return super.readString();
+        } else {
+            return readUtf8String(buffer);
+        }
+    }
+
+    @Override
+    protected void writeNullableString(String s) {
+        if (version == VERSION_1) {
+            super.writeNullableString(s);
+        } else {
+            writeNullableUtf8String(buffer, s);
+        }
+    }
+
+    @Override
+    protected String readNullableString() {
+        if (version == VERSION_1) {
+            return super.readNullableString();
+        } else {
+            return readNullableUtf8String(buffer);
+        }
+    }
+
+    // skipping over fields, to be read later if needed
+
+    /**
+     * @return the position of the skipped string
+     */
+    private long skipString() {
+        long position = buffer.position();
+        int length;
+        if (version == VERSION_1) {
+            length = buffer.readInt() * 2;
+        } else {
+            length = readVarInt(buffer) - 1;
+        }
+        if (length > 0) {
+            buffer.position(buffer.position() + length);
+        }
+        return position;
+    }
+
+    private long skipCompressed() {
+        long position = buffer.position();
+        readVarInt(buffer); // uncompressed length
+        int length = readVarInt(buffer);
+        buffer.position(buffer.position() + length);
+        return position;
+    }
+
+    private <T> T readAt(long position, ReadOp<T> reader) {
+        long end = buffer.position();
+        buffer.position(position);
+        try {
+            return reader.read();
+        } finally {
+            buffer.position(end);
+        }
+    }
+
+    String readTextAt(long position, boolean compressed) {
+        return readAt(position, compressed ? () -> compression.readCompressed(buffer) : this::readString);
+    }
+
+    TestFile readTestFileAt(long position) {
+        return readAt(position, this::readTestFilePath);
+    }
+
+    String readNameAt(long position) {
+        return readAt(position, this::readName);
+    }
+
     // TestFile
 
-    private void writeTestFile(TestFile testFile) {
+    public void writeTestFile(TestFile testFile) {
+        if (version >= VERSION_3) {
+            testFiles.write(testFile);
+        } else {
+            writeTestFilePath(testFile);
+        }
+    }
+
+    public TestFile readTestFile() {
+        if (version >= VERSION_3) {
+            return testFiles.read();
+        } else {
+            return readTestFilePath();
+        }
+    }
+
+    private void readTestFile(SuiteEventView event) {
+        if (version >= VERSION_3) {
+            event.testFile = testFiles.read();
+        } else {
+            event.testFilePosition = skipString();
+        }
+    }
+
+    private void writeTestFilePath(TestFile testFile) {
         writeString(testFile.getPath());
     }
 
-    private TestFile readTestFile() {
+    private TestFile readTestFilePath() {
         return TestFile.fromPath(Paths.get(readString()));
     }
 
+    // names of tests, classes, methods etc.
+
+    private void writeName(String name) {
+        if (name == null) {
+            throw new NullPointerException();
+        }
+        writeNullableName(name);
+    }
+
+    private String readName() {
+        String name = readNullableName();
+        if (name == null) {
+            throw new NullPointerException();
+        }
+        return name;
+    }
+
+    private void readName(SuiteEventView event) {
+        if (version >= VERSION_3) {
+            event.name = readName();
+        } else {
+            event.namePosition = skipString();
+        }
+    }
+
+    private void writeNullableName(String name) {
+        if (version >= VERSION_3) {
+            names.write(name);
+        } else {
+            writeNullableString(name);
+        }
+    }
+
+    private String readNullableName() {
+        if (version >= VERSION_3) {
+            return names.read();
+        } else {
+            return readNullableString();
+        }
+    }
+
     // TestId
 
-    private void writeTestId(TestId testId) {
-        writeIntArray(testId.getPath());
+    public void writeTestId(TestId testId) {
+        if (version == VERSION_1) {
+            writeIntArray(testId.getPath());
+        } else {
+            int[] path = testId.getPath();
+            writeLength(path.length);
+            for (int index : path) {
+                writeVarInt(buffer, index);
+            }
+        }
+    }
+
+    public TestId readTestId() {
+        if (version == VERSION_1) {
+            return TestId.of(readIntArray());
+        } else {
+            int[] path = new int[readLength()];
+            for (int i = 0; i < path.length; i++) {
+                path[i] = readVarInt(buffer);
+            }
+            return TestId.of(path);
+        }
     }
 
-    private TestId readTestId() {
-        return TestId.of(readIntArray());
+    private void readTestId(SuiteEventView event) {
+        int length = readLength();
+        for (int i = 0; i < length; i++) {
+            event.addTestIdPathElement(version == VERSION_1 ? buffer.readInt() : readVarInt(buffer));
+        }
     }
 
     // RunId
 
     private void writeRunId(RunId runId) {
-        buffer.writeInt(runId.toInt());
+        if (version == VERSION_1) {
+            buffer.writeInt(runId.toInt());
+        } else {
+            writeVarInt(buffer, runId.toInt());
+        }
     }
 
     private RunId readRunId() {
-        return new RunId(buffer.readInt());
+        return new RunId(readRunIdInt());
+    }
+
+    private int readRunIdInt() {
+        if (version == VERSION_1) {
+            return buffer.readInt();
+        } else {
+            return readVarInt(buffer);
+        }
     }
 
     // StackTrace
 
     void writeStackTrace(StackTrace stackTrace) {
-        writeString(stackTrace.getExceptionClass());
-        writeString(stackTrace.toString());
-        writeNullableString(stackTrace.getMessage());
-        writeStackTraceElements(stackTrace.getStackTrace());
+        writeName(stackTrace.getExceptionClass());
+        writeMessage(stackTrace.toString());
+        writeNullableMessage(stackTrace.getMessage());
+        writeStackTraceElements(frameworkFrames.collapse(stackTrace.getStackTrace()));
         writeOptionalException(stackTrace.getCause());
         writeExceptions(stackTrace.getSuppressed());
     }
 
     StackTrace readStackTrace() {
         return new StackTrace.Builder()
-                .setExceptionClass(readString())
-                .setToString(readString())
-                .setMessage(readNullableString())
+                .setExceptionClass(readName())
+                .setToString(readMessage())
+                .setMessage(readNullableMessage())
                 .setStackTrace(readStackTraceElements())
                 .setCause(readOptionalException())
                 .setSuppressed(readExceptions())
                 .build();
     }
 
-    private void writeStackTraceElements(StackTraceElement[] elements) {
-        writeArray(elements, this::writeStackTraceElement);
+    private void writeMessage(String message) {
+        if (message == null) {
+            throw new NullPointerException();
+        }
+        writeNullableMessage(message);
+    }
+
+    private String readMessage() {
+        String message = readNullableMessage();
+        if (message == null) {
+            throw new NullPointerException();
+        }
+        return message;
+    }
+
+    private void writeNullableMessage(String message) {
+        if (version >= VERSION_4) {
+            messages.write(message);
+        } else {
+            writeNullableString(message);
+        }
+    }
+
+    private String readNullableMessage() {
+        if (version >= VERSION_4) {
+            return messages.read();
+        } else {
+            return readNullableString();
+        }
+    }
+
+    public void writeStackTraceElements(StackTraceElement[] elements) {
+        if (version >= VERSION_4) {
+            int commonSuffix = commonSuffixLength(elements, previousWrittenElements);
+            int uniquePrefix = elements.length - commonSuffix;
+            writeLength(uniquePrefix);
+            for (int i = 0; i < uniquePrefix; i++) {
+                frames.write(elements[i]);
+            }
+            writeLength(commonSuffix);
+            previousWrittenElements = elements;
+        } else {
+            writeArray(elements, this::writeStackTraceElement);
+        }
+    }
+
+    public StackTraceElement[] readStackTraceElements() {
+        if (version >= VERSION_4) {
+            int uniquePrefix = readLength();
+            StackTraceElement[] unique = new StackTraceElement[uniquePrefix];
+            for (int i = 0; i < uniquePrefix; i++) {
+                unique[i] = frames.read();
+            }
+            int commonSuffix = readLength();
+            if (commonSuffix > previousReadElements.length) {
+                throw new IllegalArgumentException("common suffix of " + commonSuffix + " elements is longer " +
+                        "than the previous stack trace of " + previousReadElements.length + " elements");
+            }
+            StackTraceElement[] elements = Arrays.copyOf(unique, uniquePrefix + commonSuffix);
+            System.arraycopy(previousReadElements, previousReadElements.length - commonSuffix, elements, uniquePrefix, commonSuffix);
+            previousReadElements = elements;
+            return elements;
+        } else {
+            return readArray(this::readStackTraceElement, StackTraceElement[]::new);
+        }
     }
 
-    private StackTraceElement[] readStackTraceElements() {
-        return readArray(this::readStackTraceElement, StackTraceElement[]::new);
+    private static int commonSuffixLength(StackTraceElement[] a, StackTraceElement[] b) {
+        int length = 0;
+        while (length < a.length && length < b.length
+                && a[a.length - 1 - length].equals(b[b.length - 1 - length])) {
+            length++;
+        }
+        return length;
     }
 
     private void writeStackTraceElement(StackTraceElement element) {
-        writeString(element.getClassName());
-        writeString(element.getMethodName());
-        writeNullableString(element.getFileName());
-        buffer.writeInt(element.getLineNumber());
+        writeName(element.getClassName());
+        writeName(element.getMethodName());
+        writeNullableName(element.getFileName());
+        if (version == VERSION_1) {
+            buffer.writeInt(element.getLineNumber());
+        } else {
+            writeSignedVarInt(buffer, element.getLineNumber()); // negative for unknown source and native methods
+        }
     }
 
     private StackTraceElement readStackTraceElement() {
-        String className = readString();
-        String methodName = readString();
-        String fileName = readNullableString();
-        int lineNumber = buffer.readInt();
+        String className = readName();
+        String methodName = readName();
+        String fileName = readNullableName();
+        int lineNumber = version == VERSION_1 ? buffer.readInt() : readSignedVarInt(buffer);
         return new StackTraceElement(className, methodName, fileName, lineNumber);
     }
 
+    // random access
+
+    /**
+     * The dictionaries which the reader has built so far. Once the whole stream has been read, they can be given to
+     * {@link #preloadReadDictionaries} to decode the messages in any order.
+     */
+    public ReadDictionaries getReadDictionaries() {
+        return new ReadDictionaries(testFiles.getReadValues(), names.getReadValues(), messages.getReadValues(), frames.getReadValues());
+    }
+
+    /**
+     * Writes the dictionaries returned by {@link #getReadDictionaries}, for an encoding from {@link #forValues}.
+     */
+    public void writeDictionaries(ReadDictionaries dictionaries) {
+        writeList(dictionaries.testFiles, this::writeTestFilePath);
+        writeStrings(dictionaries.names);
+        writeStrings(dictionaries.messages);
+        writeList(dictionaries.frames, this::writeStackTraceElement);
+    }
+
+    public ReadDictionaries readDictionaries() {
+        return new ReadDictionaries(
+                Arrays.asList(readArray(this::readTestFilePath, TestFile[]::new)),
+                Arrays.asList(readStrings()),
+                Arrays.asList(readStrings()),
+                Arrays.asList(readArray(this::readStackTraceElement, StackTraceElement[]::new)));
+    }
+
+    public void preloadReadDictionaries(ReadDictionaries dictionaries) {
+        testFiles.preloadReadValues(dictionaries.testFiles);
+        names.preloadReadValues(dictionaries.names);
+        messages.preloadReadValues(dictionaries.messages);
+        frames.preloadReadValues(dictionaries.frames);
+    }
+
+    /**
+     * The stack trace elements which the next stack trace to be read may share with the previous one.
+     */
+    public StackTraceElement[] getPreviousReadStackTrace() {
+        return previousReadElements;
+    }
+
+    public void setPreviousReadStackTrace(StackTraceElement[] elements) {
+        previousReadElements = elements;
+    }
+
     // Throwable (assumed to be StackTrace at runtime)
 
     private void writeOptionalException(Throwable exception) {
@@ -293,4 +824,20 @@ public class SuiteListenerEncoding extends EncodingUtil implements SuiteListener
     private Throwable readException() {
         return readStackTrace();
     }
+
+
+    @Immutable
+    public static class ReadDictionaries {
+        public final List<TestFile> testFiles;
+        public final List<String> names;
+        public final List<String> messages;
+        public final List<StackTraceElement> frames;
+
+        public ReadDictionaries(List<TestFile> testFiles, List<String> names, List<String> messages, List<StackTraceElement> frames) {
+            this.testFiles = Collections.unmodifiableList(new ArrayList<>(testFiles));
+            this.names = Collections.unmodifiableList(new ArrayList<>(names));
+            this.messages = Collections.unmodifiableList(new ArrayList<>(messages));
+            this.frames = Collections.unmodifiableList(new ArrayList<>(frames));
+        }
+    }
 }
@@ -0,0 +1,125 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.*;
+
+import static fi.jumi.core.ipc.encoding.VarIntEncoding.*;
+
+/**
+ * Compresses long texts with DEFLATE at its fastest setting. Short texts would not shrink enough to be worth it.
+ */
+@NotThreadSafe
+public class TextCompression implements Closeable {
+
+    /**
+     * Threshold for never compressing anything.
+     */
+    public static final int DISABLED = 0;
+
+    private final int threshold;
+    private Deflater deflater;
+    private Inflater inflater;
+    private byte[] compressed = new byte[1024];
+    private int compressedLength;
+    private int uncompressedLength;
+
+    /**
+     * @param threshold the minimum length (in chars) of the texts to be compressed, or {@link #DISABLED}
+     */
+    public TextCompression(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must be non-negative, but was " + threshold);
+        }
+        this.threshold = threshold;
+    }
+
+    /**
+     * Compresses the text if it is long enough and becomes smaller, after which {@link #writeCompressed} will write it.
+     *
+     * @return whether the text was compressed
+     */
+    public boolean tryCompress(String text) {
+        if (threshold == DISABLED || text.length() < threshold) {
+            return false;
+        }
+        byte[] uncompressed = text.getBytes(StandardCharsets.UTF_8);
+        if (deflater == null) {
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        deflater.reset();
+        deflater.setInput(uncompressed);
+        deflater.finish();
+        compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+        if (compressedLength >= uncompressed.length) {
+            return false;
+        }
+        uncompressedLength = uncompressed.length;
+        return true;
+    }
+
+    public void writeCompressed(IpcBuffer target) {
+        writeVarInt(target, uncompressedLength);
+        writeVarInt(target, compressedLength);
+        target.writeBytes(compressed, 0, compressedLength);
+    }
+
+    public String readCompressed(IpcBuffer source) {
+        byte[] uncompressed = new byte[readVarInt(source)];
+        byte[] input = new byte[readVarInt(source)];
+        source.readBytes(input, 0, input.length);
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        inflater.reset();
+        inflater.setInput(input);
+        try {
+            int length = 0;
+            while (length < uncompressed.length && !inflater.finished()) {
+                int n = inflater.inflate(uncompressed, length, uncompressed.length - length);
+                if (n == 0 && inflater.needsDictionary()) {
+                    throw new IllegalArgumentException("corrupted compressed text: it needs a preset dictionary");
+                }
+                if (n == 0 && inflater.needsInput()) {
+                    throw new IllegalArgumentException("corrupted compressed text: it ended after " + length + " of " + uncompressed.length + " bytes");
+                }
+                length += n;
+            }
+            if (length != uncompressed.length) {
+                throw new IllegalArgumentException("expected " + uncompressed.length + " bytes after decompression, but got " + length);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("corrupted compressed text", e);
+        }
+        return new String(uncompressed, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Frees the native memory of the compressor and decompressor. They will be created again if needed.
+     */
+    @Override
+    public void close() {
+        if (deflater != null) {
+            deflater.end();
+            deflater = null;
+        }
+        if (inflater != null) {
+            inflater.end();
+            inflater = null;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Variable-length integers: 7 bits per byte, least significant group first, and the high bit set on all but the last
+ * byte. Values below 128 take one byte. Signed values are zigzag encoded so that small negative values stay short.
+ */
+@ThreadSafe
+public class VarIntEncoding {
+
+    public static int readVarInt(IpcBuffer source) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = source.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("malformed varint at position " + (source.position() - 5));
+    }
+
+    public static void writeVarInt(IpcBuffer target, int value) {
+        while ((value & ~0x7F) != 0) {
+            target.writeByte((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        target.writeByte((byte) value);
+    }
+
+    public static int readSignedVarInt(IpcBuffer source) {
+        int zigzag = readVarInt(source);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    public static void writeSignedVarInt(IpcBuffer target, int value) {
+        writeVarInt(target, (value << 1) ^ (value >> 31));
+    }
+}
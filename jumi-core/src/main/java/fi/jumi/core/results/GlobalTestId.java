@@ -23,6 +23,14 @@ class GlobalTestId {
         this.testId = testId;
     }
 
+    public TestFile getTestFile() {
+        return testFile;
+    }
+
+    public TestId getTestId() {
+        return testId;
+    }
+
     @Override
     public boolean equals(Object other) {
         GlobalTestId that = (GlobalTestId) other;
@@ -0,0 +1,313 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.results;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+import fi.jumi.core.ipc.buffer.*;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import static fi.jumi.core.ipc.encoding.StringEncoding.*;
+import static fi.jumi.core.ipc.encoding.VarIntEncoding.*;
+
+/**
+ * Sidecar index for a suite results file, so that the events of a single run can be read by seeking
+ * to them directly, instead of decoding the whole file from the beginning.
+ * <p>
+ * Because the messages may refer to earlier messages, the index contains also the state which the decoder
+ * would have built up to each message: the dictionaries of the whole file and, for every failure,
+ * the previous stack trace.
+ */
+@NotThreadSafe
+public class SuiteResultsIndex implements Closeable {
+
+    private static final int FORMAT_VERSION = 2;
+    private static final int KB = 1024;
+    private static final int MB = 1024 * KB;
+
+    private final Path resultsPath;
+    private final int interfaceVersion;
+    private final SuiteListenerEncoding.ReadDictionaries dictionaries;
+    private final Map<GlobalTestId, String> testNames;
+    private final Map<RunId, Run> runs;
+    private final boolean complete;
+
+    private IpcBuffer results;
+    private SuiteListenerEncoding decoder;
+
+    SuiteResultsIndex(Path resultsPath, int interfaceVersion, SuiteListenerEncoding.ReadDictionaries dictionaries,
+                      Map<GlobalTestId, String> testNames, Map<RunId, Run> runs, boolean complete) {
+        this.resultsPath = resultsPath;
+        this.interfaceVersion = interfaceVersion;
+        this.dictionaries = dictionaries;
+        this.testNames = testNames;
+        this.runs = runs;
+        this.complete = complete;
+    }
+
+    public static Path indexPathOf(Path resultsPath) {
+        return resultsPath.resolveSibling(resultsPath.getFileName() + ".index");
+    }
+
+    /**
+     * Opens the existing index, or if it does not cover the whole suite, indexes the results file again.
+     */
+    public static SuiteResultsIndex openOrBuild(Path resultsPath) throws IOException {
+        if (Files.exists(indexPathOf(resultsPath))) {
+            SuiteResultsIndex index = open(resultsPath);
+            if (index.isComplete()) {
+                return index;
+            }
+        }
+        return build(resultsPath);
+    }
+
+    /**
+     * Reads the whole results file and writes the index next to it.
+     */
+    public static SuiteResultsIndex build(Path resultsPath) throws IOException {
+        SuiteResultsIndex index = new SuiteResultsIndexer(resultsPath).index();
+        index.writeTo(indexPathOf(resultsPath));
+        return index;
+    }
+
+    public static SuiteResultsIndex open(Path resultsPath) throws IOException {
+        Path indexPath = indexPathOf(resultsPath);
+        if (!Files.exists(indexPath)) {
+            throw new NoSuchFileException(indexPath.toString());
+        }
+        IpcBuffer buffer = new IpcBuffer(MappedByteBufferSequence.readOnly(existingSegments(indexPath)).unmappingReleasedSegments());
+        try {
+            return readFrom(buffer, resultsPath);
+        } finally {
+            buffer.releaseAllSegments();
+        }
+    }
+
+    static FileSegmenter existingSegments(Path basePath) {
+        // the segment sizes are used only when creating new segments
+        return new FileSegmenter(basePath, 64 * KB, 16 * MB);
+    }
+
+    /**
+     * Whether the results file contained the whole suite, i.e. the suite had finished when it was indexed.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public List<RunId> getRunIds() {
+        return new ArrayList<>(runs.keySet());
+    }
+
+    public List<RunId> getRunIds(TestFile testFile) {
+        List<RunId> runIds = new ArrayList<>();
+        for (Map.Entry<RunId, Run> entry : runs.entrySet()) {
+            if (testFile.equals(entry.getValue().testFile)) {
+                runIds.add(entry.getKey());
+            }
+        }
+        return runIds;
+    }
+
+    /**
+     * Returns the runs in which a test of the specified name was executed.
+     */
+    public List<RunId> getRunIdsByTestName(String testName) {
+        List<RunId> runIds = new ArrayList<>();
+        for (Map.Entry<RunId, Run> entry : runs.entrySet()) {
+            Run run = entry.getValue();
+            for (TestId testId : run.tests) {
+                if (testName.equals(testNames.get(new GlobalTestId(run.testFile, testId)))) {
+                    runIds.add(entry.getKey());
+                    break;
+                }
+            }
+        }
+        return runIds;
+    }
+
+    public TestFile getTestFile(RunId runId) {
+        TestFile testFile = getRun(runId).testFile;
+        if (testFile == null) {
+            throw new IllegalArgumentException("test file not found for " + runId);
+        }
+        return testFile;
+    }
+
+    public String getTestName(TestFile testFile, TestId testId) {
+        String name = testNames.get(new GlobalTestId(testFile, testId));
+        if (name == null) {
+            throw new IllegalArgumentException("name not found for " + testFile + " and " + testId);
+        }
+        return name;
+    }
+
+    public void visitRun(RunId runId, RunVisitor visitor) {
+        visitRun(runId, new RunEventDenormalizer(visitor));
+    }
+
+    public void visitRun(RunId runId, SuiteListener visitor) {
+        Run run = getRun(runId);
+        SuiteListenerEncoding decoder = decoder();
+        for (int i = 0; i < run.messageCount; i++) {
+            long message = run.messages[i];
+            StackTraceElement[] previousStackTrace = run.previousStackTraces.get(message);
+            if (previousStackTrace != null) {
+                decoder.setPreviousReadStackTrace(previousStackTrace);
+            }
+            results.position(message + 1); // skip the status
+            decoder.decode(visitor);
+        }
+    }
+
+    private Run getRun(RunId runId) {
+        Run run = runs.get(runId);
+        if (run == null) {
+            throw new IllegalArgumentException("run not found: " + runId);
+        }
+        return run;
+    }
+
+    private SuiteListenerEncoding decoder() {
+        if (decoder == null) {
+            results = new IpcBuffer(MappedByteBufferSequence.readOnly(existingSegments(resultsPath)).unmappingReleasedSegments());
+            decoder = new SuiteListenerEncoding(results, interfaceVersion);
+            decoder.preloadReadDictionaries(dictionaries);
+        }
+        return decoder;
+    }
+
+    /**
+     * Unmaps the results file. Visiting a run after this maps it again.
+     */
+    @Override
+    public void close() {
+        if (results != null) {
+            decoder.close();
+            results.releaseAllSegments();
+            results = null;
+            decoder = null;
+        }
+    }
+
+
+    // index file
+
+    void writeTo(Path indexPath) throws IOException {
+        FileSegmenter segmenter = existingSegments(indexPath);
+        for (int i = 0; Files.deleteIfExists(segmenter.pathOf(i)); i++) {
+            // overwriting could leave stale segments behind
+        }
+        IpcBuffer buffer = new IpcBuffer(MappedByteBufferSequence.readWrite(segmenter).unmappingReleasedSegments());
+        try {
+            writeTo(buffer);
+        } finally {
+            buffer.releaseAllSegments();
+        }
+    }
+
+    private void writeTo(IpcBuffer buffer) {
+        SuiteListenerEncoding values = SuiteListenerEncoding.forValues(buffer);
+
+        buffer.writeInt(FORMAT_VERSION);
+        buffer.writeByte((byte) (complete ? 1 : 0));
+        buffer.writeInt(interfaceVersion);
+        values.writeDictionaries(dictionaries);
+
+        writeVarInt(buffer, testNames.size());
+        for (Map.Entry<GlobalTestId, String> entry : testNames.entrySet()) {
+            values.writeTestFile(entry.getKey().getTestFile());
+            values.writeTestId(entry.getKey().getTestId());
+            writeUtf8String(buffer, entry.getValue());
+        }
+
+        writeVarInt(buffer, runs.size());
+        for (Map.Entry<RunId, Run> entry : runs.entrySet()) {
+            Run run = entry.getValue();
+            writeVarInt(buffer, entry.getKey().toInt());
+            buffer.writeByte((byte) (run.testFile == null ? 0 : 1));
+            if (run.testFile != null) {
+                values.writeTestFile(run.testFile);
+            }
+            writeVarInt(buffer, run.tests.size());
+            for (TestId testId : run.tests) {
+                values.writeTestId(testId);
+            }
+            writeVarInt(buffer, run.messageCount);
+            for (int i = 0; i < run.messageCount; i++) {
+                buffer.writeLong(run.messages[i]);
+            }
+            writeVarInt(buffer, run.previousStackTraces.size());
+            for (Map.Entry<Long, StackTraceElement[]> failure : run.previousStackTraces.entrySet()) {
+                buffer.writeLong(failure.getKey());
+                values.writeStackTraceElements(failure.getValue());
+            }
+        }
+    }
+
+    private static SuiteResultsIndex readFrom(IpcBuffer buffer, Path resultsPath) {
+        SuiteListenerEncoding values = SuiteListenerEncoding.forValues(buffer);
+
+        int formatVersion = buffer.readInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IllegalArgumentException("unsupported index format version: " + formatVersion);
+        }
+        boolean complete = buffer.readByte() != 0;
+        int interfaceVersion = buffer.readInt();
+        SuiteListenerEncoding.ReadDictionaries dictionaries = values.readDictionaries();
+
+        Map<GlobalTestId, String> testNames = new HashMap<>();
+        for (int i = readVarInt(buffer); i > 0; i--) {
+            TestFile testFile = values.readTestFile();
+            TestId testId = values.readTestId();
+            testNames.put(new GlobalTestId(testFile, testId), readUtf8String(buffer));
+        }
+
+        Map<RunId, Run> runs = new LinkedHashMap<>();
+        for (int i = readVarInt(buffer); i > 0; i--) {
+            RunId runId = new RunId(readVarInt(buffer));
+            Run run = new Run();
+            if (buffer.readByte() != 0) {
+                run.testFile = values.readTestFile();
+            }
+            for (int j = readVarInt(buffer); j > 0; j--) {
+                run.tests.add(values.readTestId());
+            }
+            for (int j = readVarInt(buffer); j > 0; j--) {
+                run.addMessage(buffer.readLong());
+            }
+            for (int j = readVarInt(buffer); j > 0; j--) {
+                long message = buffer.readLong();
+                run.previousStackTraces.put(message, values.readStackTraceElements());
+            }
+            runs.put(runId, run);
+        }
+
+        return new SuiteResultsIndex(resultsPath, interfaceVersion, dictionaries, testNames, runs, complete);
+    }
+
+
+    @NotThreadSafe
+    static class Run {
+        public TestFile testFile;
+        public final List<TestId> tests = new ArrayList<>();
+        public long[] messages = new long[16];
+        public int messageCount = 0;
+        public final Map<Long, StackTraceElement[]> previousStackTraces = new LinkedHashMap<>();
+
+        public void addMessage(long message) {
+            if (messageCount == messages.length) {
+                messages = Arrays.copyOf(messages, messages.length * 2);
+            }
+            messages[messageCount++] = message;
+        }
+    }
+}
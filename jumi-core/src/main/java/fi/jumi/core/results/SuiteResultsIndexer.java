@@ -0,0 +1,146 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.results;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+import fi.jumi.core.ipc.buffer.*;
+import fi.jumi.core.ipc.channel.*;
+import fi.jumi.core.ipc.encoding.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+
+@NotThreadSafe
+class SuiteResultsIndexer {
+
+    private final Path resultsPath;
+    private final IpcBuffer buffer;
+    private final SuiteListenerEncoding encoding;
+    private final Map<GlobalTestId, String> testNames = new HashMap<>();
+    private final Map<RunId, SuiteResultsIndex.Run> runs = new LinkedHashMap<>();
+
+    private long currentMessage;
+    private StackTraceElement[] previousStackTrace;
+
+    public SuiteResultsIndexer(Path resultsPath) {
+        this.resultsPath = resultsPath;
+        this.buffer = new IpcBuffer(MappedByteBufferSequence.readOnly(SuiteResultsIndex.existingSegments(resultsPath)).unmappingReleasedSegments());
+        this.encoding = new SuiteListenerEncoding(buffer);
+    }
+
+    public SuiteResultsIndex index() throws IOException {
+        if (!Files.exists(resultsPath)) {
+            throw new NoSuchFileException(resultsPath.toString());
+        }
+        IpcReader<SuiteListener> reader = IpcProtocol.reader(buffer, ignored -> new PositionRecordingDecoding(), true);
+        Indexer indexer = new Indexer();
+        PollResult result;
+        try {
+            do {
+                result = reader.poll(indexer);
+            } while (result == PollResult.HAD_SOME_MESSAGES);
+        } finally {
+            encoding.close();
+            buffer.releaseAllSegments();
+        }
+        return new SuiteResultsIndex(resultsPath, encoding.getInterfaceVersion(), encoding.getReadDictionaries(),
+                testNames, runs, result == PollResult.END_OF_STREAM);
+    }
+
+    private void addCurrentMessageToRun(RunId runId) {
+        getRun(runId).addMessage(currentMessage);
+    }
+
+    private SuiteResultsIndex.Run getRun(RunId runId) {
+        SuiteResultsIndex.Run run = runs.get(runId);
+        if (run == null) {
+            run = new SuiteResultsIndex.Run();
+            runs.put(runId, run);
+        }
+        return run;
+    }
+
+
+    @NotThreadSafe
+    private class PositionRecordingDecoding implements MessageDecoding<SuiteListener> {
+
+        @Override
+        public String getInterfaceName() {
+            return encoding.getInterfaceName();
+        }
+
+        @Override
+        public int getInterfaceVersion() {
+            return encoding.getInterfaceVersion();
+        }
+
+        @Override
+        public boolean supportsInterfaceVersion(int version) {
+            return encoding.supportsInterfaceVersion(version);
+        }
+
+        @Override
+        public void setInterfaceVersion(int version) {
+            encoding.setInterfaceVersion(version);
+        }
+
+        @Override
+        public void decode(SuiteListener target) {
+            currentMessage = buffer.position() - 1; // the status has already been read
+            previousStackTrace = encoding.getPreviousReadStackTrace();
+            encoding.decode(target);
+        }
+    }
+
+    @NotThreadSafe
+    private class Indexer extends NullSuiteListener {
+
+        @Override
+        public void onTestFound(TestFile testFile, TestId testId, String name) {
+            testNames.put(new GlobalTestId(testFile, testId), name);
+        }
+
+        @Override
+        public void onRunStarted(RunId runId, TestFile testFile) {
+            getRun(runId).testFile = testFile;
+            addCurrentMessageToRun(runId);
+        }
+
+        @Override
+        public void onTestStarted(RunId runId, TestId testId) {
+            getRun(runId).tests.add(testId);
+            addCurrentMessageToRun(runId);
+        }
+
+        @Override
+        public void onPrintedOut(RunId runId, String text) {
+            addCurrentMessageToRun(runId);
+        }
+
+        @Override
+        public void onPrintedErr(RunId runId, String text) {
+            addCurrentMessageToRun(runId);
+        }
+
+        @Override
+        public void onFailure(RunId runId, StackTrace cause) {
+            getRun(runId).previousStackTraces.put(currentMessage, previousStackTrace);
+            addCurrentMessageToRun(runId);
+        }
+
+        @Override
+        public void onTestFinished(RunId runId) {
+            addCurrentMessageToRun(runId);
+        }
+
+        @Override
+        public void onRunFinished(RunId runId) {
+            addCurrentMessageToRun(runId);
+        }
+    }
+}
@@ -20,7 +20,9 @@ import java.util.*;
 @ThreadSafe
 class Run {
 
-    private final ActorRef<RunListener> listener;
+    private static final OutputListener NO_OUTPUT = new NullOutputListener();
+
+    private final RunEventBuffer listener;
     private final OutputCapturer outputCapturer;
 
     private final RunId runId;
@@ -32,8 +34,8 @@ class Run {
      */
     private volatile Test currentTest = null;
 
-    public Run(ActorRef<RunListener> listener, OutputCapturer outputCapturer, RunId runId) {
-        this.listener = listener;
+    public Run(ActorRef<RunListener> listener, OutputCapturer outputCapturer, RunId runId, RunEventBatching batching) {
+        this.listener = batching.newBuffer(listener);
         this.outputCapturer = outputCapturer;
         this.runId = runId;
     }
@@ -44,8 +46,13 @@ class Run {
     }
 
     private void fireRunFinished() {
-        outputCapturer.captureTo(new NullOutputListener());
+        outputCapturer.captureTo(NO_OUTPUT);
         listener.tell().onRunFinished(runId);
+        listener.flush();
+    }
+
+    public void flush() {
+        listener.flush();
     }
 
     public boolean isRunFinished() {
@@ -76,6 +83,7 @@ class Run {
         public void fireFailure(Throwable cause) {
             checkInnermostNonFinishedTest(cause);
             listener.tell().onFailure(runId, testId, cause);
+            listener.flush();
         }
 
         @Override
@@ -96,6 +104,7 @@ class Run {
                         "which " + (isTestFinished() ? "is finished" : "is not innermost");
                 IllegalStateException e = new IllegalStateException(message, testFailureBeingReported);
                 listener.tell().onInternalError("Incorrect notifier API usage", e);
+                listener.flush();
                 throw e;
             }
         }
@@ -123,10 +132,10 @@ class Run {
 
     @ThreadSafe
     private static class OutputListenerAdapter implements OutputListener {
-        private final ActorRef<RunListener> listener;
+        private final RunEventBuffer listener;
         private final RunId runId;
 
-        public OutputListenerAdapter(ActorRef<RunListener> listener, RunId runId) {
+        public OutputListenerAdapter(RunEventBuffer listener, RunId runId) {
             this.listener = listener;
             this.runId = runId;
         }
@@ -0,0 +1,186 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.runs;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.RunId;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+
+/**
+ * Consecutive events of one run, sent to the {@link RunListener} actor as a single message. The events are stored in
+ * preallocated slots instead of event objects, and after the batch has been fired it is recycled for another run, so
+ * that buffering an event does not allocate any memory.
+ * <p>
+ * Only one thread at a time may use a batch. It is handed over to the actor thread with the message containing it.
+ */
+@NotThreadSafe
+public final class RunEventBatch {
+
+    private static final byte onInternalError = 1;
+    private static final byte onTestFound = 2;
+    private static final byte onRunStarted = 3;
+    private static final byte onTestStarted = 4;
+    private static final byte onPrintedOut = 5;
+    private static final byte onPrintedErr = 6;
+    private static final byte onFailure = 7;
+    private static final byte onTestFinished = 8;
+    private static final byte onRunFinished = 9;
+
+    private final RunEventBatching owner;
+    private final byte[] types;
+    private final RunId[] runIds;
+    private final TestId[] testIds;
+    private final String[] texts;
+    private final Throwable[] causes;
+    private int size = 0;
+
+    RunEventBatch(int capacity, RunEventBatching owner) {
+        this.owner = owner;
+        types = new byte[capacity];
+        runIds = new RunId[capacity];
+        testIds = new TestId[capacity];
+        texts = new String[capacity];
+        causes = new Throwable[capacity];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    boolean isFull() {
+        return size == types.length;
+    }
+
+    void addInternalError(String message, Throwable cause) {
+        add(onInternalError, null, null, message, cause);
+    }
+
+    void addTestFound(TestId testId, String name) {
+        add(onTestFound, null, testId, name, null);
+    }
+
+    void addRunStarted(RunId runId) {
+        add(onRunStarted, runId, null, null, null);
+    }
+
+    void addTestStarted(RunId runId, TestId testId) {
+        add(onTestStarted, runId, testId, null, null);
+    }
+
+    void addPrintedOut(RunId runId, String text) {
+        add(onPrintedOut, runId, null, text, null);
+    }
+
+    void addPrintedErr(RunId runId, String text) {
+        add(onPrintedErr, runId, null, text, null);
+    }
+
+    void addFailure(RunId runId, TestId testId, Throwable cause) {
+        add(onFailure, runId, testId, null, cause);
+    }
+
+    void addTestFinished(RunId runId, TestId testId) {
+        add(onTestFinished, runId, testId, null, null);
+    }
+
+    void addRunFinished(RunId runId) {
+        add(onRunFinished, runId, null, null, null);
+    }
+
+    private void add(byte type, RunId runId, TestId testId, String text, Throwable cause) {
+        types[size] = type;
+        runIds[size] = runId;
+        testIds[size] = testId;
+        texts[size] = text;
+        causes[size] = cause;
+        size++;
+    }
+
+    /**
+     * Fires all events on the target, even if some of them throw an exception, after which the batch is recycled.
+     * The first exception is rethrown after all events have been fired.
+     */
+    public void fireOn(RunListener target) {
+        RuntimeException failure = null;
+        try {
+            for (int i = 0; i < size; i++) {
+                try {
+                    fire(i, target);
+                } catch (RuntimeException e) {
+                    if (failure == null) {
+                        failure = e;
+                    } else {
+                        failure.addSuppressed(e);
+                    }
+                }
+            }
+        } finally {
+            clear();
+            owner.recycle(this);
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Fires all events on the target without recycling the batch, so that the batch can be inspected before
+     * it is processed.
+     */
+    public void replayOn(RunListener target) {
+        for (int i = 0; i < size; i++) {
+            fire(i, target);
+        }
+    }
+
+    private void fire(int i, RunListener target) {
+        switch (types[i]) {
+            case onInternalError:
+                target.onInternalError(texts[i], causes[i]);
+                break;
+            case onTestFound:
+                target.onTestFound(testIds[i], texts[i]);
+                break;
+            case onRunStarted:
+                target.onRunStarted(runIds[i]);
+                break;
+            case onTestStarted:
+                target.onTestStarted(runIds[i], testIds[i]);
+                break;
+            case onPrintedOut:
+                target.onPrintedOut(runIds[i], texts[i]);
+                break;
+            case onPrintedErr:
+                target.onPrintedErr(runIds[i], texts[i]);
+                break;
+            case onFailure:
+                target.onFailure(runIds[i], testIds[i], causes[i]);
+                break;
+            case onTestFinished:
+                target.onTestFinished(runIds[i], testIds[i]);
+                break;
+            case onRunFinished:
+                target.onRunFinished(runIds[i]);
+                break;
+            default:
+                throw new IllegalStateException("unknown event type " + types[i]);
+        }
+    }
+
+    private void clear() {
+        Arrays.fill(runIds, 0, size, null);
+        Arrays.fill(testIds, 0, size, null);
+        Arrays.fill(texts, 0, size, null);
+        Arrays.fill(causes, 0, size, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "RunEventBatch(" + size + " events)";
+    }
+}
@@ -0,0 +1,123 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.runs;
+
+import fi.jumi.actors.ActorRef;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * How many events of a run may be buffered, and for how long, before they are sent to the {@link RunListener} actor.
+ * Also keeps a pool of recycled {@link RunEventBatch}es and keeps track of the buffers which have events waiting, so
+ * that {@link #flushStaleBuffers()} can send them after the maximum latency without a timer task per batch.
+ */
+@ThreadSafe
+public class RunEventBatching {
+
+    public static final RunEventBatching DISABLED = new RunEventBatching(1, 0, 1);
+
+    private static final int OVERFLOW_SLOT = -1;
+
+    private final int maxEvents;
+    private final long maxLatencyNanos;
+    private final AtomicReferenceArray<RunEventBatch> spareBatches;
+    private final AtomicReferenceArray<RunEventBuffer> pendingBuffers;
+    private final Queue<RunEventBuffer> overflowBuffers = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param concurrentRuns how many runs are expected to have buffered events at the same time; more are allowed,
+     *                       but they are slower to keep track of
+     */
+    public RunEventBatching(int maxEvents, long maxLatencyMillis, int concurrentRuns) {
+        this.maxEvents = maxEvents;
+        this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+        int slots = Math.max(1, concurrentRuns);
+        this.spareBatches = new AtomicReferenceArray<>(slots);
+        this.pendingBuffers = new AtomicReferenceArray<>(slots);
+    }
+
+    public boolean isEnabled() {
+        return maxEvents > 1;
+    }
+
+    RunEventBuffer newBuffer(ActorRef<RunListener> target) {
+        return new RunEventBuffer(target, this);
+    }
+
+    long getMaxLatencyNanos() {
+        return maxLatencyNanos;
+    }
+
+    /**
+     * Should be called periodically, at least as often as the maximum latency, to send the events which have waited
+     * for too long.
+     */
+    public void flushStaleBuffers() {
+        long now = System.nanoTime();
+        for (int i = 0; i < pendingBuffers.length(); i++) {
+            RunEventBuffer buffer = pendingBuffers.get(i);
+            if (buffer != null) {
+                buffer.flushIfStale(now);
+            }
+        }
+        for (RunEventBuffer buffer : overflowBuffers) {
+            buffer.flushIfStale(now);
+        }
+    }
+
+    /**
+     * @return the slot which must be given to {@link #unregister}
+     */
+    int register(RunEventBuffer buffer) {
+        int start = startingSlot(pendingBuffers.length());
+        for (int i = 0; i < pendingBuffers.length(); i++) {
+            int slot = (start + i) % pendingBuffers.length();
+            if (pendingBuffers.get(slot) == null && pendingBuffers.compareAndSet(slot, null, buffer)) {
+                return slot;
+            }
+        }
+        overflowBuffers.add(buffer);
+        return OVERFLOW_SLOT;
+    }
+
+    void unregister(int slot, RunEventBuffer buffer) {
+        if (slot == OVERFLOW_SLOT) {
+            overflowBuffers.remove(buffer);
+        } else {
+            pendingBuffers.compareAndSet(slot, buffer, null);
+        }
+    }
+
+    RunEventBatch takeBatch() {
+        int start = startingSlot(spareBatches.length());
+        for (int i = 0; i < spareBatches.length(); i++) {
+            int slot = (start + i) % spareBatches.length();
+            RunEventBatch batch = spareBatches.get(slot);
+            if (batch != null && spareBatches.compareAndSet(slot, batch, null)) {
+                return batch;
+            }
+        }
+        return new RunEventBatch(maxEvents, this);
+    }
+
+    void recycle(RunEventBatch batch) {
+        int start = startingSlot(spareBatches.length());
+        for (int i = 0; i < spareBatches.length(); i++) {
+            int slot = (start + i) % spareBatches.length();
+            if (spareBatches.get(slot) == null && spareBatches.compareAndSet(slot, null, batch)) {
+                return;
+            }
+        }
+        // too many spare batches; let this one be garbage collected
+    }
+
+    private static int startingSlot(int slots) {
+        // different threads start from different slots, so that they will usually find a free slot on the first try
+        return (int) (Thread.currentThread().getId() % slots);
+    }
+}
@@ -0,0 +1,133 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.runs;
+
+import fi.jumi.actors.ActorRef;
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.RunId;
+
+import javax.annotation.concurrent.*;
+
+/**
+ * Buffers the events of one run, so that the {@link RunListener} actor receives them in batches instead of each event
+ * being a separate actor message. The buffer is shared by all threads which take part in the run, to keep the run's
+ * events in order.
+ */
+@ThreadSafe
+class RunEventBuffer implements RunListener {
+
+    private final ActorRef<RunListener> target;
+    private final RunEventBatching batching;
+
+    @GuardedBy("this")
+    private RunEventBatch batch = null;
+    @GuardedBy("this")
+    private long firstEventTime;
+    @GuardedBy("this")
+    private int pendingSlot;
+
+    public RunEventBuffer(ActorRef<RunListener> target, RunEventBatching batching) {
+        this.target = target;
+        this.batching = batching;
+    }
+
+    /**
+     * Same as {@link ActorRef#tell()}, but the events are buffered until the next {@link #flush()}.
+     */
+    public RunListener tell() {
+        return batching.isEnabled() ? this : target.tell();
+    }
+
+    private RunEventBatch batch() {
+        assert Thread.holdsLock(this);
+        if (batch == null) {
+            batch = batching.takeBatch();
+            firstEventTime = System.nanoTime();
+            pendingSlot = batching.register(this);
+        }
+        return batch;
+    }
+
+    private void added() {
+        assert Thread.holdsLock(this);
+        if (batch.isFull() || System.nanoTime() - firstEventTime >= batching.getMaxLatencyNanos()) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        if (batch != null) {
+            batching.unregister(pendingSlot, this);
+            RunEventBatch events = batch;
+            batch = null;
+            target.tell().onRunEvents(events);
+        }
+    }
+
+    synchronized void flushIfStale(long now) {
+        if (batch != null && now - firstEventTime >= batching.getMaxLatencyNanos()) {
+            flush();
+        }
+    }
+
+    @Override
+    public synchronized void onInternalError(String message, Throwable cause) {
+        batch().addInternalError(message, cause);
+        added();
+    }
+
+    @Override
+    public synchronized void onTestFound(TestId testId, String name) {
+        batch().addTestFound(testId, name);
+        added();
+    }
+
+    @Override
+    public synchronized void onRunStarted(RunId runId) {
+        batch().addRunStarted(runId);
+        added();
+    }
+
+    @Override
+    public synchronized void onTestStarted(RunId runId, TestId testId) {
+        batch().addTestStarted(runId, testId);
+        added();
+    }
+
+    @Override
+    public synchronized void onPrintedOut(RunId runId, String text) {
+        batch().addPrintedOut(runId, text);
+        added();
+    }
+
+    @Override
+    public synchronized void onPrintedErr(RunId runId, String text) {
+        batch().addPrintedErr(runId, text);
+        added();
+    }
+
+    @Override
+    public synchronized void onFailure(RunId runId, TestId testId, Throwable cause) {
+        batch().addFailure(runId, testId, cause);
+        added();
+    }
+
+    @Override
+    public synchronized void onTestFinished(RunId runId, TestId testId) {
+        batch().addTestFinished(runId, testId);
+        added();
+    }
+
+    @Override
+    public synchronized void onRunFinished(RunId runId) {
+        batch().addRunFinished(runId);
+        added();
+    }
+
+    @Override
+    public void onRunEvents(RunEventBatch events) {
+        throw new UnsupportedOperationException("batches cannot be nested");
+    }
+}
@@ -116,4 +116,9 @@ public class RunEventNormalizer implements RunListener {
     public void onRunFinished(RunId runId) {
         listener.onRunFinished(runId);
     }
+
+    @Override
+    public void onRunEvents(RunEventBatch events) {
+        events.fireOn(this);
+    }
 }
@@ -28,4 +28,6 @@ public interface RunListener {
     void onTestFinished(RunId runId, TestId testId);
 
     void onRunFinished(RunId runId);
+
+    void onRunEvents(RunEventBatch events);
 }
@@ -18,11 +18,17 @@ public class ThreadBoundSuiteNotifier implements SuiteNotifier {
     private final ActorRef<RunListener> listener;
     private final RunIdSequence runIdSequence;
     private final OutputCapturer outputCapturer;
+    private final RunEventBatching batching;
 
     public ThreadBoundSuiteNotifier(ActorRef<RunListener> listener, RunIdSequence runIdSequence, OutputCapturer outputCapturer) {
+        this(listener, runIdSequence, outputCapturer, RunEventBatching.DISABLED);
+    }
+
+    public ThreadBoundSuiteNotifier(ActorRef<RunListener> listener, RunIdSequence runIdSequence, OutputCapturer outputCapturer, RunEventBatching batching) {
         this.listener = listener;
         this.runIdSequence = runIdSequence;
         this.outputCapturer = outputCapturer;
+        this.batching = batching;
     }
 
     @Override
@@ -35,7 +41,7 @@ public class ThreadBoundSuiteNotifier implements SuiteNotifier {
         Run run = this.currentRun.get();
 
         if (run == null || run.isRunFinished()) {
-            run = new Run(listener, outputCapturer, runIdSequence.nextRunId());
+            run = new Run(listener, outputCapturer, runIdSequence.nextRunId(), batching);
             run.fireRunStarted();
             this.currentRun.set(run);
         }
@@ -45,6 +51,18 @@ public class ThreadBoundSuiteNotifier implements SuiteNotifier {
 
     @Override
     public void fireInternalError(String message, Throwable cause) {
+        flushCurrentRun(); // keeps the error after the run's earlier events
         listener.tell().onInternalError(message, cause);
     }
+
+    /**
+     * Sends the buffered events of the current thread's run. Must be called before a test thread finishes its work, or
+     * else the events of a run which the testing framework did not finish could arrive after its test file finished.
+     */
+    public void flushCurrentRun() {
+        Run run = currentRun.get();
+        if (run != null) {
+            run.flush();
+        }
+    }
 }
@@ -0,0 +1,237 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.stats;
+
+import fi.jumi.actors.listeners.MessageListener;
+import fi.jumi.core.events.runListener.OnRunEventsEvent;
+
+import javax.annotation.concurrent.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the messages which each type of actor processes, per event type, and how long they waited in the actor's
+ * queue and how long processing them took. The wait times are known only for messages which were sent through a
+ * {@link TimestampingEventizerProvider}. The report can be read while the actors are running; the counters are
+ * updated without locking, so a report may be off by the messages which were being processed at the time.
+ * <p>
+ * The events in a batch of run events are counted as if they had been separate messages. They share the batch's
+ * wait time, and its processing time is divided evenly between them.
+ */
+@ThreadSafe
+public class ActorStatistics implements MessageListener, ActorStatisticsMBean {
+
+    public static final String OBJECT_NAME = "fi.jumi:type=ActorStatistics";
+
+    private final MessageListener listener;
+    private final ConcurrentMap<Class<?>, ActorStats> actors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Class<?>, AtomicLong> sentMessages = new ConcurrentHashMap<>();
+    private final ThreadLocal<Processing> processing = new ThreadLocal<Processing>() {
+        @Override
+        protected Processing initialValue() {
+            return new Processing();
+        }
+    };
+
+    public ActorStatistics(MessageListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void onMessageSent(Object message) {
+        for (Class<?> eventType : eventTypes(message)) {
+            counter(sentMessages, eventType).incrementAndGet();
+        }
+        listener.onMessageSent(message);
+    }
+
+    @Override
+    public void onProcessingStarted(Object actor, Object message) {
+        listener.onProcessingStarted(actor, message);
+        long now = System.nanoTime();
+        Processing current = processing.get();
+        ActorStats actorStats = actorStats(actor.getClass());
+        current.stats.clear();
+        for (Class<?> eventType : eventTypes(message)) {
+            current.stats.add(actorStats.messageStats(eventType));
+        }
+        current.startNanos = now;
+        current.waitNanos = message instanceof TimestampedEvent
+                ? now - ((TimestampedEvent<?>) message).getSentNanos()
+                : -1;
+    }
+
+    @Override
+    public void onProcessingFinished() {
+        long now = System.nanoTime();
+        Processing current = processing.get();
+        if (!current.stats.isEmpty()) {
+            long processingNanos = (now - current.startNanos) / current.stats.size();
+            for (MessageStats stats : current.stats) {
+                stats.record(current.waitNanos, processingNanos);
+            }
+            current.stats.clear();
+        }
+        listener.onProcessingFinished();
+    }
+
+    @Override
+    public Executor getListenedExecutor(Executor realExecutor) {
+        return listener.getListenedExecutor(realExecutor);
+    }
+
+    @Override
+    public String getReport() {
+        StringBuilder sb = new StringBuilder("Actor statistics:\n");
+        Map<Class<?>, Long> processedMessages = new HashMap<>();
+        for (Map.Entry<Class<?>, ActorStats> actor : sortedByName(actors)) {
+            sb.append("  ").append(actor.getKey().getName()).append('\n');
+            for (Map.Entry<Class<?>, MessageStats> message : sortedByName(actor.getValue().messages)) {
+                MessageStats stats = message.getValue();
+                long count = stats.count.get();
+                Long processed = processedMessages.get(message.getKey());
+                processedMessages.put(message.getKey(), processed == null ? count : processed + count);
+
+                sb.append("    ").append(eventName(message.getKey())).append(": ").append(count).append(" messages");
+                if (stats.waitedCount.get() > 0) {
+                    sb.append(", waited ").append(millis(stats.waitNanos.get()))
+                            .append(" (avg ").append(millis(stats.waitNanos.get() / stats.waitedCount.get()))
+                            .append(", max ").append(millis(stats.maxWaitNanos.get())).append(')');
+                }
+                if (count > 0) {
+                    sb.append(", processed ").append(millis(stats.processingNanos.get()))
+                            .append(" (avg ").append(millis(stats.processingNanos.get() / count))
+                            .append(", max ").append(millis(stats.maxProcessingNanos.get())).append(')');
+                }
+                sb.append('\n');
+            }
+        }
+        StringBuilder queued = new StringBuilder();
+        for (Map.Entry<Class<?>, AtomicLong> sent : sortedByName(sentMessages)) {
+            Long processed = processedMessages.get(sent.getKey());
+            long inQueue = sent.getValue().get() - (processed == null ? 0 : processed);
+            if (inQueue > 0) {
+                queued.append("    ").append(eventName(sent.getKey())).append(": ").append(inQueue).append('\n');
+            }
+        }
+        if (queued.length() > 0) {
+            sb.append("  Messages in queues:\n").append(queued);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getReport();
+    }
+
+    private ActorStats actorStats(Class<?> actorType) {
+        ActorStats stats = actors.get(actorType);
+        if (stats == null) {
+            ActorStats created = new ActorStats();
+            stats = actors.putIfAbsent(actorType, created);
+            if (stats == null) {
+                stats = created;
+            }
+        }
+        return stats;
+    }
+
+    private static AtomicLong counter(ConcurrentMap<Class<?>, AtomicLong> counters, Class<?> eventType) {
+        AtomicLong counter = counters.get(eventType);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = counters.putIfAbsent(eventType, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        return counter;
+    }
+
+    private static List<Class<?>> eventTypes(Object message) {
+        Object event = message instanceof TimestampedEvent ? ((TimestampedEvent<?>) message).getEvent() : message;
+        if (event instanceof OnRunEventsEvent) {
+            RunEventTypes batched = new RunEventTypes();
+            ((OnRunEventsEvent) event).fireOn(batched);
+            return batched.eventTypes;
+        }
+        return Collections.<Class<?>>singletonList(event.getClass());
+    }
+
+    private static String eventName(Class<?> eventType) {
+        // the generated events are in a package named after the listener interface, e.g. "runListener"
+        String packageName = eventType.getPackage() == null ? "" : eventType.getPackage().getName();
+        String listenerName = packageName.substring(packageName.lastIndexOf('.') + 1);
+        String className = eventType.getName().substring(packageName.isEmpty() ? 0 : packageName.length() + 1);
+        return listenerName.isEmpty() ? className : listenerName + "." + className;
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ENGLISH, "%.3f ms", nanos / 1000000.0);
+    }
+
+    private static <V> List<Map.Entry<Class<?>, V>> sortedByName(Map<Class<?>, V> map) {
+        List<Map.Entry<Class<?>, V>> entries = new ArrayList<>(map.entrySet());
+        Collections.sort(entries, (a, b) -> a.getKey().getName().compareTo(b.getKey().getName()));
+        return entries;
+    }
+
+
+    @ThreadSafe
+    private static class ActorStats {
+        final ConcurrentMap<Class<?>, MessageStats> messages = new ConcurrentHashMap<>();
+
+        MessageStats messageStats(Class<?> eventType) {
+            MessageStats stats = messages.get(eventType);
+            if (stats == null) {
+                MessageStats created = new MessageStats();
+                stats = messages.putIfAbsent(eventType, created);
+                if (stats == null) {
+                    stats = created;
+                }
+            }
+            return stats;
+        }
+    }
+
+    @ThreadSafe
+    private static class MessageStats {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong processingNanos = new AtomicLong();
+        final AtomicLong maxProcessingNanos = new AtomicLong();
+        final AtomicLong waitedCount = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+
+        void record(long waitNanos, long processingNanos) {
+            if (waitNanos >= 0) {
+                this.waitedCount.incrementAndGet();
+                this.waitNanos.addAndGet(waitNanos);
+                updateMax(this.maxWaitNanos, waitNanos);
+            }
+            this.processingNanos.addAndGet(processingNanos);
+            updateMax(this.maxProcessingNanos, processingNanos);
+            this.count.incrementAndGet();
+        }
+
+        private static void updateMax(AtomicLong max, long value) {
+            long current;
+            while (value > (current = max.get())) {
+                if (max.compareAndSet(current, value)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    @NotThreadSafe
+    private static class Processing {
+        final List<MessageStats> stats = new ArrayList<>();
+        long startNanos;
+        long waitNanos;
+    }
+}
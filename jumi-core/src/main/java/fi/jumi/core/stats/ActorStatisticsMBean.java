@@ -0,0 +1,13 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.stats;
+
+/**
+ * Makes {@link ActorStatistics} readable over JMX while the suite is running.
+ */
+public interface ActorStatisticsMBean {
+
+    String getReport();
+}
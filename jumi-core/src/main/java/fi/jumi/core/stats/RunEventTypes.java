@@ -0,0 +1,72 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.stats;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.RunId;
+import fi.jumi.core.events.runListener.*;
+import fi.jumi.core.runs.*;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.*;
+
+/**
+ * Lists the event types which a {@link RunEventBatch} contains, as they would be if the events were not batched.
+ */
+@NotThreadSafe
+class RunEventTypes implements RunListener {
+
+    final List<Class<?>> eventTypes = new ArrayList<>();
+
+    @Override
+    public void onRunEvents(RunEventBatch events) {
+        events.replayOn(this);
+    }
+
+    @Override
+    public void onInternalError(String message, Throwable cause) {
+        eventTypes.add(OnInternalErrorEvent.class);
+    }
+
+    @Override
+    public void onTestFound(TestId testId, String name) {
+        eventTypes.add(OnTestFoundEvent.class);
+    }
+
+    @Override
+    public void onRunStarted(RunId runId) {
+        eventTypes.add(OnRunStartedEvent.class);
+    }
+
+    @Override
+    public void onTestStarted(RunId runId, TestId testId) {
+        eventTypes.add(OnTestStartedEvent.class);
+    }
+
+    @Override
+    public void onPrintedOut(RunId runId, String text) {
+        eventTypes.add(OnPrintedOutEvent.class);
+    }
+
+    @Override
+    public void onPrintedErr(RunId runId, String text) {
+        eventTypes.add(OnPrintedErrEvent.class);
+    }
+
+    @Override
+    public void onFailure(RunId runId, TestId testId, Throwable cause) {
+        eventTypes.add(OnFailureEvent.class);
+    }
+
+    @Override
+    public void onTestFinished(RunId runId, TestId testId) {
+        eventTypes.add(OnTestFinishedEvent.class);
+    }
+
+    @Override
+    public void onRunFinished(RunId runId) {
+        eventTypes.add(OnRunFinishedEvent.class);
+    }
+}
@@ -0,0 +1,40 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.stats;
+
+import fi.jumi.actors.eventizers.Event;
+
+import javax.annotation.concurrent.Immutable;
+
+@Immutable
+class TimestampedEvent<T> implements Event<T> {
+
+    private final Event<T> event;
+    private final long sentNanos;
+
+    public TimestampedEvent(Event<T> event, long sentNanos) {
+        this.event = event;
+        this.sentNanos = sentNanos;
+    }
+
+    public Event<T> getEvent() {
+        return event;
+    }
+
+    public long getSentNanos() {
+        return sentNanos;
+    }
+
+    @Override
+    public void fireOn(T target) {
+        event.fireOn(target);
+    }
+
+    @Override
+    public String toString() {
+        // keep the actor message logs unchanged
+        return event.toString();
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.stats;
+
+import fi.jumi.actors.eventizers.*;
+import fi.jumi.actors.queue.MessageSender;
+
+import javax.annotation.concurrent.*;
+
+/**
+ * Marks every message with the time it was sent, so that {@link ActorStatistics} can tell how long the messages
+ * waited in the actors' queues.
+ */
+@ThreadSafe
+public class TimestampingEventizerProvider implements EventizerProvider {
+
+    private final EventizerProvider eventizerProvider;
+
+    public TimestampingEventizerProvider(EventizerProvider eventizerProvider) {
+        this.eventizerProvider = eventizerProvider;
+    }
+
+    @Override
+    public <T> Eventizer<T> getEventizerForType(Class<T> type) {
+        return new TimestampingEventizer<>(eventizerProvider.getEventizerForType(type));
+    }
+
+
+    @Immutable
+    private static class TimestampingEventizer<T> implements Eventizer<T> {
+        private final Eventizer<T> eventizer;
+
+        public TimestampingEventizer(Eventizer<T> eventizer) {
+            this.eventizer = eventizer;
+        }
+
+        @Override
+        public Class<T> getType() {
+            return eventizer.getType();
+        }
+
+        @Override
+        public T newFrontend(MessageSender<Event<T>> target) {
+            return eventizer.newFrontend(event -> target.send(new TimestampedEvent<>(event, System.nanoTime())));
+        }
+
+        @Override
+        public MessageSender<Event<T>> newBackend(T target) {
+            // the timestamped events fire themselves on the target like the original events
+            return eventizer.newBackend(target);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.suite;
+
+import fi.jumi.actors.workers.WorkerListener;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Lock-free replacement for {@link fi.jumi.actors.workers.WorkerCounter}. Counts the started and ended tasks, and
+ * calls the listener exactly once, in the thread which ends the last task after the listener has been given.
+ */
+@ThreadSafe
+class CompletionTracker {
+
+    // starts from one, so that the listener cannot be called before it is given
+    private final AtomicInteger unfinished = new AtomicInteger(1);
+    private final AtomicReference<WorkerListener> listener = new AtomicReference<>();
+
+    public void begin() {
+        unfinished.incrementAndGet();
+    }
+
+    public void end() {
+        if (unfinished.decrementAndGet() == 0) {
+            WorkerListener target = listener.getAndSet(null);
+            if (target != null) {
+                target.onAllWorkersFinished();
+            }
+        }
+    }
+
+    public void afterAllFinished(WorkerListener listener) {
+        if (!this.listener.compareAndSet(null, listener)) {
+            throw new IllegalStateException("listener already given");
+        }
+        end();
+    }
+}
@@ -0,0 +1,55 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.suite;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.Executor;
+
+@ThreadSafe
+class CompletionTrackingExecutor implements Executor {
+
+    private final Executor backingExecutor;
+    private final CompletionTracker tracker;
+
+    public CompletionTrackingExecutor(Executor backingExecutor, CompletionTracker tracker) {
+        this.backingExecutor = backingExecutor;
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        tracker.begin();
+        try {
+            backingExecutor.execute(new TrackedCommand(command));
+        } catch (RuntimeException | Error e) {
+            tracker.end();
+            throw e;
+        }
+    }
+
+
+    @ThreadSafe
+    private class TrackedCommand implements Runnable {
+        private final Runnable command;
+
+        public TrackedCommand(Runnable command) {
+            this.command = command;
+        }
+
+        @Override
+        public void run() {
+            try {
+                command.run();
+            } finally {
+                tracker.end();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return command.toString();
+        }
+    }
+}
@@ -11,39 +11,42 @@ import fi.jumi.core.drivers.*;
 import fi.jumi.core.runs.*;
 import fi.jumi.core.stdout.OutputCapturer;
 
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.*;
 import java.util.concurrent.Executor;
 
 @NotThreadSafe
 public class DriverFactory {
 
     private final SuiteListener suiteListener;
-    private final ActorThread actorThread;
     private final OutputCapturer outputCapturer;
     private final DriverFinder driverFinder;
     private final RunIdSequence runIdSequence;
     private final ClassLoader testClassLoader;
+    private final RunEventBatching runEventBatching;
 
-    public DriverFactory(SuiteListener suiteListener, ActorThread actorThread, OutputCapturer outputCapturer, DriverFinder driverFinder, RunIdSequence runIdSequence, ClassLoader testClassLoader) {
-        this.actorThread = actorThread;
+    public DriverFactory(SuiteListener suiteListener, OutputCapturer outputCapturer, DriverFinder driverFinder, RunIdSequence runIdSequence, ClassLoader testClassLoader, RunEventBatching runEventBatching) {
         this.outputCapturer = outputCapturer;
         this.driverFinder = driverFinder;
         this.runIdSequence = runIdSequence;
         this.suiteListener = suiteListener;
         this.testClassLoader = testClassLoader;
+        this.runEventBatching = runEventBatching;
     }
 
-    public DriverRunner createDriverRunner(TestFile testFile, Executor testExecutor) {
+    public Runnable createDriverRunner(TestFile testFile, ActorThread actorThread, Executor testExecutor) {
         Class<?> testClass = loadTestClass(testClassLoader, testFile);
         Driver driver = driverFinder.findTestClassDriver(testClass);
 
-        SuiteNotifier suiteNotifier = new ThreadBoundSuiteNotifier(
+        ThreadBoundSuiteNotifier suiteNotifier = new ThreadBoundSuiteNotifier(
                 actorThread.bindActor(RunListener.class, new RunEventNormalizer(suiteListener, testFile)),
                 runIdSequence,
-                outputCapturer
+                outputCapturer,
+                runEventBatching
         );
 
-        return new DriverRunner(driver, testClass, suiteNotifier, testExecutor);
+        // the buffered run events must be sent before the worker is counted as finished
+        Executor flushingExecutor = command -> testExecutor.execute(new RunEventFlusher(command, suiteNotifier));
+        return new RunEventFlusher(new DriverRunner(driver, testClass, suiteNotifier, flushingExecutor), suiteNotifier);
     }
 
     private static Class<?> loadTestClass(ClassLoader testClassLoader, TestFile testFile) {
@@ -53,4 +56,29 @@ public class DriverFactory {
             throw new RuntimeException("Cannot load class: " + testFile, e);
         }
     }
+
+    @ThreadSafe
+    private static class RunEventFlusher implements Runnable {
+        private final Runnable command;
+        private final ThreadBoundSuiteNotifier suiteNotifier;
+
+        public RunEventFlusher(Runnable command, ThreadBoundSuiteNotifier suiteNotifier) {
+            this.command = command;
+            this.suiteNotifier = suiteNotifier;
+        }
+
+        @Override
+        public void run() {
+            try {
+                command.run();
+            } finally {
+                suiteNotifier.flushCurrentRun();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return command.toString();
+        }
+    }
 }
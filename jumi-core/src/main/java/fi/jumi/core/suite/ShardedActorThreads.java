@@ -0,0 +1,70 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.suite;
+
+import fi.jumi.actors.*;
+import fi.jumi.actors.workers.WorkerListener;
+import fi.jumi.core.util.Boilerplate;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.*;
+
+/**
+ * Spreads the per-test-file actors over multiple actor threads. All actors of one test file must be bound to the same
+ * actor thread, so that the events of a test file (and thus of each of its runs) are processed in order.
+ */
+@NotThreadSafe
+public class ShardedActorThreads {
+
+    private final List<ActorThread> actorThreads;
+    private int next = 0;
+
+    public ShardedActorThreads(List<ActorThread> actorThreads) {
+        if (actorThreads.isEmpty()) {
+            throw new IllegalArgumentException("at least one actor thread is required");
+        }
+        this.actorThreads = new ArrayList<>(actorThreads);
+    }
+
+    public ActorThread nextActorThread() {
+        ActorThread actorThread = actorThreads.get(next);
+        next = (next + 1) % actorThreads.size();
+        return actorThread;
+    }
+
+    /**
+     * Returns an actor which, before calling the target, passes through every actor thread in turn, so that the target
+     * is called only after all messages which were sent to those actor threads before it have been processed.
+     */
+    public ActorRef<WorkerListener> afterPendingMessages(WorkerListener target) {
+        WorkerListener step = target;
+        ActorRef<WorkerListener> first = null;
+        for (int i = actorThreads.size() - 1; i >= 0; i--) {
+            first = actorThreads.get(i).bindActor(WorkerListener.class, step);
+            step = new PassOn(first);
+        }
+        return first;
+    }
+
+
+    @NotThreadSafe
+    private static class PassOn implements WorkerListener {
+        private final ActorRef<WorkerListener> next;
+
+        public PassOn(ActorRef<WorkerListener> next) {
+            this.next = next;
+        }
+
+        @Override
+        public void onAllWorkersFinished() {
+            next.tell().onAllWorkersFinished();
+        }
+
+        @Override
+        public String toString() {
+            return Boilerplate.toString(getClass());
+        }
+    }
+}
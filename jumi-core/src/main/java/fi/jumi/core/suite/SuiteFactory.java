@@ -5,19 +5,23 @@
 package fi.jumi.core.suite;
 
 import fi.jumi.actors.*;
-import fi.jumi.actors.eventizers.ComposedEventizerProvider;
+import fi.jumi.actors.eventizers.*;
 import fi.jumi.actors.listeners.*;
 import fi.jumi.core.api.SuiteListener;
 import fi.jumi.core.config.*;
 import fi.jumi.core.discovery.*;
 import fi.jumi.core.drivers.*;
 import fi.jumi.core.events.*;
-import fi.jumi.core.runs.RunIdSequence;
+import fi.jumi.core.events.suiteListener.OnSuiteFinishedEvent;
+import fi.jumi.core.runs.*;
+import fi.jumi.core.stats.*;
 import fi.jumi.core.stdout.OutputCapturer;
 import fi.jumi.core.util.*;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import javax.management.*;
 import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
 import java.net.*;
 import java.nio.file.*;
 import java.util.*;
@@ -35,6 +39,8 @@ public class SuiteFactory implements AutoCloseable {
 
     private ExecutorService actorThreadPool;
     ExecutorService testThreadPool;
+    private ScheduledExecutorService runEventFlushTimer;
+    private ObjectName mbeanName;
     ClassLoader testClassLoader;
     private TestFileFinder testFileFinder;
     private CompositeDriverFinder driverFinder;
@@ -58,40 +64,66 @@ public class SuiteFactory implements AutoCloseable {
         actorThreadPool = Executors.newCachedThreadPool(new PrefixedThreadFactory("jumi-actor-"));
         testThreadPool = Executors.newFixedThreadPool(config.getTestThreadsCountCalculated(),
                 new ContextClassLoaderThreadFactory(testClassLoader, new PrefixedThreadFactory("jumi-test-")));
+        runEventFlushTimer = Executors.newSingleThreadScheduledExecutor(new PrefixedThreadFactory("jumi-timer-"));
     }
 
-    public void start(final SuiteListener suiteListener) {
+    public void start(SuiteListener suiteListener) {
+
+        // actors configuration
+        EventizerProvider eventizerProvider = new ComposedEventizerProvider(
+                new StartableEventizer(),
+                new RunnableEventizer(),
+                new WorkerListenerEventizer(),
+                new TestFileFinderListenerEventizer(),
+                new SuiteListenerEventizer(),
+                new RequestListenerEventizer(),
+                new RunListenerEventizer()
+        );
+        MessageListener actorsMessageListener = messageListener;
+
+        // actor statistics are readable over JMX while the suite runs, and are logged when the suite finishes
+        if (config.getLogActorStatistics()) {
+            ActorStatistics actorStatistics = new ActorStatistics(actorsMessageListener);
+            eventizerProvider = new TimestampingEventizerProvider(eventizerProvider);
+            actorsMessageListener = actorStatistics;
+            suiteListener = logWhenSuiteFinished(actorStatistics, suiteListener);
+            registerMBean(actorStatistics, ActorStatistics.OBJECT_NAME);
+        }
 
         // logging configuration
         FailureHandler failureHandler = new InternalErrorReportingFailureHandler(suiteListener, logOutput);
 
         // actor messages are already logged by the actors container, but the test thread pool must be hooked separately
-        Executor testExecutor = messageListener.getListenedExecutor(testThreadPool);
+        Executor testExecutor = actorsMessageListener.getListenedExecutor(testThreadPool);
 
-        // actors configuration
-        // TODO: not all of these eventizers might be needed - create a statistics gathering EventizerProvider
         actors = new MultiThreadedActors(
                 actorThreadPool,
-                new ComposedEventizerProvider(
-                        new StartableEventizer(),
-                        new RunnableEventizer(),
-                        new WorkerListenerEventizer(),
-                        new TestFileFinderListenerEventizer(),
-                        new SuiteListenerEventizer(),
-                        new RequestListenerEventizer(),
-                        new RunListenerEventizer()
-                ),
+                eventizerProvider,
                 failureHandler,
-                messageListener
+                actorsMessageListener
         );
 
+        // run event batching configuration
+        long maxLatency = config.getRunEventBatchLatency();
+        // some testing frameworks run tests also in their own threads
+        int concurrentRuns = 2 * config.getTestThreadsCountCalculated();
+        RunEventBatching runEventBatching = new RunEventBatching(config.getRunEventBatchSize(), maxLatency, concurrentRuns);
+        if (runEventBatching.isEnabled() && maxLatency > 0) {
+            runEventFlushTimer.scheduleWithFixedDelay(runEventBatching::flushStaleBuffers, maxLatency, maxLatency, TimeUnit.MILLISECONDS);
+        }
+
         // bootstrap the system
         ActorThread actorThread = actors.startActorThread();
+        List<ActorThread> testFileActorThreads = new ArrayList<>();
+        testFileActorThreads.add(actorThread);
+        for (int i = 1; i < config.getActorThreadsCount(); i++) {
+            testFileActorThreads.add(actors.startActorThread());
+        }
         ActorRef<TestFileFinderListener> suiteRunner = actorThread.bindActor(TestFileFinderListener.class,
                 new SuiteRunner(
-                        new DriverFactory(suiteListener, actorThread, outputCapturer, driverFinder, runIdSequence, testClassLoader),
+                        new DriverFactory(suiteListener, outputCapturer, driverFinder, runIdSequence, testClassLoader, runEventBatching),
                         suiteListener,
-                        actorThread,
+                        new ShardedActorThreads(testFileActorThreads),
                         testExecutor,
                         logOutput
                 ));
@@ -108,6 +140,41 @@ public class SuiteFactory implements AutoCloseable {
         if (testThreadPool != null) {
             testThreadPool.shutdownNow();
         }
+        if (runEventFlushTimer != null) {
+            runEventFlushTimer.shutdownNow();
+        }
+        if (mbeanName != null) {
+            unregisterMBean(mbeanName);
+        }
+    }
+
+    private SuiteListener logWhenSuiteFinished(ActorStatistics actorStatistics, SuiteListener suiteListener) {
+        return new SuiteListenerEventizer().newFrontend(event -> {
+            if (event instanceof OnSuiteFinishedEvent) {
+                logOutput.print(actorStatistics.getReport());
+            }
+            event.fireOn(suiteListener);
+        });
+    }
+
+    private void registerMBean(Object mbean, String name) {
+        try {
+            mbeanName = new ObjectName(name);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, mbeanName);
+        } catch (JMException e) {
+            mbeanName = null;
+            logOutput.println("Failed to register MBean " + name);
+            e.printStackTrace(logOutput);
+        }
+    }
+
+    private void unregisterMBean(ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            e.printStackTrace(logOutput);
+        }
+        mbeanName = null;
     }
 
     private static ClassLoader createClassLoader(List<URI> classpath) {
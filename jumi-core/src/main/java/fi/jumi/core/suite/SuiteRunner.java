@@ -1,17 +1,18 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
 package fi.jumi.core.suite;
 
-import fi.jumi.actors.*;
-import fi.jumi.actors.workers.*;
+import fi.jumi.actors.ActorThread;
+import fi.jumi.actors.workers.WorkerListener;
 import fi.jumi.core.api.*;
 import fi.jumi.core.discovery.TestFileFinderListener;
 import fi.jumi.core.util.Boilerplate;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.PrintStream;
+import java.util.*;
 import java.util.concurrent.Executor;
 
 @NotThreadSafe
@@ -19,44 +20,57 @@ public class SuiteRunner implements TestFileFinderListener {
 
     private final DriverFactory driverFactory;
     private final SuiteListener suiteListener;
-    private final ActorThread actorThread;
+    private final ShardedActorThreads actorThreads;
+    private final Executor testExecutor;
     private final PrintStream logOutput;
-    private final WorkerCounter suiteCompletionMonitor;
+    private final CompletionTracker suiteCompletion = new CompletionTracker();
+    private final Map<ActorThread, SuiteListener> suiteListenersByActorThread = new HashMap<>();
 
     // XXX: too many constructor parameters, could we group some of them together?
     public SuiteRunner(DriverFactory driverFactory,
                        SuiteListener suiteListener,
-                       ActorThread actorThread,
+                       ShardedActorThreads actorThreads,
                        Executor testExecutor,
                        PrintStream logOutput) {
         this.driverFactory = driverFactory;
         this.suiteListener = suiteListener;
-        this.actorThread = actorThread;
+        this.actorThreads = actorThreads;
+        this.testExecutor = testExecutor;
         this.logOutput = logOutput;
-        this.suiteCompletionMonitor = new WorkerCounter(testExecutor);
     }
 
     @Override
     public void onTestFileFound(TestFile testFile) {
         suiteListener.onTestFileFound(testFile);
 
-        @NotThreadSafe
-        class FireTestFileFinished implements WorkerListener {
-            // not lambda to show up better in actor logs
-            @Override
-            public void onAllWorkersFinished() {
-                suiteListener.onTestFileFinished(testFile);
-            }
+        // all actors of a test file must be in the same actor thread to keep its events in order
+        ActorThread actorThread = actorThreads.nextActorThread();
+        SuiteListener inActorThread = suiteListenerIn(actorThread);
+
+        CompletionTracker testFileCompletion = new CompletionTracker();
+        Executor testFileExecutor = new InternalErrorReportingExecutor(
+                new CompletionTrackingExecutor(testExecutor, testFileCompletion), suiteListener, logOutput);
+        // created before begin(), because if this throws, the suite would never be completed
+        Runnable driverRunner = driverFactory.createDriverRunner(testFile, actorThread, testFileExecutor);
+        suiteCompletion.begin();
+        testFileExecutor.execute(driverRunner);
+        testFileCompletion.afterAllFinished(() -> {
+            inActorThread.onTestFileFinished(testFile);
+            suiteCompletion.end();
+        });
+    }
 
-            @Override
-            public String toString() {
-                return Boilerplate.toString(getClass(), testFile);
-            }
+    /**
+     * Returns a proxy to the suite listener which goes through the actor thread, so that the events which
+     * are sent through it are after the events which the test file's actors have already sent.
+     */
+    private SuiteListener suiteListenerIn(ActorThread actorThread) {
+        SuiteListener listener = suiteListenersByActorThread.get(actorThread);
+        if (listener == null) {
+            listener = actorThread.bindActor(SuiteListener.class, suiteListener).tell();
+            suiteListenersByActorThread.put(actorThread, listener);
         }
-
-        WorkerCounter testFileCompletionMonitor = new WorkerCounter(new InternalErrorReportingExecutor(suiteCompletionMonitor, suiteListener, logOutput));
-        testFileCompletionMonitor.execute(driverFactory.createDriverRunner(testFile, testFileCompletionMonitor));
-        testFileCompletionMonitor.afterPreviousWorkersFinished(asActor(new FireTestFileFinished()));
+        return listener;
     }
 
     @Override
@@ -77,11 +91,8 @@ public class SuiteRunner implements TestFileFinderListener {
             }
         }
 
-        suiteCompletionMonitor.afterPreviousWorkersFinished(asActor(new FireSuiteFinished()));
-    }
-
-    private ActorRef<WorkerListener> asActor(WorkerListener rawActor) {
-        return actorThread.bindActor(WorkerListener.class, rawActor);
+        // the test files' actor threads may still have unprocessed events, which must be sent before this
+        suiteCompletion.afterAllFinished(actorThreads.afterPendingMessages(new FireSuiteFinished()).tell());
     }
 
     @Override
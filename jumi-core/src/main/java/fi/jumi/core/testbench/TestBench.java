@@ -1,4 +1,4 @@
-// Copyright © 2011-2013, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -11,14 +11,18 @@ import fi.jumi.core.api.SuiteListener;
 import fi.jumi.core.discovery.*;
 import fi.jumi.core.drivers.*;
 import fi.jumi.core.events.SuiteListenerEventizer;
+import fi.jumi.core.ipc.buffer.InMemoryByteBufferSequence;
+import fi.jumi.core.ipc.channel.*;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
 import fi.jumi.core.results.SuiteEventDemuxer;
-import fi.jumi.core.runs.RunIdSequence;
+import fi.jumi.core.runs.*;
 import fi.jumi.core.stdout.OutputCapturer;
 import fi.jumi.core.suite.*;
 import org.apache.commons.io.output.NullOutputStream;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.PrintStream;
+import java.util.Collections;
 import java.util.concurrent.Executor;
 
 @NotThreadSafe
@@ -52,6 +56,22 @@ public class TestBench {
     }
 
     public void run(SuiteListener suiteListener, Class<?>... testClasses) {
+        // The events go through the same encoding as the suite results file of the daemon, so that
+        // the tests will notice also events which cannot be encoded. Everything runs in this thread.
+        InMemoryByteBufferSequence segments = IpcChannel.inMemorySegments();
+        IpcWriter<SuiteListener> writer = IpcChannel.writer(segments, SuiteListenerEncoding::new);
+        ConsumingIpcReader<SuiteListener> reader = IpcChannel.consumingReader(segments, SuiteListenerEncoding::new);
+        SuiteListener encodedSuiteListener = new SuiteListenerEventizer().newFrontend(message -> {
+            writer.send(message);
+            readAll(reader, suiteListener);
+        });
+        runSuite(encodedSuiteListener, testClasses);
+        writer.close();
+        readAll(reader, suiteListener);
+        reader.close();
+    }
+
+    private void runSuite(SuiteListener suiteListener, Class<?>... testClasses) {
         SingleThreadedActors actors = new SingleThreadedActors(
                 new DynamicEventizerProvider(),
                 actorsFailureHandler,
@@ -65,9 +85,9 @@ public class TestBench {
 
         ActorRef<TestFileFinderListener> suiteRunner = actorThread.bindActor(TestFileFinderListener.class,
                 new SuiteRunner(
-                        new DriverFactory(suiteListener, actorThread, outputCapturer, driverFinder, runIdSequence, classLoader),
+                        new DriverFactory(suiteListener, outputCapturer, driverFinder, runIdSequence, classLoader, RunEventBatching.DISABLED),
                         suiteListener,
-                        actorThread,
+                        new ShardedActorThreads(Collections.singletonList(actorThread)),
                         testExecutor,
                         new PrintStream(new NullOutputStream())
                 ));
@@ -77,6 +97,11 @@ public class TestBench {
         actors.processEventsUntilIdle();
     }
 
+    private static void readAll(IpcReader<SuiteListener> reader, SuiteListener target) {
+        while (reader.poll(target) == PollResult.HAD_SOME_MESSAGES) {
+        }
+    }
+
 
     // setters for changing the defaults
 
@@ -4,6 +4,9 @@
 
 package fi.jumi.core.config;
 
+import fi.jumi.core.ipc.channel.WaitStrategies;
+import fi.jumi.core.ipc.dirs.IpcDirLocation;
+import fi.jumi.core.ipc.encoding.TextCompression;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
 
@@ -188,6 +191,141 @@ public class DaemonConfigurationTest {
     }
 
 
+    // collapseFrameworkFrames
+
+    @Test
+    public void collapsing_framework_frames_can_be_enabled() {
+        builder.setCollapseFrameworkFrames(true);
+
+        assertThat(configuration().getCollapseFrameworkFrames(), is(true));
+    }
+
+    @Test
+    public void collapsing_framework_frames_defaults_to_disabled() {
+        assertThat(configuration().getCollapseFrameworkFrames(), is(false));
+    }
+
+    // ipcSegmentMinSize, ipcSegmentMaxSize
+
+    @Test
+    public void ipc_segment_size_bounds_can_be_changed() {
+        builder.setIpcSegmentMinSize(100);
+        builder.setIpcSegmentMaxSize(200);
+
+        assertThat(configuration().getIpcSegmentMinSize(), is(100));
+        assertThat(configuration().getIpcSegmentMaxSize(), is(200));
+    }
+
+    @Test
+    public void ipc_segment_size_bounds_have_default_values() {
+        assertThat(configuration().getIpcSegmentMinSize(), is(greaterThan(0)));
+        assertThat(configuration().getIpcSegmentMaxSize(), is(greaterThanOrEqualTo(configuration().getIpcSegmentMinSize())));
+    }
+
+    // ipcWaitStrategy
+
+    @Test
+    public void ipc_wait_strategy_can_be_changed() {
+        builder.setIpcWaitStrategy(WaitStrategies.NOTIFICATION);
+
+        assertThat(configuration().getIpcWaitStrategy(), is(WaitStrategies.NOTIFICATION));
+    }
+
+    @Test
+    public void ipc_wait_strategy_defaults_to_progressive_sleep() {
+        assertThat(configuration().getIpcWaitStrategy(), is(WaitStrategies.PROGRESSIVE_SLEEP));
+    }
+
+    // ipcCompressionThreshold
+
+    @Test
+    public void ipc_compression_threshold_can_be_changed() {
+        builder.setIpcCompressionThreshold(1024);
+
+        assertThat(configuration().getIpcCompressionThreshold(), is(1024));
+    }
+
+    @Test
+    public void ipc_compression_defaults_to_disabled() {
+        assertThat(configuration().getIpcCompressionThreshold(), is(TextCompression.DISABLED));
+    }
+
+    // ipcDirLocation
+
+    @Test
+    public void ipc_dir_location_can_be_changed() {
+        builder.setIpcDirLocation(IpcDirLocation.JUMI_HOME);
+
+        assertThat(configuration().getIpcDirLocation(), is(IpcDirLocation.JUMI_HOME));
+    }
+
+    @Test
+    public void ipc_dir_location_defaults_to_auto_detection() {
+        assertThat(configuration().getIpcDirLocation(), is(IpcDirLocation.AUTO));
+    }
+
+    // resultsArchiveDir
+
+    @Test
+    public void results_archive_dir_can_be_changed() {
+        builder.setResultsArchiveDir(Paths.get("kept-results"));
+
+        assertThat(configuration().getResultsArchiveDir(), is(Paths.get("kept-results")));
+    }
+
+    @Test
+    public void results_archive_dir_defaults_to_none() {
+        assertThat(configuration().getResultsArchiveDir(), is(nullValue()));
+    }
+
+    // actorThreadsCount
+
+    @Test
+    public void actor_threads_count_can_be_changed() {
+        builder.setActorThreadsCount(4);
+
+        assertThat(configuration().getActorThreadsCount(), is(4));
+    }
+
+    @Test
+    public void actor_threads_count_defaults_to_one() {
+        assertThat(configuration().getActorThreadsCount(), is(1));
+    }
+
+    // runEventBatchSize, runEventBatchLatency
+
+    @Test
+    public void run_event_batching_can_be_changed() {
+        builder.setRunEventBatchSize(10);
+        builder.setRunEventBatchLatency(200);
+
+        DaemonConfiguration config = configuration();
+        assertThat(config.getRunEventBatchSize(), is(10));
+        assertThat(config.getRunEventBatchLatency(), is(200L));
+    }
+
+    @Test
+    public void run_event_batching_has_default_values() {
+        DaemonConfiguration config = configuration();
+        assertThat(config.getRunEventBatchSize(), is(64));
+        assertThat(config.getRunEventBatchLatency(), is(50L));
+    }
+
+    // logActorStatistics
+
+    @Test
+    public void logging_actor_statistics_can_be_enabled() {
+        builder.setLogActorStatistics(true);
+
+        assertThat(configuration().getLogActorStatistics(), is(true));
+    }
+
+    @Test
+    public void logging_actor_statistics_defaults_to_disabled() {
+        assertThat(configuration().getLogActorStatistics(), is(false));
+    }
+
+
     // helpers
 
     private DaemonConfiguration configuration() {
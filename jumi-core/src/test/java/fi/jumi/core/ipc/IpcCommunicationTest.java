@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -72,7 +72,7 @@ public class IpcCommunicationTest {
             @Override
             public void shutdown() {
             }
-        }));
+        }, new DaemonConfiguration(), System.out));
 
         IpcCommandSender sender = new IpcCommandSender(commandDir, executor);
         Future<Path> suiteResults = sender.runTests(expectedSuiteConfiguration);
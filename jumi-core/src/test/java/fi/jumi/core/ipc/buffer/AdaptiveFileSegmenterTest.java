@@ -0,0 +1,97 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import org.junit.Test;
+
+import java.nio.file.Paths;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class AdaptiveFileSegmenterTest {
+
+    private static final long TARGET_FILL_TIME = 100;
+
+    private long currentTime = 0;
+
+    private final AdaptiveFileSegmenter segmenter = new AdaptiveFileSegmenter(Paths.get("base"), 10, 80, TARGET_FILL_TIME, () -> currentTime);
+
+    @Test
+    public void starts_at_min_size() {
+        assertThat(segmenter.sizeOf(0), is(10));
+    }
+
+    @Test
+    public void grows_when_segments_are_filled_faster_than_the_target_fill_time() {
+        assertThat(sizeAfterFilling(0, 0), is(10));
+        assertThat(sizeAfterFilling(TARGET_FILL_TIME / 2, 1), is(20));
+        assertThat(sizeAfterFilling(TARGET_FILL_TIME / 2, 2), is(40));
+        assertThat(sizeAfterFilling(TARGET_FILL_TIME / 2, 3), is(80));
+        assertThat("never goes over max size", sizeAfterFilling(TARGET_FILL_TIME / 2, 4), is(80));
+    }
+
+    @Test
+    public void shrinks_when_segments_are_filled_much_slower_than_the_target_fill_time() {
+        sizeAfterFilling(0, 0);
+        sizeAfterFilling(0, 1);
+        assertThat(sizeAfterFilling(0, 2), is(40));
+
+        assertThat(sizeAfterFilling(TARGET_FILL_TIME * 10, 3), is(20));
+        assertThat(sizeAfterFilling(TARGET_FILL_TIME * 10, 4), is(10));
+        assertThat("never goes under min size", sizeAfterFilling(TARGET_FILL_TIME * 10, 5), is(10));
+    }
+
+    @Test
+    public void keeps_the_size_when_segments_are_filled_at_about_the_target_fill_time() {
+        sizeAfterFilling(0, 0);
+        assertThat(sizeAfterFilling(0, 1), is(20));
+
+        assertThat(sizeAfterFilling(TARGET_FILL_TIME * 2, 2), is(20));
+    }
+
+    @Test
+    public void the_size_of_a_segment_does_not_change_after_it_has_been_decided() {
+        sizeAfterFilling(0, 0);
+        int size = sizeAfterFilling(0, 1);
+
+        assertThat(sizeAfterFilling(TARGET_FILL_TIME * 10, 1), is(size));
+    }
+
+    @Test
+    public void the_time_before_the_writer_starts_writing_to_a_segment_is_not_counted_as_fill_time() {
+        // preallocated long before they are needed
+        assertThat(segmenter.sizeOf(0), is(10));
+        assertThat(segmenter.sizeOf(1), is(10));
+        currentTime += TARGET_FILL_TIME * 10;
+
+        segmenter.segmentStarted(0);
+        currentTime += TARGET_FILL_TIME / 2;
+        segmenter.segmentStarted(1);
+
+        assertThat(segmenter.sizeOf(2), is(20));
+    }
+
+    @Test
+    public void keeps_the_size_when_no_segment_has_been_filled_since_the_previous_decision() {
+        sizeAfterFilling(0, 0);
+        assertThat(sizeAfterFilling(0, 1), is(20));
+
+        assertThat(segmenter.sizeOf(2), is(20));
+        assertThat(segmenter.sizeOf(3), is(20));
+    }
+
+    /**
+     * Simulates the writer filling the previous segment in the elapsed time and then needing the next segment.
+     */
+    private int sizeAfterFilling(long elapsedTime, int segment) {
+        if (segment > 0) {
+            segmenter.segmentStarted(segment - 1);
+        }
+        currentTime += elapsedTime;
+        segmenter.segmentStarted(segment);
+        return segmenter.sizeOf(segment);
+    }
+}
@@ -35,4 +35,9 @@ public class AllocatedByteBufferSequence implements ByteBufferSequence {
         }
         return segments.get(index).duplicate();
     }
+
+    @Override
+    public void release(int index, ByteBuffer buffer) {
+        segments.set(index, null);
+    }
 }
@@ -32,6 +32,10 @@ public class FixedByteBufferSequence implements ByteBufferSequence {
         return segments.get(index).duplicate();
     }
 
+    @Override
+    public void release(int index, ByteBuffer buffer) {
+    }
+
     public ByteBuffer combinedBuffer() {
         int capacity = 0;
         for (ByteBuffer segment : segments) {
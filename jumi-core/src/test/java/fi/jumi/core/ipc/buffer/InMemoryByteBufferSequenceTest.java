@@ -0,0 +1,72 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class InMemoryByteBufferSequenceTest extends ByteBufferSequenceContract {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final InMemoryByteBufferSequence writer = new InMemoryByteBufferSequence(new FileSegmenter(Paths.get("dummy"), 10, 40));
+    private final InMemoryByteBufferSequence reader = writer.recyclingReleasedSegments();
+
+    @Override
+    protected ByteBufferSequence newByteBufferSequence() {
+        return new InMemoryByteBufferSequence(new FileSegmenter(Paths.get("dummy"), 10, 10));
+    }
+
+    @Test
+    public void segments_grow_like_files() {
+        assertThat(writer.get(0).capacity(), is(10));
+        assertThat(writer.get(1).capacity(), is(20));
+        assertThat(writer.get(2).capacity(), is(40));
+        assertThat(writer.get(3).capacity(), is(40));
+    }
+
+    @Test
+    public void the_writer_and_reader_share_the_segments() {
+        writer.get(0).put(0, (byte) 10);
+
+        assertThat(reader.get(0).get(0), is((byte) 10));
+    }
+
+    @Test
+    public void segments_released_by_the_reader_are_reused_for_new_segments_of_the_same_size() {
+        ByteBuffer segment2 = writer.get(2);
+        segment2.put(0, (byte) 10);
+        reader.release(2, reader.get(2));
+
+        ByteBuffer segment3 = writer.get(3);
+        assertThat("reused the same memory", segment3.array() == segment2.array(), is(true));
+        assertThat("cleared the old data", segment3.get(0), is((byte) 0));
+    }
+
+    @Test
+    public void segments_released_by_the_writer_are_not_reused() {
+        ByteBuffer segment2 = writer.get(2);
+        writer.release(2, segment2);
+
+        assertThat(writer.get(3).array() == segment2.array(), is(false));
+        assertThat(reader.get(2).array() == segment2.array(), is(true));
+    }
+
+    @Test
+    public void recycled_segments_cannot_be_accessed() {
+        reader.release(0, reader.get(0));
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("segment 0 has already been recycled");
+        writer.get(0);
+    }
+}
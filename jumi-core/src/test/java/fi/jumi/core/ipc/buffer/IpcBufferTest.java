@@ -8,6 +8,8 @@ import fi.jumi.core.util.TestableRandom;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
 
+import java.nio.ByteBuffer;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.*;
@@ -57,13 +59,50 @@ public class IpcBufferTest {
         verify(sequence, times(1)).get(1);
     }
 
+    @Test
+    public void finds_segments_of_different_sizes_in_any_order() {
+        buffer = new IpcBuffer(new FixedByteBufferSequence(1, 2, 3, 4, 5, 6));
+        for (int i = 0; i < 21; i++) {
+            buffer.setByte(i, (byte) i);
+        }
+
+        for (int i = 20; i >= 0; i--) {
+            assertThat("byte at index " + i, buffer.getByte(i), is((byte) i));
+        }
+        for (int i = 0; i < 21; i += 5) {
+            assertThat("byte at index " + i, buffer.getByte(i), is((byte) i));
+        }
+    }
+
+    @Test
+    public void supports_positions_beyond_2_GB() {
+        ByteBuffer segment = ByteBuffer.allocate(1024 * 1024);
+        buffer = new IpcBuffer(new ByteBufferSequence() {
+            @Override
+            public ByteBuffer get(int index) {
+                return segment.duplicate(); // all segments are backed by the same memory, to save memory
+            }
+
+            @Override
+            public void release(int index, ByteBuffer buffer) {
+            }
+        });
+        long index = 3L * 1024 * 1024 * 1024 + 10;
+
+        buffer.position(index);
+        buffer.writeLong(42L);
+
+        assertThat(buffer.position(), is(index + 8));
+        assertThat(buffer.getLong(index), is(42L));
+    }
+
     @Test
     public void position_can_be_changed() {
         buffer = new IpcBuffer(new FixedByteBufferSequence(10));
-        assertThat(buffer.position(), is(0));
+        assertThat(buffer.position(), is(0L));
 
         buffer.position(5);
-        assertThat(buffer.position(), is(5));
+        assertThat(buffer.position(), is(5L));
     }
 
     @Test
@@ -90,6 +129,58 @@ public class IpcBufferTest {
         buffer.setByte(-1, (byte) 0);
     }
 
+    @Test
+    public void releases_the_segments_before_the_specified_index() {
+        AllocatedByteBufferSequence sequence = spy(new AllocatedByteBufferSequence(10));
+        buffer = new IpcBuffer(sequence);
+        buffer.setByte(25, (byte) 0);
+
+        buffer.releaseSegmentsBefore(20);
+
+        verify(sequence, times(1)).release(eq(0), any(ByteBuffer.class));
+        verify(sequence, times(1)).release(eq(1), any(ByteBuffer.class));
+        verify(sequence, never()).release(eq(2), any(ByteBuffer.class));
+    }
+
+    @Test
+    public void does_not_release_the_current_segment() {
+        AllocatedByteBufferSequence sequence = spy(new AllocatedByteBufferSequence(10));
+        buffer = new IpcBuffer(sequence);
+        buffer.setByte(5, (byte) 0);
+
+        buffer.releaseSegmentsBefore(20);
+
+        verify(sequence, never()).release(anyInt(), any(ByteBuffer.class));
+        verify(sequence, never()).get(1);
+    }
+
+    @Test
+    public void can_release_all_segments_including_the_current_segment() {
+        AllocatedByteBufferSequence sequence = spy(new AllocatedByteBufferSequence(10));
+        buffer = new IpcBuffer(sequence);
+        buffer.setByte(15, (byte) 0);
+        buffer.releaseSegmentsBefore(10);
+
+        buffer.releaseAllSegments();
+        buffer.releaseAllSegments();
+
+        verify(sequence, times(1)).release(eq(0), any(ByteBuffer.class));
+        verify(sequence, times(1)).release(eq(1), any(ByteBuffer.class));
+    }
+
+    @Test
+    public void cannot_access_released_segments() {
+        buffer = new IpcBuffer(new AllocatedByteBufferSequence(10));
+        buffer.setByte(15, (byte) 0);
+        buffer.releaseSegmentsBefore(15);
+
+        buffer.getByte(10); // can still access the later segments
+
+        thrown.expect(IndexOutOfBoundsException.class);
+        thrown.expectMessage("index 9 is in a released segment; the oldest available index is 10");
+        buffer.getByte(9);
+    }
+
     @Test
     public void test_traversing_forward_and_backward() {
         final int segmentCapacity = 2;
@@ -194,6 +285,81 @@ public class IpcBufferTest {
     }
 
 
+    // bulk operations
+
+    @Test
+    public void absolute_bytes_spanning_many_segments() {
+        buffer = new IpcBuffer(new AllocatedByteBufferSequence(3));
+        byte[] expected = random.nextBytes(10);
+
+        assertReturnedItself(buffer.setBytes(2, expected, 0, expected.length));
+
+        byte[] actual = new byte[expected.length];
+        assertReturnedItself(buffer.getBytes(2, actual, 0, actual.length));
+        assertThat(actual, is(expected));
+        for (int i = 0; i < expected.length; i++) {
+            assertThat("byte at index " + (2 + i), buffer.getByte(2 + i), is(expected[i]));
+        }
+    }
+
+    @Test
+    public void absolute_bytes_honor_the_offset_and_length() {
+        buffer = new IpcBuffer(new AllocatedByteBufferSequence(3));
+
+        buffer.setBytes(0, new byte[]{1, 2, 3, 4, 5}, 1, 3);
+
+        byte[] actual = new byte[]{9, 9, 9, 9, 9};
+        buffer.getBytes(0, actual, 2, 3);
+        assertThat(actual, is(new byte[]{9, 9, 2, 3, 4}));
+    }
+
+    @Test
+    public void absolute_bytes_from_and_to_byte_buffers() {
+        buffer = new IpcBuffer(new AllocatedByteBufferSequence(4));
+        byte[] expected = random.nextBytes(9);
+        ByteBuffer src = ByteBuffer.wrap(expected);
+
+        buffer.setBytes(1, src);
+        assertThat("src position", src.position(), is(src.limit()));
+
+        ByteBuffer dst = ByteBuffer.allocate(expected.length);
+        buffer.getBytes(1, dst);
+        assertThat("dst position", dst.position(), is(dst.limit()));
+        assertThat(dst.array(), is(expected));
+    }
+
+    @Test
+    public void relative_bytes() {
+        buffer = new IpcBuffer(new AllocatedByteBufferSequence(4));
+        byte[] expected1 = random.nextBytes(5);
+        byte[] expected2 = random.nextBytes(6);
+
+        assertReturnedItself(buffer.writeBytes(expected1, 0, expected1.length));
+        assertReturnedItself(buffer.writeBytes(ByteBuffer.wrap(expected2)));
+        assertThat(buffer.position(), is((long) expected1.length + expected2.length));
+
+        buffer.position(0);
+        byte[] actual1 = new byte[expected1.length];
+        ByteBuffer actual2 = ByteBuffer.allocate(expected2.length);
+        assertReturnedItself(buffer.readBytes(actual1, 0, actual1.length));
+        assertReturnedItself(buffer.readBytes(actual2));
+        assertThat(buffer.position(), is((long) expected1.length + expected2.length));
+        assertThat(actual1, is(expected1));
+        assertThat(actual2.array(), is(expected2));
+    }
+
+    @Test
+    public void bulk_operations_can_be_mixed_with_primitive_operations() {
+        buffer = new IpcBuffer(new AllocatedByteBufferSequence(4));
+        buffer.setInt(0, 0x01020304);
+
+        buffer.setBytes(1, new byte[]{5, 6}, 0, 2);
+        buffer.getBytes(2, new byte[2], 0, 2);
+
+        assertThat(buffer.getInt(0), is(0x01050604));
+    }
+
+
     // randomized testing
 
     private void testAbsolute(int sizeInBits, AbsoluteWriter writer, AbsoluteReader reader) {
@@ -1,4 +1,4 @@
-// Copyright © 2011-2013, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -13,6 +13,7 @@ import java.nio.file.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.fail;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 
 public class MappedByteBufferSequenceTest extends ByteBufferSequenceContract {
@@ -75,7 +76,9 @@ public class MappedByteBufferSequenceTest extends ByteBufferSequenceContract {
 
     @Test
     public void read_only_buffers_cannot_be_modified() {
-        MappedByteBufferSequence sequence = MappedByteBufferSequence.readOnly(new FileSegmenter(getBasePath(), 10, 10));
+        FileSegmenter segmenter = new FileSegmenter(getBasePath(), 10, 10);
+        MappedByteBufferSequence.readWrite(segmenter).get(0);
+        MappedByteBufferSequence sequence = MappedByteBufferSequence.readOnly(segmenter);
         ByteBuffer buffer = sequence.get(0);
 
         buffer.get(); // can read, doesn't throw anything
@@ -83,4 +86,64 @@ public class MappedByteBufferSequenceTest extends ByteBufferSequenceContract {
         thrown.expect(ReadOnlyBufferException.class);
         buffer.put((byte) 1);
     }
+
+    @Test
+    public void read_only_sequences_do_not_create_new_segments() {
+        FileSegmenter segmenter = new FileSegmenter(getBasePath(), 10, 10);
+        MappedByteBufferSequence sequence = MappedByteBufferSequence.readOnly(segmenter);
+
+        try {
+            sequence.get(0);
+            fail("should have thrown an exception");
+        } catch (RuntimeException e) {
+            assertThat(e.getCause(), is(instanceOf(NoSuchFileException.class)));
+        }
+        assertThat(Files.exists(segmenter.pathOf(0)), is(false));
+    }
+
+    @Test
+    public void released_segments_are_kept_on_disk_by_default() {
+        FileSegmenter segmenter = new FileSegmenter(getBasePath(), 10, 10);
+        MappedByteBufferSequence sequence = MappedByteBufferSequence.readWrite(segmenter);
+
+        sequence.release(0, sequence.get(0));
+
+        assertThat(Files.exists(segmenter.pathOf(0)), is(true));
+    }
+
+    @Test
+    public void can_delete_the_released_segments_from_disk() {
+        FileSegmenter segmenter = new FileSegmenter(getBasePath(), 10, 10);
+        MappedByteBufferSequence sequence = MappedByteBufferSequence.readWrite(segmenter).deletingReleasedSegments();
+        ByteBuffer segment0 = sequence.get(0);
+        sequence.get(1);
+
+        sequence.release(0, segment0);
+
+        assertThat("released segment", Files.exists(segmenter.pathOf(0)), is(false));
+        assertThat("unreleased segment", Files.exists(segmenter.pathOf(1)), is(true));
+    }
+
+    @Test
+    public void released_segments_stay_mapped_until_garbage_collected_by_default() {
+        MappedByteBufferSequence sequence = MappedByteBufferSequence.readWrite(new FileSegmenter(getBasePath(), 10, 10));
+        ByteBuffer segment = sequence.get(0);
+
+        sequence.release(0, segment);
+
+        segment.put(0, (byte) 42); // would crash the JVM if it had been unmapped
+        assertThat(segment.get(0), is((byte) 42));
+    }
+
+    @Test
+    public void unmaps_only_the_buffers_which_it_mapped_itself() {
+        MappedByteBufferSequence sequence = MappedByteBufferSequence.readWrite(new FileSegmenter(getBasePath(), 10, 10))
+                .unmappingReleasedSegments();
+        ByteBuffer segment = sequence.get(0);
+
+        sequence.release(0, segment.duplicate());
+
+        segment.put(0, (byte) 42); // would crash the JVM if it had been unmapped
+        assertThat(segment.get(0), is((byte) 42));
+    }
 }
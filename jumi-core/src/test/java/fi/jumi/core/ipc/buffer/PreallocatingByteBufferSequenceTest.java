@@ -0,0 +1,86 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.buffer;
+
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.mockito.Mockito.*;
+
+public class PreallocatingByteBufferSequenceTest extends ByteBufferSequenceContract {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+
+    @Override
+    protected ByteBufferSequence newByteBufferSequence() {
+        return new PreallocatingByteBufferSequence(new AllocatedByteBufferSequence(10), Runnable::run);
+    }
+
+    @Test
+    public void prepares_the_next_segment_in_the_background() {
+        AllocatedByteBufferSequence backing = spy(new AllocatedByteBufferSequence(10));
+        PreallocatingByteBufferSequence sequence = new PreallocatingByteBufferSequence(backing, backgroundTasks::add);
+
+        sequence.get(0);
+        verify(backing, times(1)).get(0);
+        verify(backing, never()).get(1);
+
+        runBackgroundTasks();
+        verify(backing, times(1)).get(1);
+
+        sequence.get(1);
+        verify(backing, times(1)).get(1);
+    }
+
+    @Test
+    public void gets_the_segment_on_demand_if_the_background_executor_is_not_available() {
+        AllocatedByteBufferSequence backing = spy(new AllocatedByteBufferSequence(10));
+        PreallocatingByteBufferSequence sequence = new PreallocatingByteBufferSequence(backing, command -> {
+            throw new RejectedExecutionException();
+        });
+
+        sequence.get(0);
+        sequence.get(1);
+
+        verify(backing, times(1)).get(0);
+        verify(backing, times(1)).get(1);
+    }
+
+    @Test
+    public void failures_in_the_background_are_rethrown_to_the_caller() {
+        PreallocatingByteBufferSequence sequence = new PreallocatingByteBufferSequence(new FixedByteBufferSequence(10), backgroundTasks::add);
+        sequence.get(0);
+        runBackgroundTasks();
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("tried to get segment at index 1, but there were only 1 segments");
+        sequence.get(1);
+    }
+
+    @Test
+    public void releases_the_segments_of_the_backing_sequence() {
+        ByteBufferSequence backing = mock(ByteBufferSequence.class);
+        ByteBuffer buffer = ByteBuffer.allocate(1);
+        PreallocatingByteBufferSequence sequence = new PreallocatingByteBufferSequence(backing, backgroundTasks::add);
+
+        sequence.release(3, buffer);
+
+        verify(backing).release(3, buffer);
+    }
+
+    private void runBackgroundTasks() {
+        for (Runnable task : backgroundTasks) {
+            task.run();
+        }
+        backgroundTasks.clear();
+    }
+}
@@ -9,6 +9,7 @@ import fi.jumi.actors.queue.MessageSender;
 import fi.jumi.core.Timeouts;
 import fi.jumi.core.api.*;
 import fi.jumi.core.events.SuiteListenerEventizer;
+import fi.jumi.core.events.suiteListener.*;
 import fi.jumi.core.ipc.TestUtil;
 import fi.jumi.core.ipc.buffer.*;
 import fi.jumi.core.ipc.encoding.*;
@@ -16,14 +17,17 @@ import fi.jumi.core.runs.RunIdSequence;
 import fi.jumi.core.util.SpyListener;
 import org.junit.*;
 import org.junit.rules.*;
+import org.mockito.InOrder;
 
+import java.nio.ByteBuffer;
 import java.nio.file.*;
+import java.util.*;
 import java.util.concurrent.locks.LockSupport;
 
 import static fi.jumi.core.util.ConcurrencyUtil.runConcurrently;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.*;
 
 public class IpcProtocolTest {
 
@@ -61,6 +65,53 @@ public class IpcProtocolTest {
         expectations.verify();
     }
 
+    @Test
+    public void test_concurrent_producer_and_consumer_in_memory() throws Exception {
+        InMemoryByteBufferSequence segments = new InMemoryByteBufferSequence(new FileSegmenter(Paths.get("dummy"), 16, 64));
+        SpyListener<SuiteListener> expectations = new SpyListener<>(SuiteListener.class);
+        lotsOfEventsForConcurrencyTesting(expectations.getListener(), 0);
+        expectations.replay();
+
+        Runnable producer = () -> {
+            IpcWriter<SuiteListener> writer = IpcChannel.writer(segments, SuiteListenerEncoding::new);
+            lotsOfEventsForConcurrencyTesting(sendTo(writer), 1);
+            writer.close();
+        };
+        Runnable consumer = () -> {
+            try (ConsumingIpcReader<SuiteListener> reader = IpcChannel.consumingReader(segments, SuiteListenerEncoding::new)) {
+                IpcReaders.decodeAll(reader, expectations.getListener());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        runConcurrently(producer, consumer);
+
+        expectations.verify();
+    }
+
+    @Test
+    public void consuming_reader_deletes_the_last_file_only_when_it_is_closed() throws Exception {
+        FileSegmenter segmenter = new FileSegmenter(tempDir.getRoot().toPath().resolve("mmf"), 16, 16);
+        IpcWriter<SuiteListener> writer = IpcChannel.writer(segmenter, SuiteListenerEncoding::new);
+        SuiteListener sender = sendTo(writer);
+        for (int i = 0; i < 10; i++) {
+            sender.onPrintedOut(new RunId(1), "output " + i);
+        }
+        writer.close();
+        int lastSegment = 0;
+        while (Files.exists(segmenter.pathOf(lastSegment + 1))) {
+            lastSegment++;
+        }
+
+        ConsumingIpcReader<SuiteListener> reader = IpcChannel.consumingReader(segmenter, SuiteListenerEncoding::new);
+        IpcReaders.decodeAll(reader, new NullSuiteListener());
+
+        assertThat("earlier file", Files.exists(segmenter.pathOf(0)), is(false));
+        assertThat("last file before close", Files.exists(segmenter.pathOf(lastSegment)), is(true));
+        reader.close();
+        assertThat("last file after close", Files.exists(segmenter.pathOf(lastSegment)), is(false));
+    }
+
     private static void lotsOfEventsForConcurrencyTesting(SuiteListener listener, int nanosToPark) {
         TestFile testFile = TestFile.fromClassName("DummyTest");
         RunIdSequence runIds = new RunIdSequence();
@@ -130,6 +181,153 @@ public class IpcProtocolTest {
     }
 
 
+    // batches
+
+    @Test
+    public void a_batch_of_messages_is_published_with_one_call() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        IpcProtocol<SuiteListener> writer = newIpcProtocol(buffer);
+        writer.start();
+        writer.sendAll(Arrays.asList(
+                new OnSuiteStartedEvent(),
+                new OnAllTestFilesFoundEvent(),
+                new OnSuiteFinishedEvent()));
+        writer.close();
+
+        buffer.position(0);
+        IpcProtocol<SuiteListener> reader = newIpcProtocol(buffer);
+        SuiteListener target = mock(SuiteListener.class);
+        reader.poll(target); // header
+        reader.poll(target);
+
+        InOrder inOrder = inOrder(target);
+        inOrder.verify(target).onSuiteStarted();
+        inOrder.verify(target).onAllTestFilesFound();
+        inOrder.verify(target).onSuiteFinished();
+    }
+
+    @Test
+    public void a_batch_is_not_visible_to_the_reader_until_all_of_its_messages_have_been_written() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        IpcProtocol<SuiteListener> writer = newIpcProtocol(buffer);
+        writer.start();
+        try {
+            writer.sendAll(Arrays.asList(
+                    new OnSuiteStartedEvent(),
+                    listener -> {
+                        throw new IllegalStateException("failed to encode");
+                    }));
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        buffer.position(0);
+        IpcProtocol<SuiteListener> reader = newIpcProtocol(buffer);
+        SuiteListener target = mock(SuiteListener.class);
+        reader.poll(target); // header
+
+        assertThat(reader.poll(target), is(PollResult.NO_NEW_MESSAGES));
+        verifyZeroInteractions(target);
+    }
+
+    @Test
+    public void poll_decodes_all_messages_which_have_been_published() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        IpcProtocol<SuiteListener> writer = newIpcProtocol(buffer);
+        writer.start();
+        sendTo(writer).onSuiteStarted();
+        sendTo(writer).onAllTestFilesFound();
+
+        buffer.position(0);
+        IpcProtocol<SuiteListener> reader = newIpcProtocol(buffer);
+        SuiteListener target = mock(SuiteListener.class);
+        reader.poll(target); // header
+
+        assertThat(reader.poll(target), is(PollResult.HAD_SOME_MESSAGES));
+        verify(target).onSuiteStarted();
+        verify(target).onAllTestFilesFound();
+        assertThat(reader.poll(target), is(PollResult.NO_NEW_MESSAGES));
+    }
+
+    @Test
+    public void when_messages_are_followed_by_the_end_of_stream_then_the_end_is_reported_on_the_next_poll() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        IpcProtocol<SuiteListener> writer = newIpcProtocol(buffer);
+        writer.start();
+        sendTo(writer).onSuiteStarted();
+        sendTo(writer).onSuiteFinished();
+        writer.close();
+
+        buffer.position(0);
+        IpcProtocol<SuiteListener> reader = newIpcProtocol(buffer);
+        SuiteListener target = mock(SuiteListener.class);
+        reader.poll(target); // header
+
+        assertThat(reader.poll(target), is(PollResult.HAD_SOME_MESSAGES));
+        verify(target).onSuiteStarted();
+        verify(target).onSuiteFinished();
+        assertThat(reader.poll(target), is(PollResult.END_OF_STREAM));
+        assertThat("stays at the end", reader.poll(target), is(PollResult.END_OF_STREAM));
+    }
+
+    @Test
+    public void the_header_is_polled_alone_without_the_messages_after_it() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        IpcProtocol<SuiteListener> writer = newIpcProtocol(buffer);
+        writer.start();
+        sendTo(writer).onSuiteStarted();
+
+        buffer.position(0);
+        IpcProtocol<SuiteListener> reader = newIpcProtocol(buffer);
+        SuiteListener target = mock(SuiteListener.class);
+
+        assertThat("header", reader.poll(target), is(PollResult.HAD_SOME_MESSAGES));
+        verifyZeroInteractions(target);
+    }
+
+
+    // forward-only mode
+
+    @Test
+    public void in_forward_only_mode_the_segments_are_released_after_they_have_been_written_and_read() throws Exception {
+        ByteBufferSequence sequence = spy(new FixedByteBufferSequence(50, 50, 50, 50));
+
+        IpcProtocol<SuiteListener> writer = new IpcProtocol<>(new IpcBuffer(sequence), SuiteListenerEncoding::new, true);
+        writer.start();
+        for (int i = 0; i < 50; i++) {
+            sendTo(writer).onSuiteStarted();
+        }
+        writer.close();
+
+        verify(sequence, times(1)).release(eq(0), any(ByteBuffer.class));
+        verify(sequence, times(1)).release(eq(1), any(ByteBuffer.class));
+        verify(sequence, times(1)).release(eq(2), any(ByteBuffer.class));
+        verify(sequence, never()).release(eq(3), any(ByteBuffer.class));
+
+        IpcProtocol<SuiteListener> reader = new IpcProtocol<>(new IpcBuffer(sequence), SuiteListenerEncoding::new, true);
+        IpcReaders.decodeAll(reader, mock(SuiteListener.class));
+
+        verify(sequence, times(2)).release(eq(0), any(ByteBuffer.class));
+        verify(sequence, times(2)).release(eq(1), any(ByteBuffer.class));
+        verify(sequence, times(2)).release(eq(2), any(ByteBuffer.class));
+        verify(sequence, never()).release(eq(3), any(ByteBuffer.class));
+    }
+
+    @Test
+    public void by_default_the_segments_are_not_released() throws Exception {
+        ByteBufferSequence sequence = spy(new FixedByteBufferSequence(50, 50, 50, 50));
+
+        IpcProtocol<SuiteListener> writer = newIpcProtocol(new IpcBuffer(sequence));
+        writer.start();
+        for (int i = 0; i < 50; i++) {
+            sendTo(writer).onSuiteStarted();
+        }
+        writer.close();
+
+        verify(sequence, never()).release(anyInt(), any(ByteBuffer.class));
+    }
+
+
     // headers
 
     @Test
@@ -7,6 +7,9 @@ package fi.jumi.core.ipc.channel;
 import org.junit.*;
 import org.junit.rules.ExpectedException;
 
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
 public class IpcReadersTest {
 
     @Rule
@@ -24,6 +27,33 @@ public class IpcReadersTest {
         IpcReaders.decodeAll(reader, target);
     }
 
+    @Test
+    public void closes_the_wait_strategy_at_end_of_stream() throws Exception {
+        IpcReader<Consumer<String>> reader = target -> PollResult.END_OF_STREAM;
+        WaitStrategy waitStrategy = mock(WaitStrategy.class);
+
+        IpcReaders.decodeAll(reader, s -> {
+        }, waitStrategy);
+
+        verify(waitStrategy).close();
+    }
+
+    @Test
+    public void failure_to_close_the_wait_strategy_does_not_hide_the_failure_to_decode() throws Exception {
+        IllegalStateException decodeFailure = new IllegalStateException("decode failure");
+        IllegalStateException closeFailure = new IllegalStateException("close failure");
+        IpcReader<Consumer<String>> reader = target -> {
+            throw decodeFailure;
+        };
+        WaitStrategy waitStrategy = mock(WaitStrategy.class);
+        doThrow(closeFailure).when(waitStrategy).close();
+
+        thrown.expect(is(decodeFailure));
+        thrown.expect(hasProperty("suppressed", arrayContaining(closeFailure)));
+        IpcReaders.decodeAll(reader, s -> {
+        }, waitStrategy);
+    }
+
     private interface Consumer<T> {
         void accept(T t);
     }
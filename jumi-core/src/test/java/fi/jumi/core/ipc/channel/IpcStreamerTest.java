@@ -0,0 +1,101 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import fi.jumi.core.Timeouts;
+import fi.jumi.core.api.*;
+import fi.jumi.core.events.SuiteListenerEventizer;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
+import org.junit.*;
+import org.junit.rules.*;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class IpcStreamerTest {
+
+    private static final RunId RUN_ID = new RunId(1);
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Rule
+    public final Timeout timeout = Timeouts.forUnitTest();
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private Path mmf;
+    private IpcStreamer<SuiteListener> streamer;
+
+    @Before
+    public void setup() {
+        mmf = tempDir.getRoot().toPath().resolve("mmf");
+        streamer = new IpcStreamer<>(mmf, SuiteListenerEncoding::new, executor);
+    }
+
+    @After
+    public void tearDown() {
+        streamer.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void every_reader_receives_all_messages_from_the_beginning() throws Exception {
+        PrintedTexts early = new PrintedTexts();
+        PrintedTexts late = new PrintedTexts();
+        IpcWriter<SuiteListener> writer = IpcChannel.writer(mmf, SuiteListenerEncoding::new);
+        SuiteListener results = new SuiteListenerEventizer().newFrontend(writer);
+
+        Future<?> earlyReader = streamer.addReader(early, WaitStrategies.PROGRESSIVE_SLEEP);
+        results.onPrintedOut(RUN_ID, "one");
+        results.onPrintedOut(RUN_ID, "two");
+        writer.close();
+        earlyReader.get();
+        Future<?> lateReader = streamer.addReader(late, WaitStrategies.PROGRESSIVE_SLEEP);
+        lateReader.get();
+
+        assertThat(early.texts, contains("one", "two"));
+        assertThat(late.texts, contains("one", "two"));
+        assertThat(streamer.getActiveReaders(), is(0));
+    }
+
+    @Test
+    public void closing_stops_the_readers_which_are_still_waiting_for_messages() throws Exception {
+        IpcWriter<SuiteListener> writer = IpcChannel.writer(mmf, SuiteListenerEncoding::new);
+        new SuiteListenerEventizer().newFrontend(writer).onPrintedOut(RUN_ID, "one");
+        PrintedTexts reader = new PrintedTexts();
+
+        Future<?> future = streamer.addReader(reader, WaitStrategies.PROGRESSIVE_SLEEP);
+        streamer.close();
+
+        assertThat(future.isCancelled(), is(true));
+        assertThat(streamer.getActiveReaders(), is(0));
+    }
+
+    @Test
+    public void when_the_writer_is_gone_the_readers_stop_after_reading_everything_written() throws Exception {
+        IpcWriter<SuiteListener> writer = IpcChannel.writer(mmf, SuiteListenerEncoding::new);
+        new SuiteListenerEventizer().newFrontend(writer).onPrintedOut(RUN_ID, "one");
+        PrintedTexts reader = new PrintedTexts();
+
+        streamer.onWriterGone(); // the stream is never ended
+        streamer.read(reader, WaitStrategies.PROGRESSIVE_SLEEP);
+
+        assertThat(reader.texts, contains("one"));
+    }
+
+
+    private static class PrintedTexts extends NullSuiteListener {
+        final List<String> texts = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void onPrintedOut(RunId runId, String text) {
+            texts.add(text);
+        }
+    }
+}
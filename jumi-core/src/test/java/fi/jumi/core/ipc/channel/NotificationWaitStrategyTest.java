@@ -0,0 +1,115 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import fi.jumi.core.Timeouts;
+import org.junit.*;
+import org.junit.rules.*;
+
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class NotificationWaitStrategyTest {
+
+    @Rule
+    public final Timeout timeout = Timeouts.forUnitTest();
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Path notificationFile;
+
+    @Before
+    public void setup() {
+        notificationFile = tempDir.getRoot().toPath().resolve("channel.notify");
+    }
+
+    @Test
+    public void creates_the_notification_file() {
+        try (NotificationWaitStrategy waitStrategy = new NotificationWaitStrategy(notificationFile)) {
+            assertThat(Files.exists(notificationFile), is(true));
+        }
+    }
+
+    @Test
+    public void wakes_up_when_the_writer_signals() throws Exception {
+        try (NotificationWaitStrategy waitStrategy = new NotificationWaitStrategy(notificationFile, TimeUnit.MINUTES.toMillis(1));
+             FileNotifier notifier = new FileNotifier(notificationFile)) {
+            CountDownLatch woke = new CountDownLatch(1);
+            Thread reader = new Thread(() -> {
+                waitStrategy.snooze(); // marks the reader as waiting
+                waitStrategy.snooze(); // sleeps
+                woke.countDown();
+            });
+            reader.start();
+
+            while (!woke.await(10, TimeUnit.MILLISECONDS)) {
+                notifier.signal();
+            }
+        }
+    }
+
+    @Test
+    public void waits_at_most_the_maximum_wait_time() {
+        try (NotificationWaitStrategy waitStrategy = new NotificationWaitStrategy(notificationFile, 10)) {
+            waitStrategy.snooze();
+            waitStrategy.snooze();
+        }
+    }
+
+    @Test
+    public void returns_immediately_after_marking_the_reader_as_waiting_so_that_the_reader_checks_for_messages_once_more() throws Exception {
+        try (NotificationWaitStrategy waitStrategy = new NotificationWaitStrategy(notificationFile, TimeUnit.MINUTES.toMillis(1))) {
+            waitStrategy.snooze();
+
+            assertThat(Files.readAllBytes(notificationFile), is(new byte[]{NotificationWaitStrategy.READERS_WAITING}));
+        }
+    }
+
+    @Test
+    public void the_notifier_writes_to_the_file_only_when_a_reader_is_waiting() throws Exception {
+        try (NotificationWaitStrategy waitStrategy = new NotificationWaitStrategy(notificationFile, TimeUnit.MINUTES.toMillis(1));
+             FileNotifier notifier = new FileNotifier(notificationFile)) {
+            waitStrategy.snooze();
+
+            notifier.signal();
+
+            assertThat(Files.readAllBytes(notificationFile), is(new byte[]{NotificationWaitStrategy.NO_READERS_WAITING}));
+        }
+    }
+
+    @Test
+    public void is_not_woken_up_by_other_channels_in_the_same_directory() throws Exception {
+        Path otherNotificationFile = notificationFile.resolveSibling("other.notify");
+        long maxWait = 200;
+        try (NotificationWaitStrategy waitStrategy = new NotificationWaitStrategy(notificationFile, maxWait);
+             NotificationWaitStrategy otherWaitStrategy = new NotificationWaitStrategy(otherNotificationFile);
+             FileNotifier otherNotifier = new FileNotifier(otherNotificationFile)) {
+            otherWaitStrategy.snooze();
+            waitStrategy.snooze();
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+            executor.schedule(otherNotifier::signal, 10, TimeUnit.MILLISECONDS);
+
+            long start = System.nanoTime();
+            waitStrategy.snooze();
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            executor.shutdown();
+
+            assertThat(waited, is(greaterThanOrEqualTo(maxWait - 10)));
+        }
+    }
+
+    @Test
+    public void the_notifier_does_nothing_if_there_are_no_readers() {
+        try (FileNotifier notifier = new FileNotifier(notificationFile)) {
+            notifier.signal();
+        }
+
+        assertThat(Files.exists(notificationFile), is(false));
+    }
+}
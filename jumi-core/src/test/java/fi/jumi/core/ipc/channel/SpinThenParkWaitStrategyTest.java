@@ -0,0 +1,70 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.channel;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SpinThenParkWaitStrategyTest {
+
+    private final List<Long> parks = new ArrayList<>();
+    private SpinThenParkWaitStrategy waitStrategy;
+
+    @Test
+    public void at_first_spins() {
+        waitStrategy = new SpiedSpinThenParkWaitStrategy(3, 10, 100);
+
+        for (int i = 0; i < 3; i++) {
+            waitStrategy.snooze();
+        }
+
+        assertThat(parks, is(empty()));
+    }
+
+    @Test
+    public void then_parks_progressively_longer_times_up_to_the_maximum() {
+        waitStrategy = new SpiedSpinThenParkWaitStrategy(0, 10, 50);
+
+        for (int i = 0; i < 5; i++) {
+            waitStrategy.snooze();
+        }
+
+        assertThat(parks, is(asList(10L, 20L, 40L, 50L, 50L)));
+    }
+
+    @Test
+    public void on_reset_goes_back_to_beginning() {
+        waitStrategy = new SpiedSpinThenParkWaitStrategy(1, 10, 50);
+        for (int i = 0; i < 5; i++) {
+            waitStrategy.snooze();
+        }
+        parks.clear();
+
+        waitStrategy.reset();
+        for (int i = 0; i < 3; i++) {
+            waitStrategy.snooze();
+        }
+
+        assertThat(parks, is(asList(10L, 20L)));
+    }
+
+
+    private class SpiedSpinThenParkWaitStrategy extends SpinThenParkWaitStrategy {
+
+        public SpiedSpinThenParkWaitStrategy(int spinCount, long initialParkNanos, long maxParkNanos) {
+            super(spinCount, initialParkNanos, maxParkNanos);
+        }
+
+        @Override
+        void park(long nanos) {
+            parks.add(nanos);
+        }
+    }
+}
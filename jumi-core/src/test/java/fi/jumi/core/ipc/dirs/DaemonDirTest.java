@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -8,10 +8,12 @@ import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 
 import java.io.IOException;
-import java.nio.file.Path;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
 
 import static com.thewonggei.regexTester.hamcrest.RegexMatches.doesMatchRegex;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 
 public class DaemonDirTest {
 
@@ -44,6 +46,27 @@ public class DaemonDirTest {
         assertThat("suite results file", relativeToBaseDir(dir.getSuiteResultsPath()), doesMatchRegex("suites/\\d+/suite"));
     }
 
+    @Test
+    public void copies_suite_directories_elsewhere() throws IOException {
+        SuiteDir dir = daemonDir.createSuiteDir();
+        Files.write(dir.getSuiteResultsPath(), new byte[]{1, 2, 3});
+        Path archiveDir = tempDir.newFolder("archive").toPath();
+
+        Path copy = dir.copyTo(archiveDir);
+
+        assertThat(copy, is(archiveDir.resolve(dir.getPath().getFileName())));
+        assertThat(Files.readAllBytes(copy.resolve("suite")), is(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    public void is_in_use_while_it_is_locked() throws IOException {
+        assertThat("before locking", daemonDir.isInUse(), is(false));
+        try (FileLock lock = daemonDir.lock()) {
+            assertThat("while locked", daemonDir.isInUse(), is(true));
+        }
+        assertThat("after releasing", daemonDir.isInUse(), is(false));
+    }
+
     private String relativeToBaseDir(Path path) {
         return normalized(baseDir.relativize(path));
     }
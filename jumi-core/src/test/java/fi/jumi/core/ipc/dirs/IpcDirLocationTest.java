@@ -0,0 +1,112 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.dirs;
+
+import org.junit.*;
+import org.junit.rules.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assume.assumeTrue;
+
+public class IpcDirLocationTest {
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private Path xdgRuntimeDir;
+    private Path devShm;
+
+    @Before
+    public void setup() throws IOException {
+        xdgRuntimeDir = tempDir.newFolder("run-user").toPath();
+        devShm = tempDir.newFolder("shm").toPath();
+    }
+
+    @Test
+    public void prefers_the_users_runtime_dir() {
+        assertThat(IpcDirLocation.findSharedMemoryDir(xdgRuntimeDir.toString(), devShm, "alice"),
+                is(xdgRuntimeDir.resolve("jumi")));
+    }
+
+    @Test
+    public void falls_back_to_a_user_specific_dir_under_dev_shm() {
+        assertThat(IpcDirLocation.findSharedMemoryDir(null, devShm, "alice"),
+                is(devShm.resolve("jumi-alice")));
+        assertThat("runtime dir does not exist",
+                IpcDirLocation.findSharedMemoryDir(xdgRuntimeDir.resolve("no-such-dir").toString(), devShm, "alice"),
+                is(devShm.resolve("jumi-alice")));
+    }
+
+    @Test
+    public void finds_nothing_when_there_is_no_shared_memory() {
+        assertThat(IpcDirLocation.findSharedMemoryDir(null, tempDir.getRoot().toPath().resolve("no-such-dir"), "alice"),
+                is(nullValue()));
+    }
+
+    @Test
+    public void jumi_home_location_uses_the_jumi_home() {
+        Path jumiHome = Paths.get("jumi-home");
+
+        assertThat(IpcDirLocation.JUMI_HOME.resolve(jumiHome, System.out), is(jumiHome));
+    }
+
+    @Test
+    public void creates_the_shared_memory_dir_accessible_only_by_the_user() throws IOException {
+        assumePosix();
+        Path dir = devShm.resolve("jumi-alice");
+
+        IpcDirLocation.createPrivateDir(dir, ownerOf(devShm));
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(dir)), is("rwx------"));
+    }
+
+    @Test
+    public void accepts_a_previously_created_private_dir() throws IOException {
+        assumePosix();
+        Path dir = devShm.resolve("jumi-alice");
+        IpcDirLocation.createPrivateDir(dir, ownerOf(devShm));
+
+        assertThat(IpcDirLocation.createPrivateDir(dir, ownerOf(devShm)), is(dir));
+    }
+
+    @Test
+    public void refuses_a_dir_which_other_users_can_access() throws IOException {
+        assumePosix();
+        Path dir = Files.createDirectory(devShm.resolve("jumi-alice"));
+        Files.setPosixFilePermissions(dir, PosixFilePermissions.fromString("rwxrwxrwx"));
+
+        thrown.expect(IOException.class);
+        thrown.expectMessage("accessible by other users");
+        IpcDirLocation.createPrivateDir(dir, ownerOf(devShm));
+    }
+
+    @Test
+    public void refuses_a_dir_owned_by_another_user() throws IOException {
+        assumePosix();
+        Path dir = devShm.resolve("jumi-alice");
+        IpcDirLocation.createPrivateDir(dir, ownerOf(devShm));
+
+        thrown.expect(IOException.class);
+        thrown.expectMessage("is owned by");
+        IpcDirLocation.createPrivateDir(dir, () -> "mallory");
+    }
+
+    private void assumePosix() {
+        assumeTrue("this test works only on POSIX compatible file systems",
+                Files.getFileAttributeView(devShm, PosixFileAttributeView.class) != null);
+    }
+
+    private static UserPrincipal ownerOf(Path path) throws IOException {
+        return Files.getOwner(path);
+    }
+}
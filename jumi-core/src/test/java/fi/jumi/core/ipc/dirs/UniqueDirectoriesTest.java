@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -15,7 +15,7 @@ import java.util.*;
 
 import static fi.jumi.core.util.PredicateMatchers.satisfies;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.*;
 import static org.junit.Assume.assumeTrue;
 
 public class UniqueDirectoriesTest {
@@ -85,4 +85,35 @@ public class UniqueDirectoriesTest {
         thrown.expect(FileAlreadyExistsException.class);
         UniqueDirectories.createUniqueDir(parent, 123);
     }
+
+    @Test
+    public void the_newest_directory_is_numbered_after_the_existing_directories() throws IOException {
+        UniqueDirectories.createUniqueDir(baseDir, 200);
+
+        Path dir = UniqueDirectories.createNewestDir(baseDir, 123);
+
+        assertThat(dir.getFileName(), is(Paths.get("201")));
+    }
+
+    @Test
+    public void lists_all_but_the_newest_directories() throws IOException {
+        for (int i = 0; i < 4; i++) {
+            UniqueDirectories.createUniqueDir(baseDir, 8 + i);
+        }
+
+        List<Path> dirs = UniqueDirectories.allButNewest(baseDir, 2);
+
+        assertThat(dirs, contains(baseDir.resolve("8"), baseDir.resolve("9")));
+    }
+
+    @Test
+    public void does_not_list_files_which_it_did_not_create() throws IOException {
+        Files.createDirectory(baseDir.resolve("not-a-sequence"));
+        Files.createFile(baseDir.resolve("1"));
+        UniqueDirectories.createUniqueDir(baseDir, 2);
+
+        List<Path> dirs = UniqueDirectories.allButNewest(baseDir, 0);
+
+        assertThat(dirs, contains(baseDir.resolve("2")));
+    }
 }
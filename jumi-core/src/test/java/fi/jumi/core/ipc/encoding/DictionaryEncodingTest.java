@@ -0,0 +1,90 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.core.ipc.TestUtil;
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+import org.junit.*;
+import org.junit.rules.ExpectedException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class DictionaryEncodingTest {
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final IpcBuffer buffer = TestUtil.newIpcBuffer();
+
+    private DictionaryEncoding<String> newDictionary(int maxSize) {
+        return new DictionaryEncoding<>(buffer, maxSize,
+                s -> StringEncoding.writeUtf8String(buffer, s),
+                () -> StringEncoding.readUtf8String(buffer));
+    }
+
+    @Test
+    public void repeated_values_are_decoded_to_the_same_instance() {
+        DictionaryEncoding<String> writer = newDictionary(10);
+        writer.write("foo");
+        writer.write("bar");
+        writer.write("foo");
+        writer.write(null);
+
+        buffer.position(0);
+        DictionaryEncoding<String> reader = newDictionary(10);
+        String foo1 = reader.read();
+        String bar = reader.read();
+        String foo2 = reader.read();
+        String nul = reader.read();
+
+        assertThat(foo1, is("foo"));
+        assertThat(bar, is("bar"));
+        assertThat(foo2, is(sameInstance(foo1)));
+        assertThat(nul, is(nullValue()));
+    }
+
+    @Test
+    public void repeated_values_take_one_byte() {
+        DictionaryEncoding<String> writer = newDictionary(10);
+        writer.write("foo");
+        long first = buffer.position();
+
+        writer.write("foo");
+
+        assertThat(buffer.position() - first, is(1L));
+    }
+
+    @Test
+    public void when_the_dictionary_is_full_new_values_are_written_in_full_every_time() {
+        DictionaryEncoding<String> writer = newDictionary(1);
+        writer.write("foo");
+        writer.write("bar");
+        writer.write("bar");
+        writer.write("foo");
+
+        buffer.position(0);
+        DictionaryEncoding<String> reader = newDictionary(1);
+        String foo1 = reader.read();
+        String bar1 = reader.read();
+        String bar2 = reader.read();
+        String foo2 = reader.read();
+
+        assertThat(bar1, is("bar"));
+        assertThat(bar2, is("bar"));
+        assertThat(bar2, is(not(sameInstance(bar1))));
+        assertThat(foo2, is(sameInstance(foo1)));
+    }
+
+    @Test
+    public void fails_on_references_to_undefined_values() {
+        VarIntEncoding.writeVarInt(buffer, 3);
+        buffer.position(0);
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("undefined dictionary reference 0");
+        newDictionary(10).read();
+    }
+}
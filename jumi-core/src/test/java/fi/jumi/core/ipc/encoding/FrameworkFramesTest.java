@@ -0,0 +1,55 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class FrameworkFramesTest {
+
+    private static final StackTraceElement USER_FRAME = new StackTraceElement("com.example.FooTest", "testBar", "FooTest.java", 10);
+    private static final StackTraceElement FRAMEWORK_FRAME_1 = new StackTraceElement("org.junit.runners.ParentRunner", "run", "ParentRunner.java", 309);
+    private static final StackTraceElement FRAMEWORK_FRAME_2 = new StackTraceElement("org.junit.runners.ParentRunner$1", "schedule", "ParentRunner.java", 71);
+    private static final StackTraceElement OTHER_FRAMEWORK_FRAME = new StackTraceElement("fi.jumi.core.runs.RunIdSequence", "nextRunId", "RunIdSequence.java", 20);
+
+    private final FrameworkFrames frameworkFrames = new FrameworkFrames("org.junit.runners.", "fi.jumi.core.");
+
+    @Test
+    public void consecutive_framework_frames_are_collapsed_into_one_placeholder() {
+        StackTraceElement[] collapsed = frameworkFrames.collapse(new StackTraceElement[]{
+                USER_FRAME, FRAMEWORK_FRAME_1, FRAMEWORK_FRAME_2, FRAMEWORK_FRAME_1, USER_FRAME});
+
+        assertThat(collapsed, is(new StackTraceElement[]{
+                USER_FRAME,
+                new StackTraceElement("org.junit.runners", "<3 frames collapsed>", null, -1),
+                USER_FRAME}));
+    }
+
+    @Test
+    public void a_single_framework_frame_is_left_as_is() {
+        StackTraceElement[] original = {USER_FRAME, FRAMEWORK_FRAME_1, USER_FRAME};
+
+        assertThat(frameworkFrames.collapse(original), is(sameInstance(original)));
+    }
+
+    @Test
+    public void frames_of_different_frameworks_are_collapsed_separately() {
+        StackTraceElement[] collapsed = frameworkFrames.collapse(new StackTraceElement[]{
+                FRAMEWORK_FRAME_1, FRAMEWORK_FRAME_2, OTHER_FRAMEWORK_FRAME, OTHER_FRAMEWORK_FRAME});
+
+        assertThat(collapsed, is(new StackTraceElement[]{
+                new StackTraceElement("org.junit.runners", "<2 frames collapsed>", null, -1),
+                new StackTraceElement("fi.jumi.core", "<2 frames collapsed>", null, -1)}));
+    }
+
+    @Test
+    public void nothing_is_collapsed_by_default() {
+        StackTraceElement[] original = {FRAMEWORK_FRAME_1, FRAMEWORK_FRAME_2};
+
+        assertThat(FrameworkFrames.NONE.collapse(original), is(sameInstance(original)));
+    }
+}
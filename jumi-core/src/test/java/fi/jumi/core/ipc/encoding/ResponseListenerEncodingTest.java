@@ -16,6 +16,6 @@ public class ResponseListenerEncodingTest extends EncodingContract<ResponseListe
 
     @Override
     protected void exampleUsage(ResponseListener listener) throws Exception {
-        listener.onSuiteStarted(Paths.get("foo", "bar"));
+        listener.onSuiteStarted(Paths.get("foo", "bar").toUri());
     }
 }
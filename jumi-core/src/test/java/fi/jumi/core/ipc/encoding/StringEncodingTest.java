@@ -5,9 +5,13 @@
 package fi.jumi.core.ipc.encoding;
 
 import fi.jumi.core.ipc.TestUtil;
+import fi.jumi.core.ipc.buffer.IpcBuffer;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.fail;
@@ -51,6 +55,72 @@ public class StringEncodingTest {
     }
 
 
+    // UTF-8
+
+    @Test
+    public void test_serialization_of_UTF8_String() {
+        assertThat("empty string", roundTripUtf8String(""), is(""));
+        assertThat("ASCII", roundTripUtf8String("Hello, world!"), is("Hello, world!"));
+        assertThat("2-byte chars", roundTripUtf8String("\u00e5\u00e4\u00f6"), is("\u00e5\u00e4\u00f6"));
+        assertThat("3-byte chars", roundTripUtf8String("\u20ac\uffff"), is("\u20ac\uffff"));
+        assertThat("4-byte chars", roundTripUtf8String("\ud83d\ude00"), is("\ud83d\ude00"));
+        assertThat("mixed", roundTripUtf8String("a\u00e5\u20ac\ud83d\ude00z"), is("a\u00e5\u20ac\ud83d\ude00z"));
+
+        String original = RandomStringUtils.random(100);
+        assertThat("random string", roundTripUtf8String(original), is(original));
+    }
+
+    @Test
+    public void test_serialization_of_UTF8_String_with_unpaired_surrogates() {
+        for (String original : Arrays.asList("\ud83d", "\ude00", "x\ude00\ud83d", "\ud83dx")) {
+            assertThat(roundTripUtf8String(original), is(original));
+        }
+    }
+
+    @Test
+    public void UTF8_strings_use_one_byte_per_ASCII_character() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+
+        StringEncoding.writeUtf8String(buffer, "abc");
+
+        assertThat("length prefix + chars", buffer.position(), is(1L + 3));
+    }
+
+    @Test
+    public void UTF8_strings_are_compatible_with_the_standard_UTF8_charset() {
+        String original = "a\u00e5\u20ac\ud83d\ude00";
+        byte[] expected = original.getBytes(StandardCharsets.UTF_8);
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+
+        StringEncoding.writeUtf8String(buffer, original);
+
+        byte[] actual = new byte[expected.length];
+        buffer.getBytes(1, actual, 0, actual.length);
+        assertThat(actual, is(expected));
+    }
+
+    @Test
+    public void test_serialization_of_null_UTF8_String() {
+        String nullString = null;
+        assertThat("null string", roundTripNullableUtf8String(nullString), is(nullString));
+        assertThat("empty string", roundTripNullableUtf8String(""), is(""));
+
+        try {
+            TestUtil.serializeAndDeserialize(nullString, StringEncoding::writeUtf8String, StringEncoding::readNullableUtf8String);
+            fail("should have thrown NullPointerException on serialization");
+        } catch (NullPointerException e) {
+            // OK
+        }
+
+        try {
+            TestUtil.serializeAndDeserialize(nullString, StringEncoding::writeNullableUtf8String, StringEncoding::readUtf8String);
+            fail("should have thrown NullPointerException on deserialization");
+        } catch (NullPointerException e) {
+            // OK
+        }
+    }
+
+
     private static String roundTripString(String original) {
         return TestUtil.serializeAndDeserialize(original, StringEncoding::writeString, StringEncoding::readString);
     }
@@ -58,4 +128,12 @@ public class StringEncodingTest {
     private static String roundTripNullableString(String original) {
         return TestUtil.serializeAndDeserialize(original, StringEncoding::writeNullableString, StringEncoding::readNullableString);
     }
+
+    private static String roundTripUtf8String(String original) {
+        return TestUtil.serializeAndDeserialize(original, StringEncoding::writeUtf8String, StringEncoding::readUtf8String);
+    }
+
+    private static String roundTripNullableUtf8String(String original) {
+        return TestUtil.serializeAndDeserialize(original, StringEncoding::writeNullableUtf8String, StringEncoding::readNullableUtf8String);
+    }
 }
@@ -6,17 +6,28 @@ package fi.jumi.core.ipc.encoding;
 
 import fi.jumi.api.drivers.TestId;
 import fi.jumi.core.api.*;
+import fi.jumi.core.events.suiteListener.SuiteListenerToEvent;
 import fi.jumi.core.ipc.TestUtil;
-import org.junit.Test;
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+import fi.jumi.core.ipc.channel.*;
+import fi.jumi.core.util.SpyListener;
+import org.junit.*;
+import org.junit.rules.ExpectedException;
 
 import java.io.IOException;
+import java.util.*;
 
 import static fi.jumi.core.util.EqualityMatchers.deepEqualTo;
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.*;
 
 public class SuiteListenerEncodingTest extends EncodingContract<SuiteListener> {
 
+    private static final int LATEST_VERSION = 5;
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
     public SuiteListenerEncodingTest() {
         super(SuiteListenerEncoding::new);
     }
@@ -49,6 +60,284 @@ public class SuiteListenerEncodingTest extends EncodingContract<SuiteListener> {
     }
 
 
+    // interface versions
+
+    @Test
+    public void can_decode_data_that_was_written_using_older_interface_versions() throws Exception {
+        for (int version = 1; version < LATEST_VERSION; version++) {
+            int writtenVersion = version;
+            SpyListener<SuiteListener> spy = new SpyListener<>(SuiteListener.class);
+            exampleUsage(spy.getListener());
+            spy.replay();
+            IpcBuffer buffer = TestUtil.newIpcBuffer();
+
+            IpcProtocol<SuiteListener> writer = new IpcProtocol<>(buffer, b -> new SuiteListenerEncoding(b, writtenVersion));
+            writer.start();
+            exampleUsage(new SuiteListenerToEvent(writer));
+            writer.close();
+
+            buffer.position(0);
+            IpcReaders.decodeAll(new IpcProtocol<>(buffer, SuiteListenerEncoding::new), spy.getListener());
+
+            spy.verify();
+        }
+    }
+
+    @Test
+    public void interface_version_2_uses_less_space_than_version_1() {
+        RunId runId = new RunId(1);
+        TestId testId = TestId.of(0, 1);
+        String text = "printed to out";
+
+        IpcBuffer v1 = TestUtil.newIpcBuffer();
+        new SuiteListenerEncoding(v1, 1).onTestStarted(runId, testId);
+        new SuiteListenerEncoding(v1, 1).onPrintedOut(runId, text);
+
+        IpcBuffer v2 = TestUtil.newIpcBuffer();
+        new SuiteListenerEncoding(v2, 2).onTestStarted(runId, testId);
+        new SuiteListenerEncoding(v2, 2).onPrintedOut(runId, text);
+
+        assertThat(v1.position(), is((1L + 4 + 4 + 2 * 4) + (1 + 4 + 4 + 2 * text.length())));
+        assertThat(v2.position(), is((1L + 1 + 1 + 2) + (1 + 1 + 1 + text.length())));
+    }
+
+    @Test
+    public void does_not_support_unknown_interface_versions() {
+        SuiteListenerEncoding encoding = new SuiteListenerEncoding(null);
+
+        assertThat(encoding.supportsInterfaceVersion(0), is(false));
+        assertThat(encoding.supportsInterfaceVersion(6), is(false));
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("unsupported interface version: 6");
+        encoding.setInterfaceVersion(6);
+    }
+
+
+    // dictionary
+
+    @Test
+    public void repeated_test_files_and_names_are_written_only_once() {
+        TestFile testFile = TestFile.fromClassName("com.example.SampleTest");
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        SuiteListenerEncoding encoding = new SuiteListenerEncoding(buffer, 3);
+
+        encoding.onTestFound(testFile, TestId.of(0), "testName");
+        long first = buffer.position();
+        encoding.onTestFound(testFile, TestId.of(0), "testName");
+        long second = buffer.position() - first;
+
+        assertThat("event type + test file + test ID + name", second, is(1L + 1 + 2 + 1));
+    }
+
+    @Test
+    public void decoding_returns_the_same_instance_for_repeated_test_files_and_names() throws Exception {
+        TestFile testFile = TestFile.fromClassName("com.example.SampleTest");
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        IpcProtocol<SuiteListener> protocol = new IpcProtocol<>(buffer, SuiteListenerEncoding::new);
+        protocol.start();
+        SuiteListener sender = new SuiteListenerToEvent(protocol);
+        sender.onTestFound(testFile, TestId.of(0), "testName");
+        sender.onTestFound(testFile, TestId.of(0), "testName");
+        protocol.close();
+
+        List<TestFile> testFiles = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        buffer.position(0);
+        IpcReaders.decodeAll(new IpcProtocol<>(buffer, SuiteListenerEncoding::new), new NullSuiteListener() {
+            @Override
+            public void onTestFound(TestFile testFile, TestId testId, String name) {
+                testFiles.add(testFile);
+                names.add(name);
+            }
+        });
+
+        assertThat(testFiles.get(0), is(testFile));
+        assertThat(testFiles.get(1), is(sameInstance(testFiles.get(0))));
+        assertThat(names.get(0), is("testName"));
+        assertThat(names.get(1), is(sameInstance(names.get(0))));
+    }
+
+    @Test
+    public void repeated_class_and_method_names_in_stack_traces_are_written_only_once() {
+        StackTraceElement element = new StackTraceElement("com.example.Foo", "bar", "Foo.java", 10);
+
+        int oneElement = sizeOfStackTrace(exceptionWithStackTrace(element));
+        int twoElements = sizeOfStackTrace(exceptionWithStackTrace(element, element));
+
+        assertThat("class name + method name + file name + line number", twoElements - oneElement, is(1 + 1 + 1 + 1));
+    }
+
+    private static int sizeOfStackTrace(Throwable t) {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        new SuiteListenerEncoding(buffer, 3).writeStackTrace(StackTrace.from(t));
+        return (int) buffer.position();
+    }
+
+    @Test
+    public void repeated_stack_traces_are_written_only_once() {
+        StackTrace stackTrace = StackTrace.from(exceptionWithStackTrace(
+                new StackTraceElement("com.example.Foo", "bar", "Foo.java", 10),
+                new StackTraceElement("com.example.Foo", "baz", "Foo.java", 20)));
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        SuiteListenerEncoding encoding = new SuiteListenerEncoding(buffer);
+
+        encoding.onFailure(new RunId(1), stackTrace);
+        long first = buffer.position();
+        encoding.onFailure(new RunId(1), stackTrace);
+        long second = buffer.position() - first;
+
+        assertThat("event type + run ID + exception class + toString + message + elements + cause + suppressed",
+                second, is(1L + 1 + 1 + 1 + 1 + (1 + 1) + 1 + 1));
+    }
+
+    @Test
+    public void stack_traces_which_end_with_the_same_elements_are_decoded_in_full() throws Exception {
+        StackTraceElement caller = new StackTraceElement("com.example.Foo", "caller", "Foo.java", 10);
+        StackTrace first = StackTrace.from(exceptionWithStackTrace(
+                new StackTraceElement("com.example.Foo", "first", "Foo.java", 20), caller));
+        StackTrace second = StackTrace.from(exceptionWithStackTrace(
+                new StackTraceElement("com.example.Foo", "second", "Foo.java", 30), caller));
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        IpcProtocol<SuiteListener> protocol = new IpcProtocol<>(buffer, SuiteListenerEncoding::new);
+        protocol.start();
+        SuiteListener sender = new SuiteListenerToEvent(protocol);
+        sender.onFailure(new RunId(1), first);
+        sender.onFailure(new RunId(2), second);
+        protocol.close();
+
+        List<StackTrace> failures = new ArrayList<>();
+        buffer.position(0);
+        IpcReaders.decodeAll(new IpcProtocol<>(buffer, SuiteListenerEncoding::new), new NullSuiteListener() {
+            @Override
+            public void onFailure(RunId runId, StackTrace cause) {
+                failures.add(cause);
+            }
+        });
+
+        assertThat(failures.get(0), is(deepEqualTo(first)));
+        assertThat(failures.get(1), is(deepEqualTo(second)));
+    }
+
+    @Test
+    public void framework_frames_are_collapsed_when_so_configured() {
+        StackTrace original = StackTrace.from(exceptionWithStackTrace(
+                new StackTraceElement("com.example.FooTest", "testBar", "FooTest.java", 10),
+                new StackTraceElement("sun.reflect.NativeMethodAccessorImpl", "invoke0", null, -2),
+                new StackTraceElement("sun.reflect.NativeMethodAccessorImpl", "invoke", null, -1),
+                new StackTraceElement("java.lang.Thread", "run", "Thread.java", 745)));
+
+        StackTrace copy = TestUtil.serializeAndDeserialize(original,
+                (buffer, data) -> new SuiteListenerEncoding(buffer, FrameworkFrames.COMMON).writeStackTrace(data),
+                (buffer) -> new SuiteListenerEncoding(buffer).readStackTrace());
+
+        assertThat(copy.getStackTrace(), is(new StackTraceElement[]{
+                new StackTraceElement("com.example.FooTest", "testBar", "FooTest.java", 10),
+                new StackTraceElement("sun.reflect", "<2 frames collapsed>", null, -1),
+                new StackTraceElement("java.lang.Thread", "run", "Thread.java", 745)}));
+    }
+
+
+    // compression
+
+    @Test
+    public void long_printed_texts_are_compressed_when_so_configured() {
+        RunId runId = new RunId(1);
+        char[] chars = new char[10000];
+        Arrays.fill(chars, 'x');
+        String text = new String(chars);
+        SpyListener<SuiteListener> spy = new SpyListener<>(SuiteListener.class);
+        spy.getListener().onPrintedOut(runId, text);
+        spy.getListener().onPrintedErr(runId, text);
+        spy.replay();
+
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        SuiteListenerEncoding writer = new SuiteListenerEncoding(buffer, FrameworkFrames.NONE, 100);
+        writer.onPrintedOut(runId, text);
+        writer.onPrintedErr(runId, text);
+        assertThat("size of both events", buffer.position(), is(lessThan(1000L)));
+
+        buffer.position(0);
+        SuiteListenerEncoding reader = new SuiteListenerEncoding(buffer);
+        reader.decode(spy.getListener());
+        reader.decode(spy.getListener());
+        spy.verify();
+    }
+
+    @Test
+    public void the_previous_interface_version_is_written_when_compression_is_disabled() {
+        assertThat(new SuiteListenerEncoding(null, FrameworkFrames.NONE, 100).getInterfaceVersion(), is(LATEST_VERSION));
+        assertThat(new SuiteListenerEncoding(null, FrameworkFrames.NONE, TextCompression.DISABLED).getInterfaceVersion(), is(LATEST_VERSION - 1));
+        assertThat(new SuiteListenerEncoding(null).getInterfaceVersion(), is(LATEST_VERSION - 1));
+    }
+
+    @Test
+    public void printed_texts_shorter_than_the_threshold_are_not_compressed() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        String text = "short";
+
+        new SuiteListenerEncoding(buffer, FrameworkFrames.NONE, 100).onPrintedOut(new RunId(1), text);
+
+        assertThat("event type + run ID + text", buffer.position(), is(1L + 1 + (1 + text.length())));
+    }
+
+
+    // flyweight decoding
+
+    @Test
+    public void flyweight_decoding_gives_the_same_events_in_all_interface_versions() throws Exception {
+        for (int version = 1; version <= LATEST_VERSION; version++) {
+            int writtenVersion = version;
+            SpyListener<SuiteListener> spy = new SpyListener<>(SuiteListener.class);
+            exampleUsage(spy.getListener());
+            spy.replay();
+            IpcBuffer buffer = TestUtil.newIpcBuffer();
+
+            IpcProtocol<SuiteListener> writer = new IpcProtocol<>(buffer, b -> new SuiteListenerEncoding(b, writtenVersion, FrameworkFrames.NONE, 1));
+            writer.start();
+            exampleUsage(new SuiteListenerToEvent(writer));
+            writer.close();
+
+            buffer.position(0);
+            SuiteListener target = spy.getListener();
+            IpcReaders.decodeAll(IpcProtocol.reader(buffer, FlyweightSuiteListenerDecoding::new, false), event -> event.fireOn(target));
+
+            spy.verify();
+        }
+    }
+
+    @Test
+    public void flyweight_decoding_gives_ids_without_creating_objects() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        new SuiteListenerEncoding(buffer).onTestStarted(new RunId(5), TestId.of(1, 2));
+
+        buffer.position(0);
+        List<String> received = new ArrayList<>();
+        new SuiteListenerEncoding(buffer).decode(event -> {
+            received.add(event.getType() + " " + event.getRunId() + " " + event.getTestIdPathLength()
+                    + " " + event.getTestIdPathElement(0) + " " + event.getTestIdPathElement(1));
+        });
+
+        assertThat(received, is(Arrays.asList("TEST_STARTED 5 2 1 2")));
+    }
+
+    @Test
+    public void flyweight_decoding_skips_the_texts_which_are_not_asked_for() {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        SuiteListenerEncoding writer = new SuiteListenerEncoding(buffer, 2);
+        writer.onPrintedOut(new RunId(1), "first");
+        writer.onPrintedOut(new RunId(2), "second");
+
+        buffer.position(0);
+        List<String> received = new ArrayList<>();
+        SuiteListenerEncoding reader = new SuiteListenerEncoding(buffer, 2);
+        reader.decode(event -> received.add(event.getRunId() + ""));
+        reader.decode(event -> received.add(event.getRunId() + " " + event.getText()));
+
+        assertThat(received, is(Arrays.asList("1", "2 second")));
+        assertThat(buffer.position(), is((1L + 1 + 1 + "first".length()) + (1 + 1 + 1 + "second".length())));
+    }
+
+
     // StackTrace unit tests
 
     @Test
@@ -85,6 +374,18 @@ public class SuiteListenerEncodingTest extends EncodingContract<SuiteListener> {
         assertThat(roundTripStackTrace(original), is(deepEqualTo(original)));
     }
 
+    @Test
+    public void test_serialization_of_StackTrace_using_interface_version_1() {
+        IOException e = new IOException("the message", new IllegalArgumentException("cause"));
+        e.addSuppressed(new IllegalStateException("suppressed"));
+        StackTrace original = StackTrace.from(e);
+
+        StackTrace copy = TestUtil.serializeAndDeserialize(original,
+                (buffer, data) -> new SuiteListenerEncoding(buffer, 1).writeStackTrace(data),
+                (buffer) -> new SuiteListenerEncoding(buffer, 1).readStackTrace());
+        assertThat(copy, is(deepEqualTo(original)));
+    }
+
     private static StackTrace roundTripStackTrace(StackTrace original) {
         return TestUtil.serializeAndDeserialize(original,
                 (buffer, data) -> new SuiteListenerEncoding(buffer).writeStackTrace(data),
@@ -0,0 +1,91 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.core.Timeouts;
+import fi.jumi.core.ipc.TestUtil;
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+import org.junit.*;
+import org.junit.rules.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+import static fi.jumi.core.ipc.encoding.VarIntEncoding.writeVarInt;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TextCompressionTest {
+
+    private static final String TEXT = repeat('x', 1000);
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public final Timeout timeout = Timeouts.forUnitTest();
+
+    private final TextCompression compression = new TextCompression(100);
+    private final IpcBuffer buffer = TestUtil.newIpcBuffer();
+
+    @Test
+    public void can_still_be_used_after_closing() {
+        assertThat(compression.tryCompress(TEXT), is(true));
+        compression.writeCompressed(buffer);
+        compression.close();
+
+        buffer.position(0);
+        assertThat(compression.readCompressed(buffer), is(TEXT));
+        compression.close();
+        compression.close();
+    }
+
+    @Test
+    public void fails_if_the_compressed_data_ends_too_early() {
+        byte[] data = deflate(new Deflater(), TEXT);
+        writeCompressed(TEXT.length(), Arrays.copyOf(data, data.length / 2));
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("it ended after");
+        compression.readCompressed(buffer);
+    }
+
+    @Test
+    public void fails_if_the_compressed_data_needs_a_dictionary() {
+        Deflater deflater = new Deflater();
+        deflater.setDictionary("xxx".getBytes(StandardCharsets.UTF_8));
+        writeCompressed(TEXT.length(), deflate(deflater, TEXT));
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("it needs a preset dictionary");
+        compression.readCompressed(buffer);
+    }
+
+
+    // helpers
+
+    private void writeCompressed(int uncompressedLength, byte[] data) {
+        writeVarInt(buffer, uncompressedLength);
+        writeVarInt(buffer, data.length);
+        buffer.writeBytes(data, 0, data.length);
+        buffer.position(0);
+    }
+
+    private static byte[] deflate(Deflater deflater, String text) {
+        deflater.setInput(text.getBytes(StandardCharsets.UTF_8));
+        deflater.finish();
+        byte[] output = new byte[text.length() + 100];
+        int length = deflater.deflate(output);
+        deflater.end();
+        return Arrays.copyOf(output, length);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
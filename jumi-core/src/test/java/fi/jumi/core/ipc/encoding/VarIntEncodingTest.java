@@ -0,0 +1,78 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.ipc.encoding;
+
+import fi.jumi.core.ipc.TestUtil;
+import fi.jumi.core.ipc.buffer.IpcBuffer;
+import fi.jumi.core.util.TestableRandom;
+import org.junit.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class VarIntEncodingTest {
+
+    @Rule
+    public final TestableRandom random = new TestableRandom();
+
+    @Test
+    public void test_serialization_of_unsigned_values() {
+        int[] values = {0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1, Integer.MIN_VALUE};
+        for (int value : values) {
+            assertThat("value " + value, roundTripVarInt(value), is(value));
+        }
+        for (int i = 0; i < 100; i++) {
+            int value = random.nextInt();
+            assertThat("value " + value, roundTripVarInt(value), is(value));
+        }
+    }
+
+    @Test
+    public void test_serialization_of_signed_values() {
+        int[] values = {0, 1, -1, -2, 63, -64, 64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (int value : values) {
+            assertThat("value " + value, roundTripSignedVarInt(value), is(value));
+        }
+        for (int i = 0; i < 100; i++) {
+            int value = random.nextInt();
+            assertThat("value " + value, roundTripSignedVarInt(value), is(value));
+        }
+    }
+
+    @Test
+    public void small_values_take_less_space() {
+        assertThat(sizeOfVarInt(0), is(1));
+        assertThat(sizeOfVarInt(127), is(1));
+        assertThat(sizeOfVarInt(128), is(2));
+        assertThat(sizeOfVarInt(16383), is(2));
+        assertThat(sizeOfVarInt(16384), is(3));
+        assertThat(sizeOfVarInt(Integer.MAX_VALUE), is(5));
+        assertThat("negative values are treated as unsigned", sizeOfVarInt(-1), is(5));
+
+        assertThat(sizeOfSignedVarInt(-1), is(1));
+        assertThat(sizeOfSignedVarInt(-64), is(1));
+        assertThat(sizeOfSignedVarInt(-65), is(2));
+    }
+
+    private static int roundTripVarInt(int original) {
+        return TestUtil.serializeAndDeserialize(original, VarIntEncoding::writeVarInt, VarIntEncoding::readVarInt);
+    }
+
+    private static int roundTripSignedVarInt(int original) {
+        return TestUtil.serializeAndDeserialize(original, VarIntEncoding::writeSignedVarInt, VarIntEncoding::readSignedVarInt);
+    }
+
+    private static int sizeOfVarInt(int value) {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        VarIntEncoding.writeVarInt(buffer, value);
+        return (int) buffer.position();
+    }
+
+    private static int sizeOfSignedVarInt(int value) {
+        IpcBuffer buffer = TestUtil.newIpcBuffer();
+        VarIntEncoding.writeSignedVarInt(buffer, value);
+        return (int) buffer.position();
+    }
+}
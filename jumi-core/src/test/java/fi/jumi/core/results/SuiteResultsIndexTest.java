@@ -0,0 +1,179 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.results;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+import fi.jumi.core.events.SuiteListenerEventizer;
+import fi.jumi.core.ipc.channel.*;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
+import fi.jumi.core.util.SpyListener;
+import org.junit.*;
+import org.junit.rules.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Arrays;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class SuiteResultsIndexTest {
+
+    private static final TestFile TEST_FILE_1 = TestFile.fromClassName("Test1");
+    private static final TestFile TEST_FILE_2 = TestFile.fromClassName("Test2");
+    private static final RunId RUN_1 = new RunId(1);
+    private static final RunId RUN_2 = new RunId(2);
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private Path resultsPath;
+    private IpcWriter<SuiteListener> writer;
+    private SuiteListener results;
+
+    @Before
+    public void setup() throws IOException {
+        resultsPath = tempDir.getRoot().toPath().resolve("suite");
+        writer = IpcChannel.writer(resultsPath, SuiteListenerEncoding::new);
+        results = new SuiteListenerEventizer().newFrontend(writer);
+    }
+
+    @Test
+    public void visits_a_single_run_by_seeking_to_its_events() throws IOException {
+        StackTrace failure1 = failure("first", new StackTraceElement("Test1", "test", "Test1.java", 10));
+        StackTrace failure2 = failure("second", new StackTraceElement("Test2", "test", "Test2.java", 20));
+        results.onSuiteStarted();
+        results.onTestFound(TEST_FILE_1, TestId.ROOT, "Test1");
+        results.onTestFound(TEST_FILE_2, TestId.ROOT, "Test2");
+        results.onRunStarted(RUN_1, TEST_FILE_1);
+        results.onRunStarted(RUN_2, TEST_FILE_2);
+        results.onTestStarted(RUN_1, TestId.ROOT);
+        results.onTestStarted(RUN_2, TestId.ROOT);
+        results.onFailure(RUN_1, failure1);
+        results.onPrintedOut(RUN_2, "out of 2");
+        results.onFailure(RUN_2, failure2);
+        results.onTestFinished(RUN_1);
+        results.onTestFinished(RUN_2);
+        results.onRunFinished(RUN_1);
+        results.onRunFinished(RUN_2);
+        results.onSuiteFinished();
+        writer.close();
+
+        SpyListener<RunVisitor> spy = new SpyListener<>(RunVisitor.class);
+        RunVisitor expect = spy.getListener();
+        expect.onRunStarted(RUN_2, TEST_FILE_2);
+        expect.onTestStarted(RUN_2, TEST_FILE_2, TestId.ROOT);
+        expect.onPrintedOut(RUN_2, TEST_FILE_2, TestId.ROOT, "out of 2");
+        expect.onFailure(RUN_2, TEST_FILE_2, TestId.ROOT, failure2);
+        expect.onTestFinished(RUN_2, TEST_FILE_2, TestId.ROOT);
+        expect.onRunFinished(RUN_2, TEST_FILE_2);
+        spy.replay();
+
+        SuiteResultsIndex.build(resultsPath);
+        SuiteResultsIndex index = SuiteResultsIndex.open(resultsPath);
+        index.visitRun(RUN_2, spy.getListener());
+
+        spy.verify();
+    }
+
+    @Test
+    public void finds_runs_by_test_file_and_test_name() throws IOException {
+        results.onTestFound(TEST_FILE_1, TestId.ROOT, "Test1");
+        results.onTestFound(TEST_FILE_1, TestId.of(0), "testFoo");
+        results.onTestFound(TEST_FILE_2, TestId.ROOT, "Test2");
+        results.onRunStarted(RUN_1, TEST_FILE_1);
+        results.onTestStarted(RUN_1, TestId.ROOT);
+        results.onTestStarted(RUN_1, TestId.of(0));
+        results.onRunStarted(RUN_2, TEST_FILE_2);
+        results.onTestStarted(RUN_2, TestId.ROOT);
+        writer.close();
+
+        SuiteResultsIndex.build(resultsPath);
+        SuiteResultsIndex index = SuiteResultsIndex.open(resultsPath);
+
+        assertThat(index.getRunIds(), is(Arrays.asList(RUN_1, RUN_2)));
+        assertThat(index.getRunIds(TEST_FILE_2), is(Arrays.asList(RUN_2)));
+        assertThat(index.getRunIdsByTestName("testFoo"), is(Arrays.asList(RUN_1)));
+        assertThat(index.getTestName(TEST_FILE_1, TestId.of(0)), is("testFoo"));
+        assertThat(index.getTestFile(RUN_2), is(TEST_FILE_2));
+    }
+
+    @Test
+    public void the_results_file_is_mapped_again_if_runs_are_visited_after_closing() throws IOException {
+        results.onRunStarted(RUN_1, TEST_FILE_1);
+        writer.close();
+        SuiteResultsIndex index = SuiteResultsIndex.build(resultsPath);
+        index.visitRun(RUN_1, new NullRunVisitor());
+
+        index.close();
+        TestFile[] visited = new TestFile[1];
+        index.visitRun(RUN_1, new NullRunVisitor() {
+            @Override
+            public void onRunStarted(RunId runId, TestFile testFile) {
+                visited[0] = testFile;
+            }
+        });
+
+        assertThat(visited[0], is(TEST_FILE_1));
+    }
+
+    @Test
+    public void stack_traces_which_share_elements_with_a_failure_of_another_run_are_decoded_whole() throws IOException {
+        StackTraceElement shared = new StackTraceElement("Runner", "run", "Runner.java", 1);
+        StackTrace failure1 = failure("first", new StackTraceElement("Test1", "test", "Test1.java", 10), shared);
+        StackTrace failure2 = failure("second", new StackTraceElement("Test2", "test", "Test2.java", 20), shared);
+        results.onRunStarted(RUN_1, TEST_FILE_1);
+        results.onTestStarted(RUN_1, TestId.ROOT);
+        results.onFailure(RUN_1, failure1);
+        results.onRunStarted(RUN_2, TEST_FILE_2);
+        results.onTestStarted(RUN_2, TestId.ROOT);
+        results.onFailure(RUN_2, failure2);
+        writer.close();
+
+        SuiteResultsIndex index = SuiteResultsIndex.build(resultsPath);
+        StackTrace[] received = new StackTrace[1];
+        index.visitRun(RUN_2, new NullRunVisitor() {
+            @Override
+            public void onFailure(RunId runId, TestFile testFile, TestId testId, StackTrace cause) {
+                received[0] = cause;
+            }
+        });
+
+        assertThat(received[0].getStackTrace(), is(failure2.getStackTrace()));
+    }
+
+    @Test
+    public void tells_whether_the_whole_suite_was_indexed() throws IOException {
+        results.onRunStarted(RUN_1, TEST_FILE_1);
+
+        assertThat("before end of stream", SuiteResultsIndex.build(resultsPath).isComplete(), is(false));
+
+        writer.close();
+
+        assertThat("after end of stream", SuiteResultsIndex.openOrBuild(resultsPath).isComplete(), is(true));
+        assertThat("reopened", SuiteResultsIndex.open(resultsPath).isComplete(), is(true));
+    }
+
+    @Test
+    public void cannot_visit_runs_which_are_not_in_the_index() throws IOException {
+        writer.close();
+        SuiteResultsIndex index = SuiteResultsIndex.build(resultsPath);
+
+        thrown.expect(IllegalArgumentException.class);
+        thrown.expectMessage("run not found");
+        index.visitRun(RUN_1, new NullRunVisitor());
+    }
+
+
+    private static StackTrace failure(String message, StackTraceElement... elements) {
+        Throwable t = new Throwable(message);
+        t.setStackTrace(elements);
+        return StackTrace.from(t);
+    }
+}
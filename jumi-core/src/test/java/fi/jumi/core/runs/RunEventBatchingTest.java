@@ -0,0 +1,197 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.runs;
+
+import fi.jumi.actors.ActorRef;
+import fi.jumi.api.drivers.*;
+import fi.jumi.core.api.RunId;
+import fi.jumi.core.stdout.OutputCapturer;
+import org.junit.Test;
+import org.mockito.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static fi.jumi.core.util.Asserts.catchException;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class RunEventBatchingTest {
+
+    private static final RunId FIRST_RUN_ID = new RunId(RunId.FIRST_ID);
+
+    private final RunListener listener = mock(RunListener.class);
+    private final List<RunEventBatch> batches = new CopyOnWriteArrayList<>();
+    private final OutputCapturer outputCapturer = new OutputCapturer();
+
+    private ThreadBoundSuiteNotifier notifier = notifierWithBatching(new RunEventBatching(100, TimeUnit.HOURS.toMillis(1), 1));
+
+    @Test
+    public void sends_the_events_of_a_run_as_one_batch_when_the_run_finishes() {
+        TestNotifier tn1 = notifier.fireTestStarted(TestId.ROOT);
+        outputCapturer.out().print("printed");
+        tn1.fireTestFinished();
+
+        assertThat(batchSizes(), contains(5));
+        fireBatchesOnListener();
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onRunStarted(FIRST_RUN_ID);
+        inOrder.verify(listener).onTestStarted(FIRST_RUN_ID, TestId.ROOT);
+        inOrder.verify(listener).onPrintedOut(FIRST_RUN_ID, "printed");
+        inOrder.verify(listener).onTestFinished(FIRST_RUN_ID, TestId.ROOT);
+        inOrder.verify(listener).onRunFinished(FIRST_RUN_ID);
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    public void sends_failures_immediately() {
+        TestNotifier tn1 = notifier.fireTestStarted(TestId.ROOT);
+        tn1.fireFailure(new Exception("dummy failure"));
+
+        assertThat(batchSizes(), contains(3));
+    }
+
+    @Test
+    public void sends_the_buffered_events_before_an_internal_error() {
+        Throwable cause = new Throwable("dummy");
+        notifier.fireTestStarted(TestId.ROOT);
+
+        notifier.fireInternalError("the message", cause);
+
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).onRunEvents(Mockito.any(RunEventBatch.class));
+        inOrder.verify(listener).onInternalError("the message", cause);
+        assertThat(batchSizes(), contains(2));
+    }
+
+    @Test
+    public void sends_a_batch_when_it_becomes_full() {
+        notifier = notifierWithBatching(new RunEventBatching(3, TimeUnit.HOURS.toMillis(1), 1));
+
+        TestNotifier tn1 = notifier.fireTestStarted(TestId.ROOT);
+        notifier.fireTestStarted(TestId.of(0)).fireTestFinished();
+
+        assertThat(batchSizes(), contains(3));
+        tn1.fireTestFinished();
+        assertThat(batchSizes(), contains(3, 3));
+    }
+
+    @Test
+    public void sends_the_batches_which_have_waited_for_the_maximum_latency_when_asked() throws InterruptedException {
+        RunEventBatching batching = new RunEventBatching(100, 1, 1);
+        notifier = notifierWithBatching(batching);
+
+        notifier.fireTestStarted(TestId.ROOT);
+        Thread.sleep(5);
+        batching.flushStaleBuffers();
+
+        assertThat(batchSizes(), contains(2));
+    }
+
+    @Test
+    public void does_not_send_batches_which_have_not_yet_waited_for_the_maximum_latency() {
+        RunEventBatching batching = new RunEventBatching(100, TimeUnit.HOURS.toMillis(1), 1);
+        notifier = notifierWithBatching(batching);
+
+        notifier.fireTestStarted(TestId.ROOT);
+        batching.flushStaleBuffers();
+
+        assertThat(batchSizes(), is(empty()));
+    }
+
+    @Test
+    public void keeps_buffering_when_there_are_more_runs_than_expected() {
+        RunEventBatching batching = new RunEventBatching(100, TimeUnit.HOURS.toMillis(1), 1);
+        RunEventBuffer run1 = batching.newBuffer(ActorRef.wrap(listener));
+        RunEventBuffer run2 = batching.newBuffer(ActorRef.wrap(listener));
+
+        run1.tell().onRunStarted(new RunId(1));
+        run2.tell().onRunStarted(new RunId(2));
+        run2.tell().onRunFinished(new RunId(2));
+
+        assertThat("before flushing", batchSizes(), is(empty()));
+        run2.flush();
+        assertThat("after flushing", batchSizes(), contains(2));
+    }
+
+    @Test
+    public void sends_the_overflowed_batches_which_have_waited_for_the_maximum_latency() throws InterruptedException {
+        RunEventBatching batching = new RunEventBatching(100, 1, 1);
+        batching.newBuffer(ActorRef.wrap(listener)).tell().onRunStarted(new RunId(1));
+        batching.newBuffer(ActorRef.wrap(listener)).tell().onRunStarted(new RunId(2));
+        Thread.sleep(5);
+        batching.flushStaleBuffers();
+
+        assertThat(batchSizes(), contains(1, 1));
+    }
+
+    @Test
+    public void fires_all_events_of_a_batch_even_if_some_of_them_fail() {
+        TestNotifier tn1 = notifier.fireTestStarted(TestId.ROOT);
+        tn1.fireTestFinished();
+        doThrow(new IllegalStateException("dummy")).when(listener).onTestStarted(FIRST_RUN_ID, TestId.ROOT);
+
+        Throwable thrown = catchException(() -> fireBatchesOnListener());
+
+        assertThat(thrown, is(instanceOf(IllegalStateException.class)));
+        verify(listener).onRunFinished(FIRST_RUN_ID);
+    }
+
+    @Test
+    public void recycles_the_batches_after_firing_them() {
+        notifier.fireTestStarted(TestId.ROOT).fireTestFinished();
+        RunEventBatch firstBatch = batches.get(0);
+        fireBatchesOnListener();
+
+        notifier.fireTestStarted(TestId.ROOT).fireTestFinished();
+
+        assertThat(batches.get(1), is(sameInstance(firstBatch)));
+    }
+
+    @Test
+    public void unfinished_runs_can_be_flushed_explicitly() {
+        notifier.fireTestStarted(TestId.ROOT);
+
+        notifier.flushCurrentRun();
+
+        assertThat(batchSizes(), contains(2));
+    }
+
+    @Test
+    public void when_batching_is_disabled_every_event_is_sent_individually() {
+        notifier = notifierWithBatching(RunEventBatching.DISABLED);
+
+        notifier.fireTestStarted(TestId.ROOT).fireTestFinished();
+
+        assertThat(batches, is(empty()));
+        verify(listener).onRunStarted(FIRST_RUN_ID);
+        verify(listener).onRunFinished(FIRST_RUN_ID);
+    }
+
+
+    // helpers
+
+    private ThreadBoundSuiteNotifier notifierWithBatching(RunEventBatching batching) {
+        doAnswer(invocation -> batches.add((RunEventBatch) invocation.getArguments()[0]))
+                .when(listener).onRunEvents(Mockito.any(RunEventBatch.class));
+        return new ThreadBoundSuiteNotifier(ActorRef.wrap(listener), new RunIdSequence(), outputCapturer, batching);
+    }
+
+    private List<Integer> batchSizes() {
+        List<Integer> sizes = new ArrayList<>();
+        for (RunEventBatch batch : batches) {
+            sizes.add(batch.size());
+        }
+        return sizes;
+    }
+
+    private void fireBatchesOnListener() {
+        verify(listener, times(batches.size())).onRunEvents(Mockito.any(RunEventBatch.class));
+        for (RunEventBatch batch : batches) {
+            batch.fireOn(listener);
+        }
+    }
+}
@@ -4,6 +4,7 @@
 
 package fi.jumi.core.runs;
 
+import fi.jumi.actors.ActorRef;
 import fi.jumi.api.drivers.TestId;
 import fi.jumi.core.api.*;
 import org.junit.*;
@@ -51,11 +52,24 @@ public class RunEventNormalizerTest {
         verifyNoMoreInteractions(target);
 
         for (Method sourceMethod : RunListener.class.getMethods()) {
+            if (sourceMethod.getName().equals("onRunEvents")) {
+                continue; // only a container for the other events
+            }
             Method targetMethod = getMethod(sourceMethod.getName(), SuiteListener.class);
             assertThat("this test failed to check all event types", spy.methodInvocations.keySet(), hasItem(targetMethod));
         }
     }
 
+    @Test
+    public void unpacks_batches_of_run_events() {
+        RunEventBuffer buffer = new RunEventBatching(10, 1000, 1).newBuffer(ActorRef.<RunListener>wrap(normalizer));
+
+        buffer.onRunStarted(new RunId(20));
+        buffer.flush();
+
+        verify(target).onRunStarted(new RunId(20), testFile);
+    }
+
     @Test
     public void forwards_unique_onTestFound_events() {
         normalizer.onTestFound(TestId.ROOT, "root");
@@ -0,0 +1,142 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.stats;
+
+import fi.jumi.actors.ActorRef;
+import fi.jumi.actors.eventizers.*;
+import fi.jumi.actors.listeners.*;
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.events.*;
+import fi.jumi.core.runs.*;
+import fi.jumi.core.stdout.OutputCapturer;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+public class ActorStatisticsTest {
+
+    private final MessageListener listener = mock(MessageListener.class);
+    private final ActorStatistics statistics = new ActorStatistics(listener);
+    private final DummyActor actor = new DummyActor();
+
+    @Test
+    public void counts_the_processed_messages_per_actor_type_and_event_type() {
+        Event<Runnable> event = runnableEvent(new RunnableEventizer());
+
+        process(actor, event);
+        process(actor, event);
+        process(new DummyActor(), event);
+
+        assertThat(statistics.getReport(), containsString(DummyActor.class.getName() + "\n"));
+        assertThat(statistics.getReport(), containsString("runnable.RunEvent: 3 messages, processed "));
+    }
+
+    @Test
+    public void measures_how_long_the_timestamped_messages_waited_in_the_queue() {
+        long sentOneSecondAgo = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+        Event<Runnable> event = runnableEvent(new RunnableEventizer());
+
+        process(actor, new TimestampedEvent<>(event, sentOneSecondAgo));
+
+        assertThat(statistics.getReport(), containsString("runnable.RunEvent: 1 messages, waited 1"));
+    }
+
+    @Test
+    public void does_not_know_the_wait_times_of_messages_which_were_not_timestamped() {
+        process(actor, runnableEvent(new RunnableEventizer()));
+
+        assertThat(statistics.getReport(), not(containsString("waited")));
+    }
+
+    @Test
+    public void reports_the_messages_which_are_still_in_queues() {
+        Event<Runnable> event = runnableEvent(new RunnableEventizer());
+        statistics.onMessageSent(event);
+        statistics.onMessageSent(event);
+        statistics.onMessageSent(event);
+
+        process(actor, event);
+
+        assertThat(statistics.getReport(), containsString("Messages in queues:\n    runnable.RunEvent: 2\n"));
+    }
+
+    @Test
+    public void counts_the_events_in_a_batch_of_run_events_by_their_own_type() {
+        Event<RunListener> batch = runEventBatch();
+
+        statistics.onMessageSent(batch);
+        process(actor, batch);
+
+        String report = statistics.getReport();
+        assertThat(report, containsString("runListener.OnRunStartedEvent: 1 messages, processed "));
+        assertThat(report, containsString("runListener.OnTestStartedEvent: 1 messages, processed "));
+        assertThat(report, containsString("runListener.OnTestFinishedEvent: 1 messages, processed "));
+        assertThat(report, containsString("runListener.OnRunFinishedEvent: 1 messages, processed "));
+        assertThat(report, not(containsString("OnRunEventsEvent")));
+        assertThat(report, not(containsString("Messages in queues")));
+    }
+
+    @Test
+    public void forwards_all_events_to_the_decorated_listener() {
+        Event<Runnable> event = runnableEvent(new RunnableEventizer());
+
+        statistics.onMessageSent(event);
+        process(actor, event);
+
+        verify(listener).onMessageSent(event);
+        verify(listener).onProcessingStarted(actor, event);
+        verify(listener).onProcessingFinished();
+    }
+
+    @Test
+    public void timestamped_events_are_fired_on_the_actor_like_the_original_events() {
+        Event<Runnable> event = runnableEvent(new TimestampingEventizerProvider(
+                new ComposedEventizerProvider(new RunnableEventizer())).getEventizerForType(Runnable.class));
+
+        event.fireOn(actor);
+
+        assertThat(event, is(instanceOf(TimestampedEvent.class)));
+        assertThat(actor.runCount, is(1));
+    }
+
+
+    // helpers
+
+    private void process(Object actor, Event<?> event) {
+        statistics.onProcessingStarted(actor, event);
+        statistics.onProcessingFinished();
+    }
+
+    private static Event<Runnable> runnableEvent(Eventizer<Runnable> eventizer) {
+        List<Event<Runnable>> events = new ArrayList<>();
+        eventizer.newFrontend(events::add).run();
+        return events.get(0);
+    }
+
+    private static Event<RunListener> runEventBatch() {
+        List<Event<RunListener>> events = new ArrayList<>();
+        RunListener batchSender = new RunListenerEventizer().newFrontend(events::add);
+        new ThreadBoundSuiteNotifier(ActorRef.wrap(batchSender), new RunIdSequence(), new OutputCapturer(),
+                new RunEventBatching(100, TimeUnit.HOURS.toMillis(1), 1))
+                .fireTestStarted(TestId.ROOT)
+                .fireTestFinished();
+        assertThat(events, hasSize(1));
+        return events.get(0);
+    }
+
+    private static class DummyActor implements Runnable {
+        int runCount = 0;
+
+        @Override
+        public void run() {
+            runCount++;
+        }
+    }
+}
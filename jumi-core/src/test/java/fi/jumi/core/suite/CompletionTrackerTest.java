@@ -0,0 +1,117 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.suite;
+
+import fi.jumi.core.Timeouts;
+import org.junit.*;
+import org.junit.rules.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class CompletionTrackerTest {
+
+    @Rule
+    public final Timeout timeout = Timeouts.forUnitTest();
+
+    @Rule
+    public final ExpectedException thrown = ExpectedException.none();
+
+    private final CompletionTracker tracker = new CompletionTracker();
+    private final AtomicInteger finished = new AtomicInteger();
+
+    @Test
+    public void notifies_immediately_if_nothing_was_started() {
+        tracker.afterAllFinished(finished::incrementAndGet);
+
+        assertThat(finished.get(), is(1));
+    }
+
+    @Test
+    public void notifies_when_the_last_started_task_ends() {
+        tracker.begin();
+        tracker.begin();
+        tracker.afterAllFinished(finished::incrementAndGet);
+
+        tracker.end();
+        assertThat("after first", finished.get(), is(0));
+        tracker.end();
+        assertThat("after last", finished.get(), is(1));
+    }
+
+    @Test
+    public void does_not_notify_before_the_listener_is_given_even_if_all_tasks_have_ended() {
+        tracker.begin();
+        tracker.end();
+        tracker.begin();
+
+        tracker.afterAllFinished(finished::incrementAndGet);
+        assertThat("before end", finished.get(), is(0));
+        tracker.end();
+        assertThat("after end", finished.get(), is(1));
+    }
+
+    @Test
+    public void notifies_only_once() {
+        tracker.afterAllFinished(finished::incrementAndGet);
+        tracker.begin();
+        tracker.end();
+
+        assertThat(finished.get(), is(1));
+    }
+
+    @Test
+    public void the_listener_can_be_given_only_once() {
+        tracker.begin();
+        tracker.afterAllFinished(finished::incrementAndGet);
+
+        thrown.expect(IllegalStateException.class);
+        tracker.afterAllFinished(finished::incrementAndGet);
+    }
+
+    @Test
+    public void tracks_the_commands_of_an_executor_including_commands_which_they_start() throws InterruptedException {
+        ExecutorService threadPool = Executors.newFixedThreadPool(4);
+        try {
+            Executor executor = new CompletionTrackingExecutor(threadPool, tracker);
+            List<Integer> done = new CopyOnWriteArrayList<>();
+            CountDownLatch notified = new CountDownLatch(1);
+
+            for (int i = 0; i < 100; i++) {
+                int id = i;
+                executor.execute(() -> executor.execute(() -> done.add(id)));
+            }
+            tracker.afterAllFinished(() -> {
+                finished.set(done.size());
+                notified.countDown();
+            });
+            notified.await();
+
+            assertThat("tasks done before notification", finished.get(), is(100));
+        } finally {
+            threadPool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void stops_tracking_commands_which_the_backing_executor_rejects() {
+        Executor executor = new CompletionTrackingExecutor(command -> {
+            throw new RejectedExecutionException("dummy");
+        }, tracker);
+        try {
+            executor.execute(() -> {
+            });
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        tracker.afterAllFinished(finished::incrementAndGet);
+        assertThat(finished.get(), is(1));
+    }
+}
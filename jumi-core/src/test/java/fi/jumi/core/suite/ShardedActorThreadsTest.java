@@ -0,0 +1,83 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.core.suite;
+
+import fi.jumi.actors.*;
+import fi.jumi.actors.eventizers.dynamic.DynamicEventizerProvider;
+import fi.jumi.actors.listeners.*;
+import fi.jumi.core.Timeouts;
+import fi.jumi.core.util.TestingExecutor;
+import org.junit.*;
+import org.junit.rules.Timeout;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ShardedActorThreadsTest {
+
+    @Rule
+    public final Timeout timeout = Timeouts.forUnitTest();
+
+    @Rule
+    public final TestingExecutor executor = new TestingExecutor();
+
+    private ActorThread actorThread1;
+    private ActorThread actorThread2;
+    private ShardedActorThreads shards;
+
+    @Before
+    public void setup() {
+        Actors actors = new MultiThreadedActors(
+                executor,
+                new DynamicEventizerProvider(),
+                new CrashEarlyFailureHandler(),
+                new NullMessageListener()
+        );
+        actorThread1 = actors.startActorThread();
+        actorThread2 = actors.startActorThread();
+        shards = new ShardedActorThreads(Arrays.asList(actorThread1, actorThread2));
+    }
+
+    @Test
+    public void gives_the_actor_threads_in_round_robin_order() {
+        assertThat(shards.nextActorThread(), is(actorThread1));
+        assertThat(shards.nextActorThread(), is(actorThread2));
+        assertThat(shards.nextActorThread(), is(actorThread1));
+    }
+
+    @Test
+    public void calls_the_target_after_all_previously_sent_messages_in_every_actor_thread_have_been_processed() throws Exception {
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch slowMessageMayFinish = new CountDownLatch(1);
+        CountDownLatch targetCalled = new CountDownLatch(1);
+        ActorRef<Runnable> slowActor = actorThread2.bindActor(Runnable.class, () -> {
+            try {
+                slowMessageMayFinish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add("slow message");
+        });
+
+        slowActor.tell().run();
+        shards.afterPendingMessages(() -> {
+            events.add("target");
+            targetCalled.countDown();
+        }).tell().onAllWorkersFinished();
+
+        assertThat("target called too early", targetCalled.await(50, TimeUnit.MILLISECONDS), is(false));
+        slowMessageMayFinish.countDown();
+        targetCalled.await();
+        assertThat(events, contains("slow message", "target"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requires_at_least_one_actor_thread() {
+        new ShardedActorThreads(Collections.<ActorThread>emptyList());
+    }
+}
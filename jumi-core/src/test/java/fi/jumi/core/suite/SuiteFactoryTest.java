@@ -8,12 +8,15 @@ import fi.jumi.actors.*;
 import fi.jumi.actors.listeners.NullMessageListener;
 import fi.jumi.core.api.*;
 import fi.jumi.core.config.*;
+import fi.jumi.core.stats.ActorStatistics;
 import fi.jumi.core.stdout.OutputCapturer;
 import org.apache.commons.io.output.NullOutputStream;
 import org.junit.*;
 import org.junit.rules.Timeout;
 
-import java.io.PrintStream;
+import javax.management.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
 import java.util.concurrent.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -25,10 +28,11 @@ public class SuiteFactoryTest {
     public final Timeout timeout = new Timeout(1000);
 
     private DaemonConfigurationBuilder daemon = new DaemonConfigurationBuilder();
+    private PrintStream logOutput = new PrintStream(new NullOutputStream());
     private SuiteFactory factory;
 
     private void createSuiteFactory() {
-        factory = new SuiteFactory(daemon.freeze(), new OutputCapturer(), new PrintStream(new NullOutputStream()), new NullMessageListener());
+        factory = new SuiteFactory(daemon.freeze(), new OutputCapturer(), logOutput, new NullMessageListener());
         factory.configure(new SuiteConfiguration());
     }
 
@@ -84,4 +88,39 @@ public class SuiteFactoryTest {
 
         assertThat(testThreadPool.getMaximumPoolSize(), is(3));
     }
+
+    @Test
+    public void logs_actor_statistics_when_the_suite_finishes() throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        logOutput = new PrintStream(log, true);
+        daemon.setLogActorStatistics(true);
+        createSuiteFactory();
+
+        CountDownLatch suiteFinished = new CountDownLatch(1);
+        factory.start(new NullSuiteListener() {
+            @Override
+            public void onSuiteFinished() {
+                suiteFinished.countDown();
+            }
+        });
+        suiteFinished.await();
+
+        assertThat(log.toString(), containsString("Actor statistics:"));
+        assertThat(log.toString(), containsString(SuiteRunner.class.getName()));
+    }
+
+    @Test
+    public void actor_statistics_are_readable_over_JMX_until_the_suite_factory_is_closed() throws Exception {
+        daemon.setLogActorStatistics(true);
+        createSuiteFactory();
+        MBeanServer mbeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ActorStatistics.OBJECT_NAME);
+
+        factory.start(new NullSuiteListener());
+        assertThat("registered", mbeanServer.isRegistered(name), is(true));
+        assertThat(mbeanServer.getAttribute(name, "Report"), is(instanceOf(String.class)));
+
+        factory.close();
+        assertThat("registered", mbeanServer.isRegistered(name), is(false));
+    }
 }
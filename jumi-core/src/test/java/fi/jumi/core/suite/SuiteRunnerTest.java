@@ -7,9 +7,12 @@ package fi.jumi.core.suite;
 import fi.jumi.api.drivers.*;
 import fi.jumi.core.api.*;
 import fi.jumi.core.drivers.DriverFinder;
+import fi.jumi.core.testbench.TestBench;
 import fi.jumi.core.util.MethodCallSpy;
+import org.apache.commons.io.output.NullOutputStream;
 import org.junit.Test;
 
+import java.io.PrintStream;
 import java.util.*;
 import java.util.concurrent.Executor;
 
@@ -111,6 +114,22 @@ public class SuiteRunnerTest extends SuiteRunnerIntegrationHelper {
                 stackTrace("java.lang.RuntimeException: dummy exception from test thread"));
     }
 
+    @Test
+    public void the_suite_finishes_even_if_creating_a_driver_fails() {
+        MethodCallSpy spy = new MethodCallSpy();
+        SuiteListener listener = spy.createProxyTo(SuiteListener.class);
+        TestBench testBench = new TestBench();
+        testBench.setActorsFailureHandler(new InternalErrorReportingFailureHandler(listener, new PrintStream(new NullOutputStream())));
+        testBench.setDriverFinder(testClass -> {
+            throw new IllegalArgumentException("dummy exception from driver finder");
+        });
+
+        testBench.run(listener, CLASS_1);
+
+        assertThat("internal errors", spy.countCallsTo("onInternalError"), is(1));
+        assertThat("should happen last", spy.getLastCall(), is("onSuiteFinished"));
+    }
+
 
     // guinea pigs
 
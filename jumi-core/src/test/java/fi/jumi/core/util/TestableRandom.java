@@ -50,6 +50,14 @@ public class TestableRandom implements TestRule {
         return log((byte) random.nextInt());
     }
 
+    public byte[] nextBytes(int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = nextByte();
+        }
+        return bytes;
+    }
+
     public short nextShort() {
         return log((short) random.nextInt());
     }
@@ -6,14 +6,12 @@ package fi.jumi.daemon;
 
 import fi.jumi.actors.eventizers.Event;
 import fi.jumi.actors.queue.MessageSender;
-import fi.jumi.core.api.SuiteListener;
 import fi.jumi.core.config.SuiteConfiguration;
-import fi.jumi.core.events.SuiteListenerEventizer;
+import fi.jumi.core.events.ResponseListenerEventizer;
 import fi.jumi.core.ipc.IpcCommandSender;
-import fi.jumi.core.ipc.api.RequestListener;
-import fi.jumi.core.ipc.channel.*;
-import fi.jumi.core.ipc.dirs.*;
-import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
+import fi.jumi.core.ipc.api.*;
+import fi.jumi.core.ipc.channel.WaitStrategies;
+import fi.jumi.core.ipc.dirs.DaemonDir;
 import fi.jumi.core.network.*;
 import fi.jumi.core.suite.SuiteFactory;
 import fi.jumi.core.util.timeout.*;
@@ -24,7 +22,7 @@ import java.nio.file.Path;
 import java.util.concurrent.*;
 
 @ThreadSafe
-public class DaemonNetworkEndpoint implements NetworkEndpoint<Event<RequestListener>, Event<SuiteListener>>, RequestListener {
+public class DaemonNetworkEndpoint implements NetworkEndpoint<Event<RequestListener>, Event<ResponseListener>>, RequestListener {
 
     // TODO: remove this class
 
@@ -32,21 +30,25 @@ public class DaemonNetworkEndpoint implements NetworkEndpoint<Event<RequestListe
     private final Runnable shutdownHook;
     private final Timeout startupTimeout;
     private final DaemonDir daemonDir;
+    private final WaitStrategies ipcWaitStrategy;
     private final VacancyTimeout connections;
     private final ExecutorService executor = Executors.newCachedThreadPool();
 
-    private MessageSender<Event<SuiteListener>> sender;
+    private MessageSender<Event<ResponseListener>> sender;
+    private IpcCommandSender commandSender;
 
-    public DaemonNetworkEndpoint(SuiteFactory suiteFactory, Runnable shutdownHook, Timeout startupTimeout, Timeout idleTimeout, DaemonDir daemonDir) {
+    public DaemonNetworkEndpoint(SuiteFactory suiteFactory, Runnable shutdownHook, Timeout startupTimeout, Timeout idleTimeout, DaemonDir daemonDir,
+                                 WaitStrategies ipcWaitStrategy) {
         this.suiteFactory = suiteFactory;
         this.shutdownHook = shutdownHook;
         this.startupTimeout = startupTimeout;
         this.daemonDir = daemonDir;
+        this.ipcWaitStrategy = ipcWaitStrategy;
         this.connections = new VacancyTimeout(idleTimeout);
     }
 
     @Override
-    public void onConnected(NetworkConnection connection, MessageSender<Event<SuiteListener>> sender) {
+    public void onConnected(NetworkConnection connection, MessageSender<Event<ResponseListener>> sender) {
         this.sender = sender;
         startupTimeout.cancel();
         connections.checkIn();
@@ -54,6 +56,7 @@ public class DaemonNetworkEndpoint implements NetworkEndpoint<Event<RequestListe
 
     @Override
     public void onDisconnected() {
+        closeCommandSender();
         connections.checkOut();
     }
 
@@ -64,34 +67,25 @@ public class DaemonNetworkEndpoint implements NetworkEndpoint<Event<RequestListe
 
     @Override
     public void runTests(SuiteConfiguration suite) {
-        SuiteListener suiteListener = new SuiteListenerEventizer().newFrontend(sender);
+        ResponseListener launcher = new ResponseListenerEventizer().newFrontend(sender);
 //        suiteFactory.configure(suite);
 //        suiteFactory.start(suiteListener);
 
         // XXX: routing the commands through IPC to make sure that IPC works
-        try {
-            CommandDir commandDir = daemonDir.createCommandDir();
-            IpcCommandSender sender = new IpcCommandSender(commandDir, executor);
-            Future<Path> suiteResults = sender.runTests(suite);
-            sender.close();
-
-            executor.execute(() -> {
-                try {
-                    IpcReader<SuiteListener> suiteReader = IpcChannel.reader(suiteResults.get(), SuiteListenerEncoding::new);
-                    IpcReaders.decodeAll(suiteReader, suiteListener);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    Thread.currentThread().interrupt();
-                } catch (ExecutionException e) {
-                    e.printStackTrace();
-                    throw new RuntimeException(e);
-                }
-            });
-
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
-        }
+        Future<Path> suiteResults = getCommandSender().runTests(suite);
+
+        // the launcher reads the results file directly, so only its location goes over the network
+        executor.execute(() -> {
+            try {
+                launcher.onSuiteStarted(suiteResults.get().toUri());
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        });
     }
 
     @Override
@@ -99,15 +93,29 @@ public class DaemonNetworkEndpoint implements NetworkEndpoint<Event<RequestListe
 //        shutdownHook.run();
 
         // XXX: routing the commands through IPC to make sure that IPC works
-        try {
-            CommandDir commandDir = daemonDir.createCommandDir();
-            IpcCommandSender sender = new IpcCommandSender(commandDir, executor);
-            sender.shutdown();
-            sender.close();
-
-        } catch (IOException e) {
-            e.printStackTrace();
-            throw new RuntimeException(e);
+        getCommandSender().shutdown();
+    }
+
+    /**
+     * The same command directory is used for all the commands of a connection, so that the daemon needs to notice
+     * and map a new one only once per connection.
+     */
+    private synchronized IpcCommandSender getCommandSender() {
+        if (commandSender == null) {
+            try {
+                commandSender = new IpcCommandSender(daemonDir.createCommandDir(), executor, ipcWaitStrategy);
+            } catch (IOException e) {
+                e.printStackTrace();
+                throw new RuntimeException(e);
+            }
+        }
+        return commandSender;
+    }
+
+    private synchronized void closeCommandSender() {
+        if (commandSender != null) {
+            commandSender.close();
+            commandSender = null;
         }
     }
 }
@@ -21,6 +21,7 @@ import fi.jumi.core.util.timeout.*;
 
 import javax.annotation.concurrent.*;
 import java.io.*;
+import java.nio.channels.FileLock;
 import java.nio.charset.Charset;
 import java.util.concurrent.*;
 
@@ -35,6 +36,9 @@ public class Main {
     private static final PrintStream stdout = System.out;
     private static final PrintStream stderr = System.err;
 
+    // Guaranteed to stay reachable, so that the lock is not released by garbage collection
+    private static FileLock daemonDirLock;
+
     public static void main(String[] args) throws IOException {
         stdout.println("Jumi " + DaemonArtifact.getVersion() + " starting up");
 
@@ -67,6 +71,7 @@ public class Main {
 
         // listen for commands through IPC files
         DaemonDir daemonDir = new DaemonDir(config.getDaemonDir());
+        daemonDirLock = daemonDir.lock(); // prevents the launchers from deleting the directory while we are running
         Executor executor = Executors.newCachedThreadPool(new PrefixedThreadFactory("jumi-ipc-"));
         MultiThreadedActors actors = new MultiThreadedActors(
                 executor,
@@ -77,12 +82,12 @@ public class Main {
                 new PrintStreamFailureLogger(logOutput),
                 actorMessageLogger
         );
-        executor.execute(new CommandsDirectoryObserver(daemonDir, executor, actors.startActorThread(), new MyCommandListener(suiteFactory)));
+        executor.execute(new CommandsDirectoryObserver(daemonDir, executor, actors.startActorThread(), new MyCommandListener(suiteFactory), config, logOutput));
 
         // listen for commands through network sockets
         NetworkClient client = new NettyNetworkClient();
         client.connect("127.0.0.1", config.getLauncherPort(),
-                new DaemonNetworkEndpoint(suiteFactory, SHUTDOWN_ON_USER_COMMAND, startupTimeout, idleTimeout, daemonDir));
+                new DaemonNetworkEndpoint(suiteFactory, SHUTDOWN_ON_USER_COMMAND, startupTimeout, idleTimeout, daemonDir, config.getIpcWaitStrategy()));
     }
 
     @NotThreadSafe
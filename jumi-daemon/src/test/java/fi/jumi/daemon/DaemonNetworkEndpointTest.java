@@ -6,7 +6,7 @@ package fi.jumi.daemon;
 
 import fi.jumi.actors.eventizers.Event;
 import fi.jumi.actors.queue.MessageQueue;
-import fi.jumi.core.api.SuiteListener;
+import fi.jumi.core.ipc.api.ResponseListener;
 import fi.jumi.core.network.NetworkConnection;
 import fi.jumi.core.util.timeout.SpyTimeout;
 import org.junit.*;
@@ -18,11 +18,11 @@ import static org.mockito.Mockito.mock;
 public class DaemonNetworkEndpointTest {
 
     private final NetworkConnection unimportantConnection = mock(NetworkConnection.class);
-    private final MessageQueue<Event<SuiteListener>> unimportantSender = new MessageQueue<>();
+    private final MessageQueue<Event<ResponseListener>> unimportantSender = new MessageQueue<>();
     private final SpyTimeout startupTimeout = new SpyTimeout();
     private final SpyTimeout idleTimeout = new SpyTimeout();
 
-    private final DaemonNetworkEndpoint endpoint = new DaemonNetworkEndpoint(null, null, startupTimeout, idleTimeout, null);
+    private final DaemonNetworkEndpoint endpoint = new DaemonNetworkEndpoint(null, null, startupTimeout, idleTimeout, null, null);
 
     @Before
     public void setInitialTimeoutStates() {
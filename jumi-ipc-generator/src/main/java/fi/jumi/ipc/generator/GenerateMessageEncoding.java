@@ -0,0 +1,32 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.ipc.generator;
+
+import java.lang.annotation.*;
+
+/**
+ * Generates a {@code MessageEncoding} for the annotated listener interface. The generated class is named
+ * after the interface, e.g. {@code FooListener} gets {@code FooListenerEncoding}.
+ * <p>
+ * Each method gets a one-byte tag in declaration order, and the interface version is a hash of the method
+ * signatures, so changing the interface in any way makes the old and new versions incompatible.
+ * Parameters of primitive types are written with a fixed size. Parameters of other types are written
+ * using the {@code writeX} and {@code readX} methods of {@link #fieldEncoding}, where {@code X} is the
+ * simple name of the type (with {@code Array} appended for arrays).
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateMessageEncoding {
+
+    String targetPackage();
+
+    /**
+     * The superclass of the generated encoding. It must have a constructor taking an {@code IpcBuffer},
+     * a {@code buffer} field, {@code writeEventType(byte)} and {@code readEventType()} methods, and
+     * the read and write methods for all non-primitive parameter types.
+     */
+    Class<?> fieldEncoding();
+}
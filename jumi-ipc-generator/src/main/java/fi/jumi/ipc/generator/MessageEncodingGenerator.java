@@ -0,0 +1,333 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.ipc.generator;
+
+import javax.annotation.processing.*;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.*;
+import javax.lang.model.util.*;
+import javax.tools.*;
+import java.io.*;
+import java.util.*;
+
+@SupportedAnnotationTypes("fi.jumi.ipc.generator.GenerateMessageEncoding")
+public class MessageEncodingGenerator extends AbstractProcessor {
+
+    private static final String MESSAGE_ENCODING = "fi.jumi.core.ipc.encoding.MessageEncoding";
+    private static final String IPC_BUFFER = "fi.jumi.core.ipc.buffer.IpcBuffer";
+    private static final String EVENT = "fi.jumi.actors.eventizers.Event";
+    private static final int MAX_TAG = Byte.MAX_VALUE;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateMessageEncoding.class)) {
+            try {
+                generate((TypeElement) element);
+            } catch (InvalidInterfaceException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), e.element);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Failed to generate the encoding: " + e, element);
+            }
+        }
+        return true;
+    }
+
+    private void generate(TypeElement listener) throws IOException {
+        if (listener.getKind() != ElementKind.INTERFACE) {
+            throw new InvalidInterfaceException("Only interfaces can have a generated encoding", listener);
+        }
+        GenerateMessageEncoding annotation = listener.getAnnotation(GenerateMessageEncoding.class);
+        TypeElement fieldEncoding = getFieldEncoding(listener);
+        List<Message> messages = getMessages(listener, fieldEncoding);
+
+        String className = listener.getSimpleName() + "Encoding";
+        String qualifiedName = annotation.targetPackage() + "." + className;
+        JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, listener);
+        try (Writer out = file.openWriter()) {
+            out.write(new EncodingSource(annotation.targetPackage(), className, listener, fieldEncoding, messages).toString());
+        }
+    }
+
+    private TypeElement getFieldEncoding(TypeElement listener) {
+        // reading a Class value from the annotation directly would fail, because the class has not been compiled
+        for (AnnotationMirror mirror : listener.getAnnotationMirrors()) {
+            if (!mirror.getAnnotationType().toString().equals(GenerateMessageEncoding.class.getName())) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("fieldEncoding")) {
+                    DeclaredType type = (DeclaredType) entry.getValue().getValue();
+                    return (TypeElement) type.asElement();
+                }
+            }
+        }
+        throw new InvalidInterfaceException("fieldEncoding not specified", listener);
+    }
+
+    private List<Message> getMessages(TypeElement listener, TypeElement fieldEncoding) {
+        List<ExecutableElement> fieldMethods = ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(fieldEncoding));
+        findCodec("EventType", processingEnv.getTypeUtils().getPrimitiveType(TypeKind.BYTE), fieldMethods, listener);
+
+        List<Message> messages = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(listener.getEnclosedElements())) {
+            if (method.getModifiers().contains(Modifier.STATIC) || method.getModifiers().contains(Modifier.DEFAULT)) {
+                continue;
+            }
+            if (method.getReturnType().getKind() != TypeKind.VOID) {
+                throw new InvalidInterfaceException("Only void methods can be sent as messages", method);
+            }
+            if (!method.getTypeParameters().isEmpty()) {
+                throw new InvalidInterfaceException("Generic methods are not supported", method);
+            }
+            if (!names.add(method.getSimpleName().toString())) {
+                throw new InvalidInterfaceException("Overloaded methods are not supported", method);
+            }
+            List<Field> fields = new ArrayList<>();
+            for (VariableElement parameter : method.getParameters()) {
+                fields.add(getField(parameter, fieldMethods));
+            }
+            messages.add(new Message(method.getSimpleName().toString(), messages.size() + 1, fields));
+        }
+        if (messages.size() > MAX_TAG) {
+            throw new InvalidInterfaceException("At most " + MAX_TAG + " methods are supported, but there were " + messages.size(), listener);
+        }
+        return messages;
+    }
+
+    private Field getField(VariableElement parameter, List<ExecutableElement> fieldMethods) {
+        TypeMirror type = parameter.asType();
+        String name = parameter.getSimpleName().toString();
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return new Field(name, "boolean", "buffer.writeByte((byte) (%s ? 1 : 0))", "buffer.readByte() != 0");
+            case BYTE:
+                return new Field(name, "byte", "buffer.writeByte(%s)", "buffer.readByte()");
+            case SHORT:
+                return new Field(name, "short", "buffer.writeShort(%s)", "buffer.readShort()");
+            case CHAR:
+                return new Field(name, "char", "buffer.writeChar(%s)", "buffer.readChar()");
+            case INT:
+                return new Field(name, "int", "buffer.writeInt(%s)", "buffer.readInt()");
+            case LONG:
+                return new Field(name, "long", "buffer.writeLong(%s)", "buffer.readLong()");
+            case DECLARED:
+            case ARRAY:
+                String codec = codecName(type);
+                findCodec(codec, type, fieldMethods, parameter);
+                return new Field(name, type.toString(), "write" + codec + "(%s)", "read" + codec + "()");
+            default:
+                throw new InvalidInterfaceException("Unsupported parameter type: " + type, parameter);
+        }
+    }
+
+    private String codecName(TypeMirror type) {
+        if (type.getKind() == TypeKind.ARRAY) {
+            return codecName(((ArrayType) type).getComponentType()) + "Array";
+        }
+        if (type.getKind().isPrimitive()) {
+            String name = type.getKind().name().toLowerCase(Locale.ROOT);
+            return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        }
+        return ((DeclaredType) type).asElement().getSimpleName().toString();
+    }
+
+    private void findCodec(String codec, TypeMirror type, List<ExecutableElement> fieldMethods, Element user) {
+        Types types = processingEnv.getTypeUtils();
+        boolean canWrite = false;
+        boolean canRead = false;
+        for (ExecutableElement method : fieldMethods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)) {
+                continue;
+            }
+            List<? extends VariableElement> parameters = method.getParameters();
+            if (method.getSimpleName().contentEquals("write" + codec)
+                    && parameters.size() == 1
+                    && types.isAssignable(type, parameters.get(0).asType())) {
+                canWrite = true;
+            }
+            if (method.getSimpleName().contentEquals("read" + codec)
+                    && parameters.isEmpty()
+                    && types.isAssignable(method.getReturnType(), type)) {
+                canRead = true;
+            }
+        }
+        if (!canWrite || !canRead) {
+            throw new InvalidInterfaceException("The field encoding has no write" + codec + "(" + type + ") and " +
+                    "read" + codec + "() methods", user);
+        }
+    }
+
+
+    static class Message {
+        final String name;
+        final int tag;
+        final List<Field> fields;
+
+        Message(String name, int tag, List<Field> fields) {
+            this.name = name;
+            this.tag = tag;
+            this.fields = fields;
+        }
+
+        String signature() {
+            StringBuilder sb = new StringBuilder(name).append('(');
+            for (int i = 0; i < fields.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(fields.get(i).type);
+            }
+            return sb.append(')').toString();
+        }
+    }
+
+    static class Field {
+        final String name;
+        final String type;
+        final String writeTemplate;
+        final String readExpression;
+
+        Field(String name, String type, String writeTemplate, String readExpression) {
+            this.name = name;
+            this.type = type;
+            this.writeTemplate = writeTemplate;
+            this.readExpression = readExpression;
+        }
+    }
+
+    private static class InvalidInterfaceException extends RuntimeException {
+        final Element element;
+
+        InvalidInterfaceException(String message, Element element) {
+            super(message);
+            this.element = element;
+        }
+    }
+
+
+    private static class EncodingSource {
+        private final StringBuilder sb = new StringBuilder();
+
+        EncodingSource(String packageName, String className, TypeElement listener, TypeElement fieldEncoding, List<Message> messages) {
+            String listenerName = listener.getQualifiedName().toString();
+            line(0, "// Generated by " + MessageEncodingGenerator.class.getName() + " from " + listener.getQualifiedName());
+            line(0, "");
+            line(0, "package " + packageName + ";");
+            line(0, "");
+            line(0, "@javax.annotation.concurrent.NotThreadSafe");
+            line(0, "public class " + className + " extends " + fieldEncoding.getQualifiedName()
+                    + " implements " + listenerName + ", " + MESSAGE_ENCODING + "<" + listenerName + "> {");
+            line(0, "");
+            line(1, "/**");
+            line(1, " * Hash of the method signatures, used as the interface version.");
+            line(1, " */");
+            line(1, "public static final int SCHEMA_HASH = " + schemaHash(listenerName, messages) + ";");
+            line(0, "");
+            for (Message message : messages) {
+                line(1, "private static final byte " + message.name + " = " + message.tag + ";");
+            }
+            line(0, "");
+            line(1, "public " + className + "(" + IPC_BUFFER + " buffer) {");
+            line(2, "super(buffer);");
+            line(1, "}");
+            line(0, "");
+            line(1, "@Override");
+            line(1, "public String getInterfaceName() {");
+            line(2, "return \"" + listenerName + "\";");
+            line(1, "}");
+            line(0, "");
+            line(1, "@Override");
+            line(1, "public int getInterfaceVersion() {");
+            line(2, "return SCHEMA_HASH;");
+            line(1, "}");
+            line(0, "");
+            line(1, "@Override");
+            line(1, "public boolean supportsInterfaceVersion(int version) {");
+            line(2, "return version == SCHEMA_HASH;");
+            line(1, "}");
+            line(0, "");
+            line(1, "@Override");
+            line(1, "public void setInterfaceVersion(int version) {");
+            line(2, "if (!supportsInterfaceVersion(version)) {");
+            line(3, "throw new IllegalArgumentException(\"unsupported interface version: \" + version);");
+            line(2, "}");
+            line(1, "}");
+            line(0, "");
+            line(1, "@Override");
+            line(1, "public void encode(" + EVENT + "<" + listenerName + "> message) {");
+            line(2, "message.fireOn(this);");
+            line(1, "}");
+            line(0, "");
+            line(1, "@Override");
+            line(1, "public void decode(" + listenerName + " target) {");
+            line(2, "byte type = readEventType();");
+            line(2, "switch (type) {");
+            for (Message message : messages) {
+                StringBuilder args = new StringBuilder();
+                for (Field field : message.fields) {
+                    if (args.length() > 0) {
+                        args.append(", ");
+                    }
+                    args.append(field.readExpression);
+                }
+                line(3, "case " + message.name + ":");
+                line(4, "target." + message.name + "(" + args + ");");
+                line(4, "break;");
+            }
+            line(3, "default:");
+            line(4, "throw new IllegalArgumentException(\"Unknown type \" + type);");
+            line(2, "}");
+            line(1, "}");
+            for (Message message : messages) {
+                StringBuilder params = new StringBuilder();
+                for (Field field : message.fields) {
+                    if (params.length() > 0) {
+                        params.append(", ");
+                    }
+                    params.append(field.type).append(' ').append(field.name);
+                }
+                line(0, "");
+                line(1, "@Override");
+                line(1, "public void " + message.name + "(" + params + ") {");
+                line(2, "writeEventType(" + message.name + ");");
+                for (Field field : message.fields) {
+                    line(2, String.format(field.writeTemplate, field.name) + ";");
+                }
+                line(1, "}");
+            }
+            line(0, "}");
+        }
+
+        private void line(int indent, String s) {
+            for (int i = 0; i < indent; i++) {
+                sb.append("    ");
+            }
+            sb.append(s).append('\n');
+        }
+
+        @Override
+        public String toString() {
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Positive, so that it is a valid interface version.
+     */
+    static int schemaHash(String listenerName, List<Message> messages) {
+        StringBuilder schema = new StringBuilder(listenerName);
+        for (Message message : messages) {
+            schema.append('\n').append(message.signature());
+        }
+        return Math.max(1, schema.toString().hashCode() & Integer.MAX_VALUE);
+    }
+}
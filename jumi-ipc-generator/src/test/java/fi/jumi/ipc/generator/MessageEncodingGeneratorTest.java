@@ -0,0 +1,149 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.ipc.generator;
+
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.*;
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class MessageEncodingGeneratorTest {
+
+    private static final String FIELD_ENCODING = "" +
+            "package example;\n" +
+            "public abstract class ExampleFieldEncoding {\n" +
+            "    protected final fi.jumi.core.ipc.buffer.IpcBuffer buffer;\n" +
+            "    public ExampleFieldEncoding(fi.jumi.core.ipc.buffer.IpcBuffer buffer) { this.buffer = buffer; }\n" +
+            "    protected void writeEventType(byte type) { buffer.writeByte(type); }\n" +
+            "    protected byte readEventType() { return buffer.readByte(); }\n" +
+            "    protected void writeString(String s) { }\n" +
+            "    protected String readString() { return null; }\n" +
+            "}\n";
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private final StringWriter compilerOutput = new StringWriter();
+
+    @Test
+    public void generates_an_encoding_with_a_tag_for_each_method_in_declaration_order() throws IOException {
+        String source = compile("" +
+                "package example;\n" +
+                "@fi.jumi.ipc.generator.GenerateMessageEncoding(targetPackage = \"example.encoding\", fieldEncoding = ExampleFieldEncoding.class)\n" +
+                "public interface ExampleListener {\n" +
+                "    void onFirst(String text, int count);\n" +
+                "    void onSecond(long position, boolean flag);\n" +
+                "}\n");
+
+        assertThat(source, containsString("@javax.annotation.concurrent.NotThreadSafe\npublic class ExampleListenerEncoding extends example.ExampleFieldEncoding"));
+        assertThat(source, containsString("private static final byte onFirst = 1;"));
+        assertThat(source, containsString("private static final byte onSecond = 2;"));
+        assertThat(source, containsString("target.onFirst(readString(), buffer.readInt());"));
+        assertThat(source, containsString("buffer.writeByte((byte) (flag ? 1 : 0));"));
+    }
+
+    @Test
+    public void reports_parameter_types_which_the_field_encoding_does_not_support() throws IOException {
+        compileWithErrors("" +
+                "package example;\n" +
+                "@fi.jumi.ipc.generator.GenerateMessageEncoding(targetPackage = \"example.encoding\", fieldEncoding = ExampleFieldEncoding.class)\n" +
+                "public interface ExampleListener {\n" +
+                "    void onEvent(java.net.URI uri);\n" +
+                "}\n");
+
+        assertThat(compilerOutput.toString(), containsString("The field encoding has no writeURI(java.net.URI) and readURI() methods"));
+    }
+
+    @Test
+    public void schema_hash_changes_when_a_method_signature_changes() {
+        MessageEncodingGenerator.Field text = new MessageEncodingGenerator.Field("text", "java.lang.String", "", "");
+        MessageEncodingGenerator.Field count = new MessageEncodingGenerator.Field("count", "int", "", "");
+
+        int original = MessageEncodingGenerator.schemaHash("Foo", Arrays.asList(
+                new MessageEncodingGenerator.Message("onEvent", 1, Arrays.asList(text))));
+        int sameAgain = MessageEncodingGenerator.schemaHash("Foo", Arrays.asList(
+                new MessageEncodingGenerator.Message("onEvent", 1, Arrays.asList(text))));
+        int newParameter = MessageEncodingGenerator.schemaHash("Foo", Arrays.asList(
+                new MessageEncodingGenerator.Message("onEvent", 1, Arrays.asList(text, count))));
+        int renamedMethod = MessageEncodingGenerator.schemaHash("Foo", Arrays.asList(
+                new MessageEncodingGenerator.Message("onOther", 1, Arrays.asList(text))));
+
+        assertThat(sameAgain, is(original));
+        assertThat(newParameter, is(not(original)));
+        assertThat(renamedMethod, is(not(original)));
+        assertThat(original, is(greaterThanOrEqualTo(1)));
+    }
+
+
+    // helpers
+
+    private String compile(String listener) throws IOException {
+        boolean success = runCompiler(listener);
+        assertThat(compilerOutput.toString(), success, is(true));
+        Path generated = tempDir.getRoot().toPath().resolve("generated/example/encoding/ExampleListenerEncoding.java");
+        return new String(Files.readAllBytes(generated), StandardCharsets.UTF_8);
+    }
+
+    private void compileWithErrors(String listener) throws IOException {
+        assertThat("compilation should have failed", runCompiler(listener), is(false));
+    }
+
+    private boolean runCompiler(String listener) throws IOException {
+        File classes = tempDir.newFolder("classes");
+        File generated = tempDir.newFolder("generated");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        List<String> options = Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-processor", MessageEncodingGenerator.class.getName(),
+                "-d", classes.getPath(),
+                "-s", generated.getPath());
+        List<JavaFileObject> sources = Arrays.asList(
+                source("example/ExampleListener", listener),
+                source("example/ExampleFieldEncoding", FIELD_ENCODING),
+                source("fi/jumi/core/ipc/buffer/IpcBuffer", "" +
+                        "package fi.jumi.core.ipc.buffer;\n" +
+                        "public class IpcBuffer {\n" +
+                        "    public IpcBuffer writeByte(byte value) { return this; }\n" +
+                        "    public byte readByte() { return 0; }\n" +
+                        "    public IpcBuffer writeInt(int value) { return this; }\n" +
+                        "    public int readInt() { return 0; }\n" +
+                        "    public IpcBuffer writeLong(long value) { return this; }\n" +
+                        "    public long readLong() { return 0; }\n" +
+                        "}\n"),
+                source("fi/jumi/core/ipc/encoding/MessageEncoding", "" +
+                        "package fi.jumi.core.ipc.encoding;\n" +
+                        "public interface MessageEncoding<T> {\n" +
+                        "    String getInterfaceName();\n" +
+                        "    int getInterfaceVersion();\n" +
+                        "    boolean supportsInterfaceVersion(int version);\n" +
+                        "    void setInterfaceVersion(int version);\n" +
+                        "    void encode(fi.jumi.actors.eventizers.Event<T> message);\n" +
+                        "    void decode(T target);\n" +
+                        "}\n"),
+                source("fi/jumi/actors/eventizers/Event", "" +
+                        "package fi.jumi.actors.eventizers;\n" +
+                        "public interface Event<T> {\n" +
+                        "    void fireOn(T target);\n" +
+                        "}\n"));
+        return compiler.getTask(compilerOutput, null, null, options, null, sources).call();
+    }
+
+    private static JavaFileObject source(String path, String content) {
+        return new SimpleJavaFileObject(URI.create("string:///" + path + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+}
@@ -48,7 +48,7 @@ public class JumiLauncherBuilder {
                 networkServer,
                 daemonOutputListener
         ));
-        ActorRef<SuiteLauncher> suiteLauncher = actorThread.bindActor(SuiteLauncher.class, new RemoteSuiteLauncher(actorThread, daemonSummoner));
+        ActorRef<SuiteLauncher> suiteLauncher = actorThread.bindActor(SuiteLauncher.class, new RemoteSuiteLauncher(actorThread, daemonSummoner, actorsThreadPool));
 
         return new JumiLauncher(suiteLauncher, () -> {
             networkServer.close();
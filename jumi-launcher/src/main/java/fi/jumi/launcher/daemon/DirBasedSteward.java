@@ -1,20 +1,22 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
 package fi.jumi.launcher.daemon;
 
-import fi.jumi.core.ipc.dirs.UniqueDirectories;
-import org.apache.commons.io.IOUtils;
+import fi.jumi.core.ipc.dirs.*;
+import org.apache.commons.io.*;
 
 import javax.annotation.concurrent.NotThreadSafe;
 import java.io.*;
 import java.nio.file.*;
+import java.util.List;
 
 @NotThreadSafe
 public class DirBasedSteward implements Steward {
 
     private static final String DAEMONS_DIR = "daemons";
+    private static final int RETAINED_DAEMON_DIRS = 10; // the daemon dirs may be in RAM, e.g. under /dev/shm
 
     private final DaemonJar daemonJar;
 
@@ -23,12 +25,35 @@ public class DirBasedSteward implements Steward {
     }
 
     @Override
-    public Path createDaemonDir(Path jumiHome) {
+    public Path createDaemonDir(Path ipcHome) {
+        Path daemonsDir = ipcHome.resolve(DAEMONS_DIR);
+        Path daemonDir;
         try {
-            return UniqueDirectories.createUniqueDir(jumiHome.resolve(DAEMONS_DIR), System.currentTimeMillis());
+            daemonDir = UniqueDirectories.createNewestDir(daemonsDir, System.currentTimeMillis());
         } catch (IOException e) {
             throw new RuntimeException("Unable to create daemon directory", e);
         }
+        deleteUnusedDaemonDirs(daemonsDir);
+        return daemonDir;
+    }
+
+    private static void deleteUnusedDaemonDirs(Path daemonsDir) {
+        List<Path> oldDirs;
+        try {
+            oldDirs = UniqueDirectories.allButNewest(daemonsDir, RETAINED_DAEMON_DIRS);
+        } catch (IOException e) {
+            return; // best effort
+        }
+        for (Path oldDir : oldDirs) {
+            // the daemons of other launchers may still be running, however old their directories are
+            try {
+                if (!new DaemonDir(oldDir).isInUse()) {
+                    FileUtils.deleteDirectory(oldDir.toFile());
+                }
+            } catch (IOException e) {
+                // best effort; another launcher may be deleting the same directories concurrently
+            }
+        }
     }
 
     @Override
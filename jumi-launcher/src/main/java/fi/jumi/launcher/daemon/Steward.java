@@ -8,7 +8,7 @@ import java.nio.file.Path;
 
 public interface Steward {
 
-    Path createDaemonDir(Path jumiHome);
+    Path createDaemonDir(Path ipcHome);
 
     Path getDaemonJar(Path jumiHome);
 }
@@ -8,11 +8,11 @@ import fi.jumi.actors.eventizers.Event;
 import fi.jumi.actors.generator.GenerateEventizer;
 import fi.jumi.actors.queue.MessageSender;
 import fi.jumi.core.api.SuiteListener;
-import fi.jumi.core.ipc.api.RequestListener;
+import fi.jumi.core.ipc.api.*;
 import fi.jumi.core.network.*;
 
 @GenerateEventizer(targetPackage = "fi.jumi.launcher.events")
-public interface DaemonListener extends NetworkEndpoint<Event<SuiteListener>, Event<RequestListener>> {
+public interface DaemonListener extends NetworkEndpoint<Event<ResponseListener>, Event<RequestListener>> {
 
     // XXX: overrides needed due to jumi-actors-generator not yet supporting inheritance
 
@@ -23,5 +23,10 @@ public interface DaemonListener extends NetworkEndpoint<Event<SuiteListener>, Ev
     void onDisconnected();
 
     @Override
-    void onMessage(Event<SuiteListener> message);
+    void onMessage(Event<ResponseListener> message);
+
+    /**
+     * For events which are not read from the daemon's results file, e.g. failing to start the daemon.
+     */
+    void onSuiteEvent(Event<SuiteListener> message);
 }
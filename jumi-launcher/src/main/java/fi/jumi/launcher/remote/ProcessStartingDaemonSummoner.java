@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -11,7 +11,7 @@ import fi.jumi.actors.queue.*;
 import fi.jumi.core.api.*;
 import fi.jumi.core.config.*;
 import fi.jumi.core.events.suiteListener.*;
-import fi.jumi.core.ipc.api.RequestListener;
+import fi.jumi.core.ipc.api.*;
 import fi.jumi.core.network.*;
 import fi.jumi.core.util.Boilerplate;
 import fi.jumi.core.util.timeout.InitialMessageTimeout;
@@ -54,8 +54,10 @@ public class ProcessStartingDaemonSummoner implements DaemonSummoner {
         int port = daemonConnector.listenOnAnyPort(
                 new OneTimeDaemonListenerFactory(
                         withInitialMessageTimeout(listener.tell(), daemon.getStartupTimeout())));
+        // shown together with the daemon's log output, before the daemon starts writing to it
+        PrintStream daemonLog = new PrintStream(outputListener, true);
         daemon = daemon.melt()
-                .setDaemonDir(steward.createDaemonDir(daemon.getJumiHome()))
+                .setDaemonDir(steward.createDaemonDir(daemon.getIpcDirLocation().resolve(daemon.getJumiHome(), daemonLog)))
                 .setLauncherPort(port)
                 .freeze();
 
@@ -85,10 +87,10 @@ public class ProcessStartingDaemonSummoner implements DaemonSummoner {
     private static MessageReceiver<Event<DaemonListener>> getTimeoutMessages(long timeoutMillis) {
         MessageQueue<Event<DaemonListener>> timeoutMessages = new MessageQueue<>();
         DaemonListener listener = eventizer.newFrontend(timeoutMessages);
-        listener.onMessage(new OnSuiteStartedEvent());
-        listener.onMessage(new OnInternalErrorEvent("Failed to start the test runner daemon process",
+        listener.onSuiteEvent(new OnSuiteStartedEvent());
+        listener.onSuiteEvent(new OnInternalErrorEvent("Failed to start the test runner daemon process",
                 StackTrace.from(new RuntimeException("Could not connect to the daemon: timed out after " + timeoutMillis + " ms"))));
-        listener.onMessage(new OnSuiteFinishedEvent());
+        listener.onSuiteEvent(new OnSuiteFinishedEvent());
         return timeoutMessages;
     }
 
@@ -109,7 +111,7 @@ public class ProcessStartingDaemonSummoner implements DaemonSummoner {
     }
 
     @ThreadSafe
-    private static class OneTimeDaemonListenerFactory implements NetworkEndpointFactory<Event<SuiteListener>, Event<RequestListener>> {
+    private static class OneTimeDaemonListenerFactory implements NetworkEndpointFactory<Event<ResponseListener>, Event<RequestListener>> {
 
         private final BlockingQueue<DaemonListener> oneTimeListener = new ArrayBlockingQueue<>(1);
 
@@ -118,7 +120,7 @@ public class ProcessStartingDaemonSummoner implements DaemonSummoner {
         }
 
         @Override
-        public NetworkEndpoint<Event<SuiteListener>, Event<RequestListener>> createEndpoint() {
+        public NetworkEndpoint<Event<ResponseListener>, Event<RequestListener>> createEndpoint() {
             DaemonListener listener = oneTimeListener.poll();
             if (listener == null) {
                 throw new IllegalStateException("already connected once");
@@ -1,4 +1,4 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -7,29 +7,36 @@ package fi.jumi.launcher.remote;
 import fi.jumi.actors.*;
 import fi.jumi.actors.eventizers.Event;
 import fi.jumi.actors.queue.MessageSender;
-import fi.jumi.core.api.*;
+import fi.jumi.core.api.SuiteListener;
 import fi.jumi.core.config.*;
 import fi.jumi.core.events.RequestListenerEventizer;
-import fi.jumi.core.events.suiteListener.*;
-import fi.jumi.core.ipc.api.RequestListener;
+import fi.jumi.core.ipc.api.*;
+import fi.jumi.core.ipc.channel.IpcStreamer;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
 import fi.jumi.core.network.NetworkConnection;
 
 import javax.annotation.concurrent.NotThreadSafe;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.concurrent.Executor;
 
 @NotThreadSafe
-public class RemoteSuiteLauncher implements SuiteLauncher, DaemonListener {
+public class RemoteSuiteLauncher implements SuiteLauncher, DaemonListener, ResponseListener {
 
     private final ActorThread currentThread;
     private final ActorRef<DaemonSummoner> daemonSummoner;
+    private final Executor suiteResultsReaders;
 
     private SuiteConfiguration suiteConfiguration;
+    private DaemonConfiguration daemonConfiguration;
     private MessageSender<Event<SuiteListener>> suiteListener;
     private RequestListener daemon;
-    private final SuiteState suiteState = new SuiteState();
+    private SuiteResultsReader suiteResults;
 
-    public RemoteSuiteLauncher(ActorThread currentThread, ActorRef<DaemonSummoner> daemonSummoner) {
+    public RemoteSuiteLauncher(ActorThread currentThread, ActorRef<DaemonSummoner> daemonSummoner, Executor suiteResultsReaders) {
         this.currentThread = currentThread;
         this.daemonSummoner = daemonSummoner;
+        this.suiteResultsReaders = suiteResultsReaders;
     }
 
     @Override
@@ -37,6 +44,7 @@ public class RemoteSuiteLauncher implements SuiteLauncher, DaemonListener {
                          DaemonConfiguration daemonConfiguration,
                          MessageSender<Event<SuiteListener>> suiteListener) {
         this.suiteConfiguration = suiteConfiguration;
+        this.daemonConfiguration = daemonConfiguration;
         this.suiteListener = suiteListener;
         daemonSummoner.tell().connectToDaemon(suiteConfiguration, daemonConfiguration, self());
     }
@@ -56,17 +64,27 @@ public class RemoteSuiteLauncher implements SuiteLauncher, DaemonListener {
     }
 
     @Override
-    public void onMessage(Event<SuiteListener> message) {
+    public void onMessage(Event<ResponseListener> message) {
+        message.fireOn(this);
+    }
+
+    @Override
+    public void onSuiteStarted(URI suiteResults) {
+        // reading the results file directly instead of the daemon forwarding every event over the network
+        IpcStreamer<SuiteListener> streamer = new IpcStreamer<>(Paths.get(suiteResults), SuiteListenerEncoding::new, suiteResultsReaders);
+        this.suiteResults = new SuiteResultsReader(streamer, daemonConfiguration.getIpcWaitStrategy(), suiteListener);
+        suiteResultsReaders.execute(this.suiteResults);
+    }
+
+    @Override
+    public void onSuiteEvent(Event<SuiteListener> message) {
         suiteListener.send(message);
-        message.fireOn(suiteState);
     }
 
     @Override
     public void onDisconnected() {
-        if (suiteState.inProgress) {
-            suiteListener.send(new OnInternalErrorEvent("The test runner daemon process disconnected or died unexpectedly",
-                    StackTrace.from(new Exception("disconnected"))));
-            suiteListener.send(new OnSuiteFinishedEvent());
+        if (suiteResults != null) {
+            suiteResults.onDaemonDisconnected();
         }
 
         // TODO: Should we reconnect or something? For now let's defer implementing this, because
@@ -79,21 +97,4 @@ public class RemoteSuiteLauncher implements SuiteLauncher, DaemonListener {
     private ActorRef<DaemonListener> self() {
         return currentThread.bindActor(DaemonListener.class, this);
     }
-
-
-    @NotThreadSafe
-    private static class SuiteState extends NullSuiteListener {
-
-        public boolean inProgress = false;
-
-        @Override
-        public void onSuiteStarted() {
-            inProgress = true;
-        }
-
-        @Override
-        public void onSuiteFinished() {
-            inProgress = false;
-        }
-    }
 }
@@ -0,0 +1,73 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.launcher.remote;
+
+import fi.jumi.actors.eventizers.Event;
+import fi.jumi.actors.queue.MessageSender;
+import fi.jumi.core.api.*;
+import fi.jumi.core.events.SuiteListenerEventizer;
+import fi.jumi.core.events.suiteListener.*;
+import fi.jumi.core.ipc.channel.*;
+
+import javax.annotation.concurrent.*;
+
+/**
+ * Reads the suite results file while the daemon is writing it. If the daemon dies in the middle of the suite,
+ * reports it after reading everything that the daemon managed to write.
+ */
+@ThreadSafe
+public class SuiteResultsReader implements Runnable {
+
+    private final IpcStreamer<SuiteListener> suiteResults;
+    private final WaitStrategies waitStrategy;
+    private final MessageSender<Event<SuiteListener>> target;
+
+    public SuiteResultsReader(IpcStreamer<SuiteListener> suiteResults, WaitStrategies waitStrategy, MessageSender<Event<SuiteListener>> target) {
+        this.suiteResults = suiteResults;
+        this.waitStrategy = waitStrategy;
+        this.target = target;
+    }
+
+    public void onDaemonDisconnected() {
+        suiteResults.onWriterGone();
+    }
+
+    @Override
+    public void run() {
+        SuiteState suiteState = new SuiteState();
+        SuiteListener listener = new SuiteListenerEventizer().newFrontend(message -> {
+            target.send(message);
+            message.fireOn(suiteState);
+        });
+        try {
+            suiteResults.read(listener, waitStrategy);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (suiteState.inProgress) {
+            target.send(new OnInternalErrorEvent("The test runner daemon process disconnected or died unexpectedly",
+                    StackTrace.from(new Exception("disconnected"))));
+            target.send(new OnSuiteFinishedEvent());
+        }
+    }
+
+
+    @NotThreadSafe
+    private static class SuiteState extends NullSuiteListener {
+
+        public boolean inProgress = false;
+
+        @Override
+        public void onSuiteStarted() {
+            inProgress = true;
+        }
+
+        @Override
+        public void onSuiteFinished() {
+            inProgress = false;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.launcher.ui;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+import fi.jumi.core.results.*;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.*;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Prints individual runs from a suite results file, seeking to them using {@link SuiteResultsIndex}.
+ * The index is created on the first query.
+ */
+@NotThreadSafe
+public class SuiteResultsQuery {
+
+    private static final String USAGE = "Usage: SuiteResultsQuery <results file> [--run <run id> | --test-file <class name> | --test <test name>]";
+
+    private final SuiteResultsIndex index;
+    private final Printer printer;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 3) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        try (SuiteResultsIndex index = SuiteResultsIndex.openOrBuild(Paths.get(args[0]))) {
+            SuiteResultsQuery query = new SuiteResultsQuery(index, new PlainTextPrinter(System.out));
+            if (args.length == 1) {
+                query.printRunList(index.getRunIds());
+            } else if (args[1].equals("--run")) {
+                query.printRuns(Collections.singletonList(new RunId(Integer.parseInt(args[2]))));
+            } else if (args[1].equals("--test-file")) {
+                query.printRuns(index.getRunIds(TestFile.fromClassName(args[2])));
+            } else if (args[1].equals("--test")) {
+                query.printRuns(index.getRunIdsByTestName(args[2]));
+            } else {
+                System.err.println(USAGE);
+                System.exit(2);
+            }
+        }
+        System.out.flush();
+    }
+
+    public SuiteResultsQuery(SuiteResultsIndex index, Printer printer) {
+        this.index = index;
+        this.printer = printer;
+    }
+
+    public void printRunList(List<RunId> runIds) {
+        for (RunId runId : runIds) {
+            printer.printMetaLine(" > Run #" + runId.toInt() + " in " + index.getTestFile(runId));
+        }
+    }
+
+    public void printRuns(List<RunId> runIds) {
+        if (runIds.isEmpty()) {
+            printer.printMetaLine(" > No matching runs");
+        }
+        for (RunId runId : runIds) {
+            index.visitRun(runId, new RunPrinter());
+        }
+    }
+
+
+    @NotThreadSafe
+    private class RunPrinter implements RunVisitor {
+
+        private int testNestingLevel = 0;
+
+        @Override
+        public void onRunStarted(RunId runId, TestFile testFile) {
+            printer.printMetaLine(" > Run #" + runId.toInt() + " in " + testFile);
+        }
+
+        @Override
+        public void onTestStarted(RunId runId, TestFile testFile, TestId testId) {
+            testNestingLevel++;
+            printTestName("+", testFile, testId);
+        }
+
+        @Override
+        public void onPrintedOut(RunId runId, TestFile testFile, @CheckForNull TestId testId, String text) {
+            printer.printOut(text);
+        }
+
+        @Override
+        public void onPrintedErr(RunId runId, TestFile testFile, @CheckForNull TestId testId, String text) {
+            printer.printErr(text);
+        }
+
+        @Override
+        public void onFailure(RunId runId, TestFile testFile, TestId testId, StackTrace cause) {
+            StringWriter buffer = new StringWriter();
+            cause.printStackTrace(new PrintWriter(buffer));
+            printer.printErr(buffer.toString());
+        }
+
+        @Override
+        public void onTestFinished(RunId runId, TestFile testFile, TestId testId) {
+            printTestName("-", testFile, testId);
+            testNestingLevel--;
+        }
+
+        @Override
+        public void onRunFinished(RunId runId, TestFile testFile) {
+            printer.printMetaLine("");
+        }
+
+        private void printTestName(String bullet, TestFile testFile, TestId testId) {
+            StringBuilder indent = new StringBuilder();
+            for (int i = 1; i < testNestingLevel; i++) {
+                indent.append("  ");
+            }
+            printer.printMetaLine(" > " + indent + bullet + " " + index.getTestName(testFile, testId));
+        }
+    }
+}
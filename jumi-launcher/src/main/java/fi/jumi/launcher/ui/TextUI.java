@@ -1,4 +1,4 @@
-// Copyright © 2011-2013, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
@@ -19,7 +19,6 @@ import static fi.jumi.core.results.SuiteProgressMeter.Status.*;
 @NotThreadSafe
 public class TextUI {
 
-    // TODO: if multiple readers are needed, create a Streamer class per the original designs
     private final MessageReceiver<Event<SuiteListener>> eventStream;
     private final Printer printer;
 
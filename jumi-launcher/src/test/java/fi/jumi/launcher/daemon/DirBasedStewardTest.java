@@ -1,14 +1,16 @@
-// Copyright © 2011-2014, Esko Luontola <www.orfjackal.net>
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
 // This software is released under the Apache License 2.0.
 // The license text is at http://www.apache.org/licenses/LICENSE-2.0
 
 package fi.jumi.launcher.daemon;
 
+import fi.jumi.core.ipc.dirs.DaemonDir;
 import org.apache.commons.io.FileUtils;
 import org.junit.*;
 import org.junit.rules.*;
 
 import java.io.*;
+import java.nio.channels.FileLock;
 import java.nio.file.*;
 import java.nio.file.attribute.FileTime;
 import java.util.*;
@@ -59,6 +61,29 @@ public class DirBasedStewardTest {
         assertThat("unique daemon dirs", uniqueDaemonDirs.size(), is(daemonDirs.size()));
     }
 
+    @Test
+    public void deletes_the_oldest_daemon_directories() {
+        Path oldest = steward.createDaemonDir(jumiHome);
+        for (int i = 0; i < 20; i++) {
+            steward.createDaemonDir(jumiHome);
+        }
+
+        assertThat("oldest", Files.exists(oldest), is(false));
+        assertThat("retained", oldest.getParent().toFile().list().length, is(10));
+    }
+
+    @Test
+    public void does_not_delete_the_daemon_directories_which_are_in_use() throws IOException {
+        Path oldest = steward.createDaemonDir(jumiHome);
+        try (FileLock daemonIsRunning = new DaemonDir(oldest).lock()) {
+            for (int i = 0; i < 20; i++) {
+                steward.createDaemonDir(jumiHome);
+            }
+
+            assertThat("oldest", Files.exists(oldest), is(true));
+        }
+    }
+
     @Test
     public void throws_exception_if_cannot_create_daemon_directory() throws IOException {
         Path parentDir = steward.createDaemonDir(jumiHome).getParent();
@@ -10,8 +10,8 @@ import fi.jumi.actors.queue.MessageSender;
 import fi.jumi.core.api.*;
 import fi.jumi.core.config.*;
 import fi.jumi.core.events.SuiteListenerEventizer;
-import fi.jumi.core.events.suiteListener.OnSuiteStartedEvent;
-import fi.jumi.core.ipc.api.RequestListener;
+import fi.jumi.core.ipc.api.*;
+import fi.jumi.core.ipc.dirs.IpcDirLocation;
 import fi.jumi.core.network.*;
 import fi.jumi.core.util.SpyListener;
 import fi.jumi.launcher.FakeProcess;
@@ -20,6 +20,7 @@ import fi.jumi.launcher.process.*;
 import org.apache.commons.io.output.WriterOutputStream;
 import org.junit.*;
 import org.junit.rules.Timeout;
+import org.mockito.Mockito;
 
 import java.io.*;
 import java.nio.file.*;
@@ -55,7 +56,7 @@ public class ProcessStartingDaemonSummonerTest {
     private final Path dummyDaemonDir = Paths.get("dummy-daemon-dir");
 
     {
-        stub(steward.createDaemonDir(dummyDaemonConfig.getJumiHome())).toReturn(dummyDaemonDir);
+        stub(steward.createDaemonDir(Mockito.any(Path.class))).toReturn(dummyDaemonDir);
     }
 
     @Test
@@ -66,6 +67,19 @@ public class ProcessStartingDaemonSummonerTest {
         assertThat(daemonConfig.getDaemonDir(), is(dummyDaemonDir));
     }
 
+    @Test
+    public void creates_the_daemon_directory_in_the_configured_ipc_dir_location() {
+        Path jumiHome = Paths.get("jumi-home");
+        DaemonConfiguration daemonConfig = new DaemonConfigurationBuilder()
+                .setJumiHome(jumiHome)
+                .setIpcDirLocation(IpcDirLocation.JUMI_HOME)
+                .freeze();
+
+        daemonSummoner.connectToDaemon(dummySuiteConfig, daemonConfig, ActorRef.wrap(daemonListener));
+
+        verify(steward).createDaemonDir(jumiHome);
+    }
+
     @Test
     public void tells_to_daemon_the_socket_to_contact() {
         daemonConnector.portToReturn = 123;
@@ -86,15 +100,16 @@ public class ProcessStartingDaemonSummonerTest {
     }
 
     @Test
+    @SuppressWarnings("unchecked")
     public void tells_to_daemon_listener_what_events_the_daemon_sends() {
         daemonSummoner.connectToDaemon(dummySuiteConfig, dummyDaemonConfig, ActorRef.wrap(daemonListener));
 
-        NetworkEndpoint<Event<SuiteListener>, Event<RequestListener>> endpoint = daemonConnector.lastEndpointFactory.createEndpoint();
+        NetworkEndpoint<Event<ResponseListener>, Event<RequestListener>> endpoint = daemonConnector.lastEndpointFactory.createEndpoint();
 
-        Event<SuiteListener> anyMessage = new OnSuiteStartedEvent();
+        Event<ResponseListener> anyMessage = mock(Event.class);
         endpoint.onMessage(anyMessage);
         // XXX: Mockito has problems with bridge methods; it thinks that there are two different `onMessage` methods, so we must upcast for the verification call
-        verify((NetworkEndpoint<Event<SuiteListener>, Event<RequestListener>>) daemonListener).onMessage(anyMessage);
+        verify((NetworkEndpoint<Event<ResponseListener>, Event<RequestListener>>) daemonListener).onMessage(anyMessage);
     }
 
     @Test
@@ -157,12 +172,12 @@ public class ProcessStartingDaemonSummonerTest {
 
     private static class SpyNetworkServer implements NetworkServer {
 
-        public NetworkEndpointFactory<Event<SuiteListener>, Event<RequestListener>> lastEndpointFactory;
+        public NetworkEndpointFactory<Event<ResponseListener>, Event<RequestListener>> lastEndpointFactory;
         public int portToReturn = 1;
 
         @Override
         public <In, Out> int listenOnAnyPort(NetworkEndpointFactory<In, Out> endpointFactory) {
-            this.lastEndpointFactory = (NetworkEndpointFactory<Event<SuiteListener>, Event<RequestListener>>) endpointFactory;
+            this.lastEndpointFactory = (NetworkEndpointFactory<Event<ResponseListener>, Event<RequestListener>>) endpointFactory;
             return portToReturn;
         }
 
@@ -184,7 +199,11 @@ public class ProcessStartingDaemonSummonerTest {
         }
 
         @Override
-        public void onMessage(Event<SuiteListener> message) {
+        public void onMessage(Event<ResponseListener> message) {
+        }
+
+        @Override
+        public void onSuiteEvent(Event<SuiteListener> message) {
             message.fireOn(suiteListener);
         }
 
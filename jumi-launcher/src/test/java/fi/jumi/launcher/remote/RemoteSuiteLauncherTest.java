@@ -9,18 +9,21 @@ import fi.jumi.actors.eventizers.Event;
 import fi.jumi.actors.queue.*;
 import fi.jumi.core.api.*;
 import fi.jumi.core.config.*;
-import fi.jumi.core.events.RequestListenerEventizer;
+import fi.jumi.core.events.*;
 import fi.jumi.core.events.suiteListener.*;
-import fi.jumi.core.ipc.api.RequestListener;
+import fi.jumi.core.ipc.api.*;
+import fi.jumi.core.ipc.channel.*;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
 import fi.jumi.core.util.SpyListener;
 import fi.jumi.launcher.FakeActorThread;
 import org.junit.*;
-import org.junit.rules.ExpectedException;
+import org.junit.rules.*;
 
-import java.nio.file.Paths;
+import java.nio.file.*;
+import java.util.*;
 
 import static org.hamcrest.MatcherAssert.assertThat;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.*;
 import static org.mockito.Mockito.*;
 
 public class RemoteSuiteLauncherTest {
@@ -28,17 +31,33 @@ public class RemoteSuiteLauncherTest {
     @Rule
     public final ExpectedException thrown = ExpectedException.none();
 
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
     private final RequestListener daemon = mock(RequestListener.class);
     private final MessageSender<Event<RequestListener>> senderToDaemon = new RequestListenerEventizer().newBackend(daemon);
     private final SpyDaemonSummoner daemonSummoner = new SpyDaemonSummoner();
     private final SuiteConfiguration dummySuiteConfig = new SuiteConfiguration();
     private final DaemonConfiguration dummyDaemonConfig = new DaemonConfiguration();
 
+    private final Queue<Runnable> backgroundTasks = new ArrayDeque<>();
+
     private final RemoteSuiteLauncher suiteLauncher =
-            new RemoteSuiteLauncher(new FakeActorThread(), ActorRef.<DaemonSummoner>wrap(daemonSummoner));
+            new RemoteSuiteLauncher(new FakeActorThread(), ActorRef.<DaemonSummoner>wrap(daemonSummoner), backgroundTasks::add);
 
     private final MessageQueue<Event<SuiteListener>> suiteListener = new MessageQueue<>();
 
+    private Path suiteResults;
+    private IpcWriter<SuiteListener> suiteResultsWriter;
+    private SuiteListener daemonWrites;
+
+    @Before
+    public void setup() {
+        suiteResults = tempDir.getRoot().toPath().resolve("suite");
+        suiteResultsWriter = IpcChannel.writer(suiteResults, SuiteListenerEncoding::new);
+        daemonWrites = new SuiteListenerEventizer().newFrontend(suiteResultsWriter);
+    }
+
     @Test
     public void sends_RunTests_command_to_the_daemon_when_it_connects() {
         SuiteConfiguration config = new SuiteConfigurationBuilder()
@@ -52,14 +71,29 @@ public class RemoteSuiteLauncherTest {
         verify(daemon).runTests(config);
     }
 
+    @Test
+    public void reads_the_suite_results_from_the_file_which_the_daemon_tells() {
+        daemonWrites.onSuiteStarted();
+        daemonWrites.onSuiteFinished();
+        suiteResultsWriter.close();
+
+        suiteLauncher.runTests(dummySuiteConfig, dummyDaemonConfig, suiteListener);
+        callback().tell().onConnected(null, senderToDaemon);
+        daemonTellsWhereTheSuiteResultsAre();
+        runBackgroundTasks();
+
+        assertThat(suiteListener.poll(), is((Event<SuiteListener>) new OnSuiteStartedEvent()));
+        assertThat(suiteListener.poll(), is((Event<SuiteListener>) new OnSuiteFinishedEvent()));
+        assertThat(suiteListener.poll(), is(nullValue()));
+    }
+
     @Test
     @SuppressWarnings("unchecked")
-    public void forwards_messages_from_daemon_to_the_SuiteListener() {
+    public void forwards_suite_events_from_other_sources_to_the_SuiteListener() {
         Event<SuiteListener> expectedEvent = mock(Event.class);
         suiteLauncher.runTests(dummySuiteConfig, dummyDaemonConfig, suiteListener);
-        callback().tell().onConnected(null, senderToDaemon);
 
-        callback().tell().onMessage(expectedEvent);
+        callback().tell().onSuiteEvent(expectedEvent);
 
         assertThat(suiteListener.poll(), is(expectedEvent));
     }
@@ -96,10 +130,12 @@ public class RemoteSuiteLauncherTest {
 
         spy.replay();
 
+        daemonWrites.onSuiteStarted(); // suite is in progress
         suiteLauncher.runTests(dummySuiteConfig, dummyDaemonConfig, new EventToSuiteListener(expect));
         callback().tell().onConnected(null, senderToDaemon);
-        callback().tell().onMessage(new OnSuiteStartedEvent()); // suite is in progress
+        daemonTellsWhereTheSuiteResultsAre();
         callback().tell().onDisconnected(); // daemon dies, network connection is disconnection
+        runBackgroundTasks();
 
         spy.verify();
     }
@@ -130,11 +166,13 @@ public class RemoteSuiteLauncherTest {
 
         spy.replay();
 
+        daemonWrites.onSuiteStarted();
+        daemonWrites.onSuiteFinished();
         suiteLauncher.runTests(dummySuiteConfig, dummyDaemonConfig, new EventToSuiteListener(expect));
         callback().tell().onConnected(null, senderToDaemon);
-        callback().tell().onMessage(new OnSuiteStartedEvent());
-        callback().tell().onMessage(new OnSuiteFinishedEvent());
+        daemonTellsWhereTheSuiteResultsAre();
         callback().tell().onDisconnected();
+        runBackgroundTasks();
 
         spy.verify();
     }
@@ -146,6 +184,18 @@ public class RemoteSuiteLauncherTest {
         return daemonSummoner.lastListener;
     }
 
+    private void daemonTellsWhereTheSuiteResultsAre() {
+        new ResponseListenerEventizer().newFrontend(message -> callback().tell().onMessage(message))
+                .onSuiteStarted(suiteResults.toUri());
+    }
+
+    private void runBackgroundTasks() {
+        Runnable task;
+        while ((task = backgroundTasks.poll()) != null) {
+            task.run();
+        }
+    }
+
     private static class SpyDaemonSummoner implements DaemonSummoner {
 
         public ActorRef<DaemonListener> lastListener;
@@ -0,0 +1,68 @@
+// Copyright © 2011-2015, Esko Luontola <www.orfjackal.net>
+// This software is released under the Apache License 2.0.
+// The license text is at http://www.apache.org/licenses/LICENSE-2.0
+
+package fi.jumi.launcher.ui;
+
+import fi.jumi.api.drivers.TestId;
+import fi.jumi.core.api.*;
+import fi.jumi.core.events.SuiteListenerEventizer;
+import fi.jumi.core.ipc.channel.*;
+import fi.jumi.core.ipc.encoding.SuiteListenerEncoding;
+import fi.jumi.core.results.SuiteResultsIndex;
+import org.junit.*;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static fi.jumi.core.util.Asserts.*;
+
+public class SuiteResultsQueryTest {
+
+    private static final TestFile TEST_FILE_1 = TestFile.fromClassName("Test1");
+    private static final TestFile TEST_FILE_2 = TestFile.fromClassName("Test2");
+
+    @Rule
+    public final TemporaryFolder tempDir = new TemporaryFolder();
+
+    private final StringBuilder out = new StringBuilder();
+    private SuiteResultsQuery query;
+
+    @Before
+    public void setup() throws Exception {
+        Path resultsPath = tempDir.getRoot().toPath().resolve("suite");
+        IpcWriter<SuiteListener> writer = IpcChannel.writer(resultsPath, SuiteListenerEncoding::new);
+        SuiteListener results = new SuiteListenerEventizer().newFrontend(writer);
+        results.onTestFound(TEST_FILE_1, TestId.ROOT, "Test1");
+        results.onTestFound(TEST_FILE_2, TestId.ROOT, "Test2");
+        results.onRunStarted(new RunId(1), TEST_FILE_1);
+        results.onTestStarted(new RunId(1), TestId.ROOT);
+        results.onPrintedOut(new RunId(1), "printed by 1\n");
+        results.onTestFinished(new RunId(1));
+        results.onRunFinished(new RunId(1));
+        results.onRunStarted(new RunId(2), TEST_FILE_2);
+        results.onTestStarted(new RunId(2), TestId.ROOT);
+        results.onPrintedOut(new RunId(2), "printed by 2\n");
+        results.onTestFinished(new RunId(2));
+        results.onRunFinished(new RunId(2));
+        writer.close();
+
+        query = new SuiteResultsQuery(SuiteResultsIndex.openOrBuild(resultsPath), new PlainTextPrinter(out));
+    }
+
+    @Test
+    public void lists_the_runs() {
+        query.printRunList(Arrays.asList(new RunId(1), new RunId(2)));
+
+        assertContainsSubStrings(out.toString(), new String[]{" > Run #1 in Test1", " > Run #2 in Test2"});
+    }
+
+    @Test
+    public void prints_only_the_requested_runs() {
+        query.printRuns(Arrays.asList(new RunId(2)));
+
+        assertContainsSubStrings(out.toString(), new String[]{" > Run #2 in Test2", " > + Test2", "printed by 2", " > - Test2"});
+        assertNotContainsSubStrings(out.toString(), new String[]{"Test1", "printed by 1"});
+    }
+}